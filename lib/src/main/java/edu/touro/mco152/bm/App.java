@@ -1,5 +1,6 @@
 package edu.touro.mco152.bm;
 
+import edu.touro.mco152.bm.cli.MetricsRegistry;
 import edu.touro.mco152.bm.persist.DiskRun;
 import edu.touro.mco152.bm.ui.Gui;
 import edu.touro.mco152.bm.ui.MainFrame;
@@ -10,6 +11,7 @@ import javax.swing.*;
 import javax.swing.UIManager.LookAndFeelInfo;
 import java.beans.PropertyChangeEvent;
 import java.io.*;
+import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.util.Properties;
 import java.util.logging.Level;
@@ -37,18 +39,39 @@ public class App {
     public static boolean autoRemoveData = false;
     public static boolean autoReset = true;
     public static boolean showMaxMin = true;
-    public static boolean writeSyncEnable = true;
+    public static boolean writeSyncEnable = true;  // the original toggle, same as syncPolicy DSYNC
+    public static DiskRun.Preallocation preallocation = DiskRun.Preallocation.NONE; // sizes or fills test files before timing
+    public static DiskRun.SyncPolicy syncPolicy = DiskRun.SyncPolicy.DSYNC;
+    public static int syncEveryBlocks = 16;   // blocks written between forces with FORCE_EVERY_N
     // run configuration
     public static boolean readTest = false;
     public static boolean writeTest = true;
+    public static boolean mixedTest = false;
+    public static int readPercent = 70;     // share of reads in a mixed test
     public static DiskRun.BlockSequence blockSequence = DiskRun.BlockSequence.SEQUENTIAL;
+    public static DiskRun.EngineType engineType = DiskRun.EngineType.RANDOM_ACCESS_FILE;
+    public static DiskRun.DataPattern dataPattern = DiskRun.DataPattern.ALTERNATING;
+    public static boolean verifyData = false; // seal written blocks and check them on read-back
+    public static int patternPercent = 50;  // compressible share for COMPRESSIBLE, duplicate share for DEDUPABLE
     public static int numOfMarks = 25;      // desired number of marks
     public static int numOfBlocks = 32;     // desired number of blocks
+    public static int markDurationMs = 0;   // wall time of a timed mark, 0 ends a mark after numOfBlocks
+    public static int runDurationSec = 0;   // total time of a timed run, 0 runs numOfMarks timed marks
+    public static int warmupMarks = 0;      // marks run and thrown away before the first measured mark
+    public static int warmupSec = 0;        // least time spent warming up, whatever warmupMarks says
+    public static int steadyStateCv = 0;    // % CV of mark bandwidth that ends a run early, 0 runs every mark
+    public static int steadyStateWindow = 5; // marks the steady-state CV is taken over
     public static int blockSizeKb = 512;    // size of a block in KBs
+    public static int queueDepth = 1;       // outstanding block requests for the ASYNC_CHANNEL engine
+    public static int numJobs = 1;          // parallel job threads, each on its own stripe of a mark
+    public static int virtualClients = 256; // logical clients for the VIRTUAL_THREADS engine
+    public static int thinkTimeMs = 0;      // pause a virtual client takes between its transfers
+    public static int metricsPort = 0;      // local port serving /metrics for Prometheus, 0 serves none
     public static DiskWorker worker = null;
     public static int nextMarkNumber = 1;   // number of the next mark
-    public static double wMax = -1, wMin = -1, wAvg = -1;
-    public static double rMax = -1, rMin = -1, rAvg = -1;
+    // cumulative marks and transfers since the last reset, replaced whole by resetTestData
+    public static volatile RunMetrics metrics = new RunMetrics();
+    public static MetricsRegistry metricsRegistry = null; // fed by every run once metricsPort is served
 
     /**
      * @param args the command line arguments
@@ -112,6 +135,7 @@ public class App {
         // configure the embedded DB in .jDiskMark
         System.setProperty("derby.system.home", APP_CACHE_DIR);
         loadSavedRuns();
+        serveMetrics();
 
         Gui.mainFrame.setVisible(true);
 
@@ -124,6 +148,25 @@ public class App {
         });
     }
 
+    /**
+     * Starts serving the runs' marks, runs and errors at /metrics on the loopback address, if a
+     * metricsPort is configured. A port that can not be bound leaves the GUI without metrics.
+     */
+    private static void serveMetrics() {
+        if (metricsPort <= 0) {
+            return;
+        }
+        MetricsRegistry registry = new MetricsRegistry();
+        try {
+            registry.serve(new InetSocketAddress("127.0.0.1", metricsPort));
+            metricsRegistry = registry;
+            msg("metrics at http://127.0.0.1:" + metricsPort + "/metrics");
+        } catch (IOException ex) {
+            Logger.getLogger(App.class.getName()).log(Level.SEVERE, null, ex);
+            msg("Unable to serve metrics on port " + metricsPort + ": " + ex.getMessage());
+        }
+    }
+
     /**
      * Loads most recent configuration settings from a file, and saves them to
      * the local Properties field p
@@ -150,6 +193,8 @@ public class App {
         autoReset = Boolean.valueOf(value);
         value = p.getProperty("blockSequence", String.valueOf(blockSequence));
         blockSequence = DiskRun.BlockSequence.valueOf(value);
+        value = p.getProperty("engineType", String.valueOf(engineType));
+        engineType = DiskRun.EngineType.valueOf(value);
         value = p.getProperty("showMaxMin", String.valueOf(showMaxMin));
         showMaxMin = Boolean.valueOf(value);
         value = p.getProperty("numOfFiles", String.valueOf(numOfMarks));
@@ -158,12 +203,52 @@ public class App {
         numOfBlocks = Integer.valueOf(value);
         value = p.getProperty("blockSizeKb", String.valueOf(blockSizeKb));
         blockSizeKb = Integer.valueOf(value);
+        value = p.getProperty("queueDepth", String.valueOf(queueDepth));
+        queueDepth = Integer.valueOf(value);
+        value = p.getProperty("numJobs", String.valueOf(numJobs));
+        numJobs = Integer.valueOf(value);
+        value = p.getProperty("virtualClients", String.valueOf(virtualClients));
+        virtualClients = Integer.valueOf(value);
+        value = p.getProperty("thinkTimeMs", String.valueOf(thinkTimeMs));
+        thinkTimeMs = Integer.valueOf(value);
         value = p.getProperty("writeTest", String.valueOf(writeTest));
         writeTest = Boolean.valueOf(value);
         value = p.getProperty("readTest", String.valueOf(readTest));
         readTest = Boolean.valueOf(value);
+        value = p.getProperty("dataPattern", String.valueOf(dataPattern));
+        dataPattern = DiskRun.DataPattern.valueOf(value);
+        value = p.getProperty("patternPercent", String.valueOf(patternPercent));
+        patternPercent = Integer.valueOf(value);
+        value = p.getProperty("verifyData", String.valueOf(verifyData));
+        verifyData = Boolean.valueOf(value);
+        value = p.getProperty("markDurationMs", String.valueOf(markDurationMs));
+        markDurationMs = Integer.valueOf(value);
+        value = p.getProperty("runDurationSec", String.valueOf(runDurationSec));
+        runDurationSec = Integer.valueOf(value);
+        value = p.getProperty("warmupMarks", String.valueOf(warmupMarks));
+        warmupMarks = Integer.valueOf(value);
+        value = p.getProperty("warmupSec", String.valueOf(warmupSec));
+        warmupSec = Integer.valueOf(value);
+        value = p.getProperty("steadyStateCv", String.valueOf(steadyStateCv));
+        steadyStateCv = Integer.valueOf(value);
+        value = p.getProperty("steadyStateWindow", String.valueOf(steadyStateWindow));
+        steadyStateWindow = Integer.valueOf(value);
+        value = p.getProperty("mixedTest", String.valueOf(mixedTest));
+        mixedTest = Boolean.valueOf(value);
+        value = p.getProperty("readPercent", String.valueOf(readPercent));
+        readPercent = Integer.valueOf(value);
         value = p.getProperty("writeSyncEnable", String.valueOf(writeSyncEnable));
         writeSyncEnable = Boolean.valueOf(value);
+        // configs from before sync policies only have the toggle
+        value = p.getProperty("syncPolicy", writeSyncEnable ? "DSYNC" : "NONE");
+        syncPolicy = DiskRun.SyncPolicy.valueOf(value);
+        writeSyncEnable = syncPolicy == DiskRun.SyncPolicy.DSYNC;
+        value = p.getProperty("syncEveryBlocks", String.valueOf(syncEveryBlocks));
+        syncEveryBlocks = Integer.valueOf(value);
+        value = p.getProperty("preallocation", String.valueOf(preallocation));
+        preallocation = DiskRun.Preallocation.valueOf(value);
+        value = p.getProperty("metricsPort", String.valueOf(metricsPort));
+        metricsPort = Integer.valueOf(value);
     }
 
     /**
@@ -176,13 +261,33 @@ public class App {
         p.setProperty("autoRemoveData", String.valueOf(autoRemoveData));
         p.setProperty("autoReset", String.valueOf(autoReset));
         p.setProperty("blockSequence", String.valueOf(blockSequence));
+        p.setProperty("engineType", String.valueOf(engineType));
         p.setProperty("showMaxMin", String.valueOf(showMaxMin));
         p.setProperty("numOfFiles", String.valueOf(numOfMarks));
         p.setProperty("numOfBlocks", String.valueOf(numOfBlocks));
         p.setProperty("blockSizeKb", String.valueOf(blockSizeKb));
+        p.setProperty("queueDepth", String.valueOf(queueDepth));
+        p.setProperty("numJobs", String.valueOf(numJobs));
+        p.setProperty("virtualClients", String.valueOf(virtualClients));
+        p.setProperty("thinkTimeMs", String.valueOf(thinkTimeMs));
         p.setProperty("writeTest", String.valueOf(writeTest));
         p.setProperty("readTest", String.valueOf(readTest));
+        p.setProperty("dataPattern", String.valueOf(dataPattern));
+        p.setProperty("patternPercent", String.valueOf(patternPercent));
+        p.setProperty("verifyData", String.valueOf(verifyData));
+        p.setProperty("markDurationMs", String.valueOf(markDurationMs));
+        p.setProperty("runDurationSec", String.valueOf(runDurationSec));
+        p.setProperty("warmupMarks", String.valueOf(warmupMarks));
+        p.setProperty("warmupSec", String.valueOf(warmupSec));
+        p.setProperty("steadyStateCv", String.valueOf(steadyStateCv));
+        p.setProperty("steadyStateWindow", String.valueOf(steadyStateWindow));
+        p.setProperty("mixedTest", String.valueOf(mixedTest));
+        p.setProperty("readPercent", String.valueOf(readPercent));
         p.setProperty("writeSyncEnable", String.valueOf(writeSyncEnable));
+        p.setProperty("syncPolicy", String.valueOf(syncPolicy));
+        p.setProperty("syncEveryBlocks", String.valueOf(syncEveryBlocks));
+        p.setProperty("preallocation", String.valueOf(preallocation));
+        p.setProperty("metricsPort", String.valueOf(metricsPort));
 
         try {
             OutputStream out = new FileOutputStream(new File(PROPERTIESFILE));
@@ -201,15 +306,35 @@ public class App {
         sb.append("Config for Java Disk Mark ").append(getVersion()).append('\n');
         sb.append("readTest: ").append(readTest).append('\n');
         sb.append("writeTest: ").append(writeTest).append('\n');
+        sb.append("dataPattern: ").append(dataPattern).append('\n');
+        sb.append("patternPercent: ").append(patternPercent).append('\n');
+        sb.append("verifyData: ").append(verifyData).append('\n');
+        sb.append("syncPolicy: ").append(syncPolicy).append('\n');
+        sb.append("syncEveryBlocks: ").append(syncEveryBlocks).append('\n');
+        sb.append("preallocation: ").append(preallocation).append('\n');
+        sb.append("markDurationMs: ").append(markDurationMs).append('\n');
+        sb.append("runDurationSec: ").append(runDurationSec).append('\n');
+        sb.append("warmupMarks: ").append(warmupMarks).append('\n');
+        sb.append("warmupSec: ").append(warmupSec).append('\n');
+        sb.append("steadyStateCv: ").append(steadyStateCv).append('\n');
+        sb.append("steadyStateWindow: ").append(steadyStateWindow).append('\n');
+        sb.append("mixedTest: ").append(mixedTest).append('\n');
+        sb.append("readPercent: ").append(readPercent).append('\n');
         sb.append("locationDir: ").append(locationDir).append('\n');
         sb.append("multiFile: ").append(multiFile).append('\n');
         sb.append("autoRemoveData: ").append(autoRemoveData).append('\n');
         sb.append("autoReset: ").append(autoReset).append('\n');
         sb.append("blockSequence: ").append(blockSequence).append('\n');
+        sb.append("engineType: ").append(engineType).append('\n');
         sb.append("showMaxMin: ").append(showMaxMin).append('\n');
         sb.append("numOfFiles: ").append(numOfMarks).append('\n');
         sb.append("numOfBlocks: ").append(numOfBlocks).append('\n');
         sb.append("blockSizeKb: ").append(blockSizeKb).append('\n');
+        sb.append("queueDepth: ").append(queueDepth).append('\n');
+        sb.append("numJobs: ").append(numJobs).append('\n');
+        sb.append("virtualClients: ").append(virtualClients).append('\n');
+        sb.append("thinkTimeMs: ").append(thinkTimeMs).append('\n');
+        sb.append("metricsPort: ").append(metricsPort).append('\n');
         return sb.toString();
     }
 
@@ -263,19 +388,26 @@ public class App {
         Gui.mainFrame.adjustSensitivity();
 
         //4. set up disk worker thread and its event handlers
-        worker = new DiskWorker(new AppBenchmarkSettings(), new SwingUI(), new GeneralUsageBenchmarker()); //updated for ctor with args after DIP refactoring
+        GeneralUI ui = metricsRegistry == null ? new SwingUI()
+                : metricsRegistry.recorder(new SwingUI(), locationDir.getPath(), blockSizeKb);
+        worker = new DiskWorker(new AppBenchmarkSettings(), ui, new GeneralUsageBenchmarker()); //updated for ctor with args after DIP refactoring
         worker.addPropertyChangeListener((final PropertyChangeEvent event) -> {
             switch (event.getPropertyName()) {
                 case "progress":
                     int value = (Integer) event.getNewValue();
                     Gui.progressBar.setValue(value);
+                    if (App.markDurationMs > 0) {
+                        Gui.progressBar.setString((value) * App.targetRunSec() / 100 + " / " + App.targetRunSec() + " s");
+                        break;
+                    }
                     long kbProcessed = (value) * App.targetTxSizeKb() / 100;
                     Gui.progressBar.setString(kbProcessed + " / " + App.targetTxSizeKb());
                     break;
                 case "state":
                     switch ((StateValue) event.getNewValue()) {
                         case STARTED:
-                            Gui.progressBar.setString("0 / " + App.targetTxSizeKb());
+                            Gui.progressBar.setString(App.markDurationMs > 0
+                                    ? "0 / " + App.targetRunSec() + " s" : "0 / " + App.targetTxSizeKb());
                             break;
                         case DONE:
                             break;
@@ -333,43 +465,28 @@ public class App {
     }
 
     public static long targetTxSizeKb() {
-        return (long) blockSizeKb * numOfBlocks * numOfMarks;
+        return (long) blockSizeKb * numOfBlocks * marksPerRun();
     }
 
-    public static void updateMetrics(DiskMark mark) {
-        if (mark.type == DiskMark.MarkType.WRITE) {
-            if (wMax == -1 || wMax < mark.getBwMbSec()) {
-                wMax = mark.getBwMbSec();
-            }
-            if (wMin == -1 || wMin > mark.getBwMbSec()) {
-                wMin = mark.getBwMbSec();
-            }
-            if (wAvg == -1) {
-                wAvg = mark.getBwMbSec();
-            } else {
-                int mn = mark.getMarkNum();
-                wAvg = (((double) (mn - 1) * wAvg) + mark.getBwMbSec()) / (double) mn;
-            }
-            mark.setCumAvg(wAvg);
-            mark.setCumMax(wMax);
-            mark.setCumMin(wMin);
-        } else {
-            if (rMax == -1 || rMax < mark.getBwMbSec()) {
-                rMax = mark.getBwMbSec();
-            }
-            if (rMin == -1 || rMin > mark.getBwMbSec()) {
-                rMin = mark.getBwMbSec();
-            }
-            if (rAvg == -1) {
-                rAvg = mark.getBwMbSec();
-            } else {
-                int mn = mark.getMarkNum();
-                rAvg = (((double) (mn - 1) * rAvg) + mark.getBwMbSec()) / (double) mn;
-            }
-            mark.setCumAvg(rAvg);
-            mark.setCumMax(rMax);
-            mark.setCumMin(rMin);
+    /**
+     * A timed run with a run duration gets as many marks as fit in that time, otherwise
+     * the configured number of marks.
+     *
+     * @return the number of marks the next run will make
+     */
+    public static int marksPerRun() {
+        if (markDurationMs > 0 && runDurationSec > 0) {
+            return (int) Math.max(1, runDurationSec * 1000L / markDurationMs);
         }
+        return numOfMarks;
+    }
+
+    public static long targetRunSec() {
+        return (long) marksPerRun() * markDurationMs / 1000;
+    }
+
+    public static void updateMetrics(DiskMark mark) {
+        metrics.record(mark);
     }
 
     static public void resetSequence() {
@@ -382,12 +499,7 @@ public class App {
      */
     static public void resetTestData() {
         nextMarkNumber = 1;
-        wAvg = -1;
-        wMax = -1;
-        wMin = -1;
-        rAvg = -1;
-        rMax = -1;
-        rMin = -1;
+        metrics = new RunMetrics();
     }
 
     public enum State {IDLE_STATE, DISK_TEST_STATE}
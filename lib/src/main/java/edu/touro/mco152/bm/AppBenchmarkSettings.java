@@ -1,19 +1,40 @@
 package edu.touro.mco152.bm;
 
+import edu.touro.mco152.bm.engine.TransferStats;
 import edu.touro.mco152.bm.persist.DiskRun;
 import java.io.File;
 
 public class AppBenchmarkSettings implements BenchmarkSettings {
     @Override public boolean isReadTest() { return App.readTest; }
     @Override public boolean isWriteTest() { return App.writeTest; }
+    @Override public boolean isMixedTest() { return App.mixedTest; }
     @Override public boolean isAutoReset() { return App.autoReset; }
     @Override public boolean isAutoRemoveData() { return App.autoRemoveData; }
     @Override public boolean isMultiFile() { return App.multiFile; }
-    @Override public boolean isWriteSyncEnabled() { return App.writeSyncEnable; }
+    @Override public boolean isPersistRuns() { return true; }
+    @Override public boolean isWriteSyncEnabled() { return App.syncPolicy == DiskRun.SyncPolicy.DSYNC; }
+    @Override public DiskRun.SyncPolicy getSyncPolicy() { return App.syncPolicy; }
+    @Override public int getSyncEveryBlocks() { return App.syncEveryBlocks; }
+    @Override public DiskRun.Preallocation getPreallocation() { return App.preallocation; }
 
-    @Override public int getNumOfMarks() { return App.numOfMarks; }
+    @Override public int getNumOfMarks() { return App.marksPerRun(); }
     @Override public int getNumOfBlocks() { return App.numOfBlocks; }
     @Override public int getBlockSizeKb() { return App.blockSizeKb; }
+    @Override public int getQueueDepth() { return App.queueDepth; }
+    @Override public int getNumJobs() { return App.numJobs; }
+    @Override public int getVirtualClients() { return App.virtualClients; }
+    @Override public int getThinkTimeMs() { return App.thinkTimeMs; }
+    @Override public int getReadPercent() { return App.readPercent; }
+    @Override public int getMarkDurationMs() { return App.markDurationMs; }
+    @Override public int getWarmupMarks() { return App.warmupMarks; }
+    @Override public int getWarmupSec() { return App.warmupSec; }
+    @Override public int getSteadyStateCv() { return App.steadyStateCv; }
+    @Override public int getSteadyStateWindow() { return App.steadyStateWindow; }
+    @Override public String getSweepId() { return null; }
+    @Override public String getSweepCell() { return null; }
+    @Override public DiskRun.DataPattern getDataPattern() { return App.dataPattern; }
+    @Override public int getPatternPercent() { return App.patternPercent; }
+    @Override public boolean isVerifyData() { return App.verifyData; }
     @Override public long getTargetTxSizeKb() { return App.targetTxSizeKb(); }
     @Override public int getNextMarkNumber() { return App.nextMarkNumber; }
     @Override public int getKilobyte() {
@@ -25,10 +46,12 @@ public class AppBenchmarkSettings implements BenchmarkSettings {
 
     @Override public File getDataDir() { return App.dataDir; }
     @Override public DiskRun.BlockSequence getBlockSequence() { return App.blockSequence; }
+    @Override public DiskRun.EngineType getEngineType() { return App.engineType; }
 
     @Override public void resetTestData() { App.resetTestData(); }
     @Override public void updateMetrics(DiskMark mark) { App.updateMetrics(mark); }
-    @Override public void incrementNextMarkNumber() { App.nextMarkNumber += App.numOfMarks; }
+    @Override public void addTransfers(TransferStats stats) { App.metrics.add(stats); }
+    @Override public void incrementNextMarkNumber() { App.nextMarkNumber += App.marksPerRun(); }
     @Override public void setIdleState() { App.state = App.State.IDLE_STATE; }
     @Override public void message(String message) { App.msg(message);}
     @Override
@@ -1,6 +1,7 @@
 package edu.touro.mco152.bm;
 
 import edu.touro.mco152.bm.DiskMark;
+import edu.touro.mco152.bm.engine.TransferStats;
 import edu.touro.mco152.bm.persist.DiskRun;
 import java.io.File;
 /**
@@ -9,14 +10,34 @@ import java.io.File;
 public interface BenchmarkSettings {
     boolean isReadTest();
     boolean isWriteTest();
+    boolean isMixedTest();
     boolean isAutoReset();
     boolean isAutoRemoveData();
     boolean isMultiFile();
+    boolean isPersistRuns();
     boolean isWriteSyncEnabled();
+    DiskRun.SyncPolicy getSyncPolicy();
+    int getSyncEveryBlocks();
+    DiskRun.Preallocation getPreallocation();
 
     int getNumOfMarks();
     int getNumOfBlocks();
     int getBlockSizeKb();
+    int getQueueDepth();
+    int getNumJobs();
+    int getVirtualClients();
+    int getThinkTimeMs();
+    int getReadPercent();
+    int getMarkDurationMs();
+    int getWarmupMarks();
+    int getWarmupSec();
+    int getSteadyStateCv();
+    int getSteadyStateWindow();
+    String getSweepId();
+    String getSweepCell();
+    DiskRun.DataPattern getDataPattern();
+    int getPatternPercent();
+    boolean isVerifyData();
     long getTargetTxSizeKb();
     int getNextMarkNumber();
     int getKilobyte();
@@ -24,9 +45,11 @@ public interface BenchmarkSettings {
 
     File getDataDir();
     DiskRun.BlockSequence getBlockSequence();
+    DiskRun.EngineType getEngineType();
 
     void resetTestData();
     void updateMetrics(DiskMark mark);
+    void addTransfers(TransferStats stats);
     void incrementNextMarkNumber();
     void setIdleState();
     void message(String message);
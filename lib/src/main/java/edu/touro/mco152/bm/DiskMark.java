@@ -1,5 +1,7 @@
 package edu.touro.mco152.bm;
 
+import edu.touro.mco152.bm.engine.LatencyHistogram;
+
 import java.text.DecimalFormat;
 
 /**
@@ -13,19 +15,52 @@ public class DiskMark {
     private double cumMin = 0;
     private double cumMax = 0;
     private double cumAvg = 0;
+    private double iops = 0;       // block operations per second
+    private long bytes = 0;        // bytes moved in this mark
+    private double cumIopsMin = 0;
+    private double cumIopsMax = 0;
+    private double cumIopsAvg = 0;
+    private double syncMs = 0;     // time spent forcing writes to the device, apart from write time
+    private int syncCount = 0;
+    private double latP50Ms = 0;   // per-block latency percentiles of this mark
+    private double latP99Ms = 0;
+    private double latP999Ms = 0;
+    private double latMaxMs = 0;
     public DiskMark(MarkType type) {
         this.type = type;
     }
 
     @Override
     public String toString() {
-        return "Mark(" + type + "): " + getMarkNum() + " bwMbSec: " + getBwMbSecAsString() + " avg: " + getAvgAsString();
+        return "Mark(" + type + "): " + getMarkNum() + " bwMbSec: " + getBwMbSecAsString() + " avg: " + getAvgAsString()
+                + " iops: " + getIopsAsString();
+    }
+
+    /**
+     * Copies the latency percentiles of this mark's block operations.
+     *
+     * @param latency histogram of every block operation in the mark
+     */
+    public void recordLatency(LatencyHistogram latency) {
+        setLatP50Ms(latency.getValueAtPercentileMs(50));
+        setLatP99Ms(latency.getValueAtPercentileMs(99));
+        setLatP999Ms(latency.getValueAtPercentileMs(99.9));
+        setLatMaxMs(latency.getMaxMs());
+    }
+
+    public String getLatencyAsString() {
+        return "p50 " + df.format(getLatP50Ms()) + " p99 " + df.format(getLatP99Ms())
+                + " p99.9 " + df.format(getLatP999Ms()) + " max " + df.format(getLatMaxMs()) + " ms";
     }
 
     public String getBwMbSecAsString() {
         return df.format(getBwMbSec());
     }
 
+    public String getIopsAsString() {
+        return df.format(getIops());
+    }
+
     String getMinAsString() {
         return df.format(getCumMin());
     }
@@ -38,6 +73,10 @@ public class DiskMark {
         return df.format(getCumAvg());
     }
 
+    public MarkType getType() {
+        return type;
+    }
+
     public int getMarkNum() {
         return markNum;
     }
@@ -78,5 +117,97 @@ public class DiskMark {
         this.cumMax = cumMax;
     }
 
+    public double getIops() {
+        return iops;
+    }
+
+    public void setIops(double iops) {
+        this.iops = iops;
+    }
+
+    public double getCumIopsMin() {
+        return cumIopsMin;
+    }
+
+    public void setCumIopsMin(double cumIopsMin) {
+        this.cumIopsMin = cumIopsMin;
+    }
+
+    public double getCumIopsMax() {
+        return cumIopsMax;
+    }
+
+    public void setCumIopsMax(double cumIopsMax) {
+        this.cumIopsMax = cumIopsMax;
+    }
+
+    public double getCumIopsAvg() {
+        return cumIopsAvg;
+    }
+
+    public void setCumIopsAvg(double cumIopsAvg) {
+        this.cumIopsAvg = cumIopsAvg;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public double getSyncMs() {
+        return syncMs;
+    }
+
+    public void setSyncMs(double syncMs) {
+        this.syncMs = syncMs;
+    }
+
+    public String getSyncAsString() {
+        return syncCount == 0 ? "" : " (" + Util.displayString(syncMs) + " ms in " + syncCount + " syncs)";
+    }
+
+    public int getSyncCount() {
+        return syncCount;
+    }
+
+    public void setSyncCount(int syncCount) {
+        this.syncCount = syncCount;
+    }
+
+    public double getLatP50Ms() {
+        return latP50Ms;
+    }
+
+    public void setLatP50Ms(double latP50Ms) {
+        this.latP50Ms = latP50Ms;
+    }
+
+    public double getLatP99Ms() {
+        return latP99Ms;
+    }
+
+    public void setLatP99Ms(double latP99Ms) {
+        this.latP99Ms = latP99Ms;
+    }
+
+    public double getLatP999Ms() {
+        return latP999Ms;
+    }
+
+    public void setLatP999Ms(double latP999Ms) {
+        this.latP999Ms = latP999Ms;
+    }
+
+    public double getLatMaxMs() {
+        return latMaxMs;
+    }
+
+    public void setLatMaxMs(double latMaxMs) {
+        this.latMaxMs = latMaxMs;
+    }
+
     public enum MarkType {READ, WRITE}
 }
@@ -1,7 +1,11 @@
 package edu.touro.mco152.bm;
 
 import edu.touro.mco152.bm.commands.*;
+import edu.touro.mco152.bm.engine.DirectIOEngine;
+import edu.touro.mco152.bm.persist.DiskRun;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,12 +20,58 @@ public class GeneralUsageBenchmarker implements Benchmarker {
           its (super class's) execute() method, causing Swing to eventually
           call this doInBackground() method.
          */
+        MyInvoker simpleExecutor = new MyInvoker();
+        if (!queueBenchmark(settings, ui, worker, simpleExecutor)) {
+            return false;
+        }
+        simpleExecutor.runAll();
+        return true;
+    }
+
+    /**
+     * Checks the settings and queues the commands of one benchmark, without running them, so
+     * several benchmarks can be queued on the same invoker and run one after another.
+     *
+     * @return false if the settings can not be benchmarked, in which case nothing was queued
+     */
+    public boolean queueBenchmark(BenchmarkSettings settings, GeneralUI ui, DiskWorker worker,
+                                  MyInvoker simpleExecutor) {
         Logger.getLogger(DiskWorker.class.getName()).log(Level.INFO, "*** New worker thread started ***");
-        settings.message("Running readTest " + settings.isReadTest() + "   writeTest " + settings.isWriteTest());
+        settings.message("Running readTest " + settings.isReadTest() + "   writeTest " + settings.isWriteTest()
+                + "   mixedTest " + settings.isMixedTest());
         settings.message("num files: " + settings.getNumOfMarks() + ", num blks: " + settings.getNumOfBlocks()
                 + ", blk size (kb): " + settings.getBlockSizeKb() + ", blockSequence: " + settings.getBlockSequence());
 
 
+        // Direct I/O can only move blocks that are a whole number of device blocks
+        if (settings.getEngineType() == DiskRun.EngineType.DIRECT) {
+            long blockSize = (long) settings.getBlockSizeKb() * settings.getKilobyte();
+            try {
+                long alignment = DirectIOEngine.getAlignment(settings.getDataDir());
+                if (blockSize % alignment != 0) {
+                    String emsg = "Block size of " + settings.getBlockSizeKb() + " KB can not be aligned to the "
+                            + alignment + " byte block size needed for DIRECT I/O";
+                    settings.message(emsg);
+                    ui.showErrorMessageDialog(emsg, "Unable to use DIRECT I/O");
+                    return false;
+                }
+            } catch (IOException e) {
+                String emsg = "Unable to determine DIRECT I/O alignment: " + e.getMessage();
+                settings.message(emsg);
+                ui.showErrorMessageDialog(emsg, "Unable to use DIRECT I/O");
+                return false;
+            }
+        }
+
+        // virtual clients share one buffer, so what they write and read can not be verified
+        if (settings.isVerifyData() && settings.getEngineType() == DiskRun.EngineType.VIRTUAL_THREADS) {
+            String emsg = "Data verification needs a private buffer per outstanding block, "
+                    + "which the VIRTUAL_THREADS engine does not have";
+            settings.message(emsg);
+            ui.showErrorMessageDialog(emsg, "Unable to verify data");
+            return false;
+        }
+
         ui.updateLegend();  // init chart legend info
 
         if (settings.isAutoReset()) {
@@ -29,14 +79,22 @@ public class GeneralUsageBenchmarker implements Benchmarker {
             ui.resetTestData();
         }
 
-        MyInvoker simpleExecutor = new MyInvoker();
-
-
 
         /*
           The GUI allows a Write, Read, or both types of BMs to be started. They are done serially.
+          A Mixed BM interleaves reads and writes within each mark instead.
          */
+        if (settings.isMixedTest()) {
+            MixedBenchmarkCommandReceiver mixedReceiver = new MixedBenchmarkCommandReceiver();
+            simpleExecutor.submit(new MixedBenchmarkCommand(settings, ui, worker, mixedReceiver));
+        }
+
+        // where the write pass starts is only known once the commands queued before it have run
+        AtomicInteger writeStart = new AtomicInteger();
         if (settings.isWriteTest()) {
+            if (settings.isReadTest()) {
+                simpleExecutor.submit(() -> writeStart.set(settings.getNextMarkNumber()));
+            }
             WriteBenchMarkCommandReceiver writeReceiver = new WriteBenchMarkCommandReceiver();
             WriteBenchmarkCommand writeCommand = new WriteBenchmarkCommand(settings,ui,worker, writeReceiver);
             simpleExecutor.submit(writeCommand);
@@ -49,26 +107,32 @@ public class GeneralUsageBenchmarker implements Benchmarker {
          */
 
         // try renaming all files to clear catch
-        if (settings.isReadTest() && settings.isWriteTest() && !worker.isCancelledFromOutside()) {
+        // DIRECT I/O bypasses the page cache, so there is nothing to clear before the read
+        if (settings.isReadTest() && settings.isWriteTest() && !worker.isCancelledFromOutside()
+                && settings.getEngineType() != DiskRun.EngineType.DIRECT) {
             ui.showPlainMessageDialog(
                     """
                             For valid READ measurements please clear the disk cache by
                             using the included RAMMap.exe or flushmem.exe utilities.
                             Removable drives can be disconnected and reconnected.
                             For system drives use the WRITE and READ operations\s
-                            independantly by doing a cold reboot after the WRITE""",
+                            independantly by doing a cold reboot after the WRITE,
+                            or select the DIRECT IO Engine to bypass the cache""",
                     "Clear Disk Cache Now");
         }
 
         // Same as above, just for Read operations instead of Writes.
         if (settings.isReadTest()) {
+            // the write moves the next mark number past its files, so rewind to read those files back
+            if (settings.isWriteTest()) {
+                simpleExecutor.submit(() -> settings.setNextMarkNumber(writeStart.get()));
+            }
             ReadBenchmarkCommandReceiver readReceiver = new ReadBenchmarkCommandReceiver();
             ReadBenchmarkCommand readCommand = new ReadBenchmarkCommand(settings,ui, worker, readReceiver);
             simpleExecutor.submit(readCommand);
         }
 
-        simpleExecutor.runAll();
-        settings.incrementNextMarkNumber();
+        simpleExecutor.submit(settings::incrementNextMarkNumber);
         return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package edu.touro.mco152.bm;
+
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.apache.commons.math3.stat.descriptive.rank.PSquarePercentile;
+
+/**
+ * Summarizes the bandwidth of a run's marks as they complete, so two runs can be told apart
+ * from noise rather than by their averages alone.
+ * <p>
+ * Everything is streaming: mean and standard deviation come from commons-math's
+ * SummaryStatistics (Welford's method), and the median, p5 and p95 from P-square estimators
+ * that keep five markers each, so a run of any length costs the same few doubles. The 95%
+ * confidence interval of the mean uses Student's t with n - 1 degrees of freedom, as runs seldom
+ * have enough marks for the normal approximation.
+ */
+public class MarkStatistics {
+
+    private final SummaryStatistics summary = new SummaryStatistics();
+    private final PSquarePercentile p5 = new PSquarePercentile(5);
+    private final PSquarePercentile median = new PSquarePercentile(50);
+    private final PSquarePercentile p95 = new PSquarePercentile(95);
+
+    /**
+     * @param bwMbSec bandwidth of the mark just measured
+     */
+    public void add(double bwMbSec) {
+        summary.addValue(bwMbSec);
+        p5.increment(bwMbSec);
+        median.increment(bwMbSec);
+        p95.increment(bwMbSec);
+    }
+
+    public long getN() {
+        return summary.getN();
+    }
+
+    public double getMean() {
+        return summary.getMean();
+    }
+
+    /**
+     * @return sample standard deviation, NaN before the second mark
+     */
+    public double getStdDev() {
+        return summary.getN() < 2 ? Double.NaN : summary.getStandardDeviation();
+    }
+
+    /**
+     * @return standard deviation as a percentage of the mean
+     */
+    public double getCvPercent() {
+        return getStdDev() / summary.getMean() * 100d;
+    }
+
+    public double getMedian() {
+        return median.getResult();
+    }
+
+    public double getP5() {
+        return p5.getResult();
+    }
+
+    public double getP95() {
+        return p95.getResult();
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval of the mean, NaN before the second mark
+     */
+    public double getCi95HalfWidth() {
+        long n = summary.getN();
+        if (n < 2) {
+            return Double.NaN;
+        }
+        double t = new TDistribution(n - 1).inverseCumulativeProbability(0.975);
+        return t * summary.getStandardDeviation() / Math.sqrt(n);
+    }
+}
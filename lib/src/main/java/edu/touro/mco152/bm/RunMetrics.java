@@ -0,0 +1,140 @@
+package edu.touro.mco152.bm;
+
+import edu.touro.mco152.bm.engine.LatencyHistogram;
+import edu.touro.mco152.bm.engine.TransferStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cumulative metrics of the marks and transfers of a run, safe to update and read from any
+ * number of threads without locks.
+ * <p>
+ * Per direction, the bandwidth and IOPS aggregates of the marks so far are held as one
+ * immutable {@link Summary} and swapped in with a compare-and-set for every mark, so a reader
+ * always sees max, min, avg and mark count that belong together. Transfers are not counted
+ * here one by one: the engines count them into the mark's {@link TransferStats}, and the finished
+ * mark's totals are merged in once, by the thread running the marks, so plain atomic totals and
+ * a {@link LatencyHistogram} are all a reader on another thread needs.
+ */
+public class RunMetrics {
+
+    private final AtomicReference<Summary> writeMarks = new AtomicReference<>(Summary.EMPTY);
+    private final AtomicReference<Summary> readMarks = new AtomicReference<>(Summary.EMPTY);
+    private final AtomicLong writeOps = new AtomicLong();
+    private final AtomicLong writeBytes = new AtomicLong();
+    private final AtomicLong readOps = new AtomicLong();
+    private final AtomicLong readBytes = new AtomicLong();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+
+    /**
+     * Folds a finished mark into its direction's aggregates and stamps the mark with the
+     * cumulative values, as charted and reported for it.
+     */
+    public void record(DiskMark mark) {
+        AtomicReference<Summary> marks = mark.type == DiskMark.MarkType.WRITE ? writeMarks : readMarks;
+        Summary summary = marks.updateAndGet(s -> s.plus(mark.getBwMbSec(), mark.getIops()));
+        mark.setCumMax(summary.getBwMax());
+        mark.setCumMin(summary.getBwMin());
+        mark.setCumAvg(summary.getBwAvg());
+        mark.setCumIopsMax(summary.getIopsMax());
+        mark.setCumIopsMin(summary.getIopsMin());
+        mark.setCumIopsAvg(summary.getIopsAvg());
+    }
+
+    /**
+     * Merges the block transfers of a finished mark, both directions, once per mark.
+     */
+    public void add(TransferStats stats) {
+        writeOps.addAndGet(stats.getWriteOps());
+        writeBytes.addAndGet(stats.getWriteBytes());
+        writeLatency.add(stats.getWriteLatency());
+        readOps.addAndGet(stats.getReadOps());
+        readBytes.addAndGet(stats.getReadBytes());
+        readLatency.add(stats.getReadLatency());
+    }
+
+    /**
+     * @return consistent mark aggregates of one direction as of the last mark recorded
+     */
+    public Summary getSummary(DiskMark.MarkType type) {
+        return type == DiskMark.MarkType.WRITE ? writeMarks.get() : readMarks.get();
+    }
+
+    public long getOps(DiskMark.MarkType type) {
+        return type == DiskMark.MarkType.WRITE ? writeOps.get() : readOps.get();
+    }
+
+    public long getBytes(DiskMark.MarkType type) {
+        return type == DiskMark.MarkType.WRITE ? writeBytes.get() : readBytes.get();
+    }
+
+    public LatencyHistogram getLatency(DiskMark.MarkType type) {
+        return type == DiskMark.MarkType.WRITE ? writeLatency : readLatency;
+    }
+
+    /**
+     * Bandwidth and IOPS aggregates of a number of marks. Values are -1 until the first mark,
+     * matching how the GUI and DiskRun show that nothing has been measured.
+     */
+    public static final class Summary {
+        static final Summary EMPTY = new Summary(0, -1, -1, -1, -1, -1, -1);
+
+        private final long marks;
+        private final double bwMax;
+        private final double bwMin;
+        private final double bwAvg;
+        private final double iopsMax;
+        private final double iopsMin;
+        private final double iopsAvg;
+
+        private Summary(long marks, double bwMax, double bwMin, double bwAvg,
+                        double iopsMax, double iopsMin, double iopsAvg) {
+            this.marks = marks;
+            this.bwMax = bwMax;
+            this.bwMin = bwMin;
+            this.bwAvg = bwAvg;
+            this.iopsMax = iopsMax;
+            this.iopsMin = iopsMin;
+            this.iopsAvg = iopsAvg;
+        }
+
+        Summary plus(double bw, double iops) {
+            if (marks == 0) {
+                return new Summary(1, bw, bw, bw, iops, iops, iops);
+            }
+            long n = marks + 1;
+            return new Summary(n, Math.max(bwMax, bw), Math.min(bwMin, bw), (bwAvg * marks + bw) / n,
+                    Math.max(iopsMax, iops), Math.min(iopsMin, iops), (iopsAvg * marks + iops) / n);
+        }
+
+        public long getMarks() {
+            return marks;
+        }
+
+        public double getBwMax() {
+            return bwMax;
+        }
+
+        public double getBwMin() {
+            return bwMin;
+        }
+
+        public double getBwAvg() {
+            return bwAvg;
+        }
+
+        public double getIopsMax() {
+            return iopsMax;
+        }
+
+        public double getIopsMin() {
+            return iopsMin;
+        }
+
+        public double getIopsAvg() {
+            return iopsAvg;
+        }
+    }
+}
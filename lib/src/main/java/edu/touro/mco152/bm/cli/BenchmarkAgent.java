@@ -0,0 +1,105 @@
+package edu.touro.mco152.bm.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs benchmarks for a {@link BenchmarkCoordinator} on a storage node. The agent listens on a
+ * TCP port and serves one coordinator at a time with a line based protocol:
+ * <pre>
+ *   coordinator: RUN
+ *   coordinator: profile lines in the jdm.properties format, usually with a startAt time
+ *   coordinator: END
+ *   agent:       {"event":"ready","clock":...}
+ *   agent:       the JSON lines of the command line runner, ending with the result line
+ * </pre>
+ * The coordinator may send CANCEL at any time, and closing the connection cancels as well.
+ * An agent runs whatever profile it is sent, so only expose its port on a trusted network.
+ * <pre>
+ *   java -cp ... edu.touro.mco152.bm.cli.BenchmarkAgent [--port 7070]
+ * </pre>
+ */
+public class BenchmarkAgent {
+
+    public static final int DEFAULT_PORT = 7070;
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        if (args.length == 2 && args[0].equals("--port")) {
+            port = Integer.parseInt(args[1]);
+        } else if (args.length != 0) {
+            System.err.println("usage: BenchmarkAgent [--port <port>]");
+            System.exit(CommandLineRunner.EXIT_USAGE);
+        }
+        // stray prints such as Util's disk info stay out of the protocol
+        System.setOut(System.err);
+        try (ServerSocket server = new ServerSocket(port)) {
+            System.err.println("Benchmark agent listening on port " + server.getLocalPort());
+            serve(server, System.err);
+        }
+    }
+
+    /**
+     * Serves coordinators one after another until the server socket is closed.
+     */
+    static void serve(ServerSocket server, PrintStream log) {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                log.println("Coordinator connected from " + socket.getRemoteSocketAddress());
+                int exitCode = handle(socket, log);
+                log.println("Benchmark finished with exit code " + exitCode);
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    log.println("Coordinator connection failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads one RUN request from the socket, runs it and streams the results back.
+     *
+     * @return exit code of the benchmark, as the command line runner would return it
+     */
+    static int handle(Socket socket, PrintStream log) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintStream out = new PrintStream(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        if (!"RUN".equals(in.readLine())) {
+            out.println(new JsonLine("result").add("status", "failed").add("error", "expected RUN"));
+            return CommandLineRunner.EXIT_USAGE;
+        }
+        StringBuilder profile = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals("END")) {
+            profile.append(line).append('\n');
+        }
+        Properties p = new Properties();
+        p.load(new StringReader(profile.toString()));
+        out.println(new JsonLine("ready").add("clock", System.currentTimeMillis()));
+
+        AtomicBoolean cancel = new AtomicBoolean(false);
+        Thread listener = new Thread(() -> {
+            try {
+                String request;
+                while ((request = in.readLine()) != null && !request.equals("CANCEL")) {
+                    log.println("Ignoring request while running: " + request);
+                }
+            } catch (IOException ignored) {
+                // the connection closed under us, which also means cancel
+            }
+            cancel.set(true);
+        }, "agent-cancel-listener");
+        listener.setDaemon(true);
+        listener.start();
+
+        return CommandLineRunner.run(p, out, log, cancel);
+    }
+}
@@ -0,0 +1,197 @@
+package edu.touro.mco152.bm.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Runs the same benchmark on many storage nodes at the same moment, each running a
+ * {@link BenchmarkAgent}, and merges what they measure into cluster level throughput:
+ * <pre>
+ *   java -cp ... edu.touro.mco152.bm.cli.BenchmarkCoordinator --agents node1:7070,node2:7070 \
+ *       --profile soak.properties numOfFiles=100
+ * </pre>
+ * The profile is taken as by the command line runner and sent to every agent with a startAt
+ * time a few seconds ahead (--delay ms), so all agents start together; their clocks are expected
+ * to be in sync, e.g. with NTP, and an agent whose clock is off is reported. Each agent's lines
+ * are relayed to stdout with an agent field, a cluster line follows every mark all agents have
+ * reported or finished without, and partial cluster lines for agents lost midway, cluster-total
+ * lines per cell and a result line end the output. Several agents on
+ * different ports of localhost stand in for a cluster when testing.
+ * <p>
+ * The exit code is 0 when every agent succeeded, 1 when any failed or could not be reached, and
+ * 2 when the arguments were wrong.
+ */
+public class BenchmarkCoordinator {
+
+    static final String USAGE = """
+            usage: BenchmarkCoordinator --agents host:port,... [--delay <ms>] [--profile <file>] [key=value ...]
+              the profile and key=value arguments are those of CommandLineRunner""";
+
+    static final int CONNECT_TIMEOUT_MS = 5000;
+    static final long MAX_CLOCK_SKEW_MS = 100;
+
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        System.setOut(System.err);
+        System.exit(run(args, out, System.err));
+    }
+
+    /**
+     * @return the exit code for the process
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        List<String> agents = new ArrayList<>();
+        long delayMs = 3000;
+        List<String> profileArgs = new ArrayList<>();
+        Properties p = new Properties();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--agents") && i + 1 < args.length) {
+                    for (String agent : args[++i].split(",")) {
+                        if (!agent.isBlank()) {
+                            agents.add(agent.trim());
+                        }
+                    }
+                } else if (args[i].equals("--delay") && i + 1 < args.length) {
+                    delayMs = Long.parseLong(args[++i]);
+                } else {
+                    profileArgs.add(args[i]);
+                }
+            }
+            CommandLineRunner.parseArgs(profileArgs.toArray(new String[0]), p);
+            if (agents.isEmpty()) {
+                throw new IllegalArgumentException("No agents given");
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return CommandLineRunner.EXIT_USAGE;
+        }
+
+        p.setProperty("startAt", String.valueOf(System.currentTimeMillis() + delayMs));
+        StringWriter profile = new StringWriter();
+        try {
+            p.store(profile, null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        ClusterAggregator aggregator = new ClusterAggregator(agents.size());
+        List<Socket> sockets = new CopyOnWriteArrayList<>();
+        Thread cancelHook = new Thread(() -> sockets.forEach(socket -> send(socket, "CANCEL\n")));
+        Runtime.getRuntime().addShutdownHook(cancelHook);
+
+        List<Thread> readers = new ArrayList<>();
+        boolean reached = true;
+        for (String agent : agents) {
+            try {
+                Socket socket = connect(agent);
+                sockets.add(socket);
+                long sent = System.currentTimeMillis();
+                send(socket, "RUN\n" + profile + "END\n");
+                Thread reader = new Thread(() -> relay(agent, socket, sent, aggregator, out, err), "relay-" + agent);
+                reader.start();
+                readers.add(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                err.println("Unable to reach agent " + agent + ": " + e.getMessage());
+                reached = false;
+                break;
+            }
+        }
+        if (!reached) {
+            sockets.forEach(socket -> send(socket, "CANCEL\n"));
+        }
+        for (Thread reader : readers) {
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Runtime.getRuntime().removeShutdownHook(cancelHook);
+        sockets.forEach(socket -> {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        });
+
+        for (JsonLine partial : aggregator.flush()) {
+            print(out, partial.toString());
+        }
+        for (JsonLine total : aggregator.totals()) {
+            print(out, total.toString());
+        }
+        boolean ok = reached && aggregator.isAllOk();
+        print(out, new JsonLine("result")
+                .add("status", ok ? "ok" : "failed")
+                .add("agents", agents.size())
+                .toString());
+        return ok ? CommandLineRunner.EXIT_OK : CommandLineRunner.EXIT_FAILED;
+    }
+
+    private static Socket connect(String agent) throws IOException {
+        int colon = agent.lastIndexOf(':');
+        String host = colon < 0 ? agent : agent.substring(0, colon);
+        int port = colon < 0 ? BenchmarkAgent.DEFAULT_PORT : Integer.parseInt(agent.substring(colon + 1));
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+        return socket;
+    }
+
+    private static void send(Socket socket, String text) {
+        try {
+            socket.getOutputStream().write(text.getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+        } catch (IOException ignored) {
+            // the agent is gone, its relay reports that
+        }
+    }
+
+    /**
+     * Relays the lines of one agent to stdout until it sends its result or disconnects.
+     */
+    private static void relay(String agent, Socket socket, long sent, ClusterAggregator aggregator,
+                              PrintStream out, PrintStream err) {
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if ("ready".equals(JsonLine.get(line, "event"))) {
+                    long now = System.currentTimeMillis();
+                    long skew = Long.parseLong(JsonLine.get(line, "clock")) - (sent + now) / 2;
+                    if (Math.abs(skew) > MAX_CLOCK_SKEW_MS) {
+                        err.println("Agent " + agent + " clock is off by about " + skew + " ms, it will not start in step");
+                    }
+                    continue;
+                }
+                print(out, JsonLine.append(line, "agent", agent));
+                for (JsonLine cluster : aggregator.add(agent, line)) {
+                    print(out, cluster.toString());
+                }
+                if ("result".equals(JsonLine.get(line, "event"))) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            err.println("Lost agent " + agent + ": " + e.getMessage());
+        }
+    }
+
+    private static void print(PrintStream out, String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
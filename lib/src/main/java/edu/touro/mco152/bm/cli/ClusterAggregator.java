@@ -0,0 +1,195 @@
+package edu.touro.mco152.bm.cli;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges the JSON lines streamed back by several benchmark agents into cluster level numbers.
+ * <p>
+ * Agents start together, so the same mark of every agent covers the same moment: once all
+ * agents have reported a mark, its bandwidth and IOPS are summed into a cluster mark. Marks are
+ * matched by cell, device, type and mark number. An agent that stops early, through steady
+ * state, a failure or a cancel, reports no more marks, so once its result arrives the marks
+ * waiting on it are summed over the agents that did report them, with their count.
+ * <p>
+ * Cells of a sweep run one after another, so the runs' averages are summed per cell and IO mode
+ * for the totals of the job, never across cells.
+ */
+public class ClusterAggregator {
+
+    private final int agents;
+    private final Map<String, Integer> agentCells = new HashMap<>();
+    private final Map<String, PendingMark> pendingMarks = new LinkedHashMap<>();
+    private final Set<String> finished = new HashSet<>();
+    private final Map<String, RunTotals> runTotals = new LinkedHashMap<>();
+    private final Map<String, String> results = new HashMap<>();
+
+    /**
+     * @param agents number of agents taking part, each mark waits for all of them
+     */
+    public ClusterAggregator(int agents) {
+        this.agents = agents;
+    }
+
+    /**
+     * @param agent name of the agent the line came from
+     * @param line one JSON line as written by the agent
+     * @return cluster lines the line completed, usually none
+     */
+    public synchronized List<JsonLine> add(String agent, String line) {
+        List<JsonLine> cluster = new ArrayList<>();
+        String event = JsonLine.get(line, "event");
+        if (event == null) {
+            return cluster;
+        }
+        switch (event) {
+            case "cell":
+                agentCells.merge(agent, 1, Integer::sum);
+                break;
+            case "mark":
+                String type = JsonLine.get(line, "type");
+                String mark = JsonLine.get(line, "mark");
+                int cell = agentCells.getOrDefault(agent, 1);
+                String key = cell + "|" + JsonLine.get(line, "device") + "|" + type + "|" + mark;
+                PendingMark pending = pendingMarks.computeIfAbsent(key,
+                        k -> new PendingMark(cell, type, Long.parseLong(mark)));
+                pending.reported.add(agent);
+                pending.bwMbSec += number(line, "bwMbSec");
+                pending.iops += number(line, "iops");
+                if (isComplete(pending)) {
+                    pendingMarks.remove(key);
+                    cluster.add(pending.toLine());
+                }
+                break;
+            case "run":
+                int runCell = agentCells.getOrDefault(agent, 1);
+                String ioMode = JsonLine.get(line, "ioMode");
+                RunTotals totals = runTotals.computeIfAbsent(runCell + "|" + ioMode,
+                        k -> new RunTotals(runCell, ioMode));
+                totals.runs++;
+                totals.bwMbSec += number(line, "bwAvg");
+                totals.iops += number(line, "iopsAvg");
+                break;
+            case "result":
+                results.put(agent, JsonLine.get(line, "status"));
+                finished.add(agent);
+                // the agent reports no more marks, so what waits on it only waits on the others
+                for (Iterator<PendingMark> it = pendingMarks.values().iterator(); it.hasNext(); ) {
+                    PendingMark waiting = it.next();
+                    if (isComplete(waiting)) {
+                        it.remove();
+                        cluster.add(waiting.toLine());
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        return cluster;
+    }
+
+    /**
+     * Sums the marks still waiting for agents that will never report them, such as agents whose
+     * connection was lost.
+     * @return one partial cluster line per waiting mark
+     */
+    public synchronized List<JsonLine> flush() {
+        List<JsonLine> lines = new ArrayList<>();
+        for (PendingMark pending : pendingMarks.values()) {
+            lines.add(pending.toLine());
+        }
+        pendingMarks.clear();
+        return lines;
+    }
+
+    /**
+     * @return one line per cell and IO mode with the summed average bandwidth and IOPS of its runs
+     */
+    public synchronized List<JsonLine> totals() {
+        List<JsonLine> lines = new ArrayList<>();
+        for (RunTotals totals : runTotals.values()) {
+            lines.add(new JsonLine("cluster-total")
+                    .add("cell", totals.cell)
+                    .add("ioMode", totals.ioMode)
+                    .add("runs", totals.runs)
+                    .add("bwMbSec", totals.bwMbSec)
+                    .add("iops", totals.iops));
+        }
+        return lines;
+    }
+
+    /**
+     * @return true if every agent finished with status ok
+     */
+    public synchronized boolean isAllOk() {
+        return results.size() == agents && results.values().stream().allMatch("ok"::equals);
+    }
+
+    /**
+     * @return true once every agent has reported the mark or finished without it
+     */
+    private boolean isComplete(PendingMark pending) {
+        int gone = 0;
+        for (String agent : finished) {
+            if (!pending.reported.contains(agent)) {
+                gone++;
+            }
+        }
+        return pending.reported.size() + gone >= agents;
+    }
+
+    private static double number(String line, String name) {
+        String value = JsonLine.get(line, name);
+        return value == null ? 0 : Double.parseDouble(value);
+    }
+
+    /**
+     * One mark of the cluster, summed over the agents that reported it so far.
+     */
+    private static final class PendingMark {
+        final int cell;
+        final String type;
+        final long mark;
+        final Set<String> reported = new HashSet<>();
+        double bwMbSec;
+        double iops;
+
+        PendingMark(int cell, String type, long mark) {
+            this.cell = cell;
+            this.type = type;
+            this.mark = mark;
+        }
+
+        JsonLine toLine() {
+            return new JsonLine("cluster")
+                    .add("cell", cell)
+                    .add("type", type)
+                    .add("mark", mark)
+                    .add("agents", reported.size())
+                    .add("bwMbSec", bwMbSec)
+                    .add("iops", iops);
+        }
+    }
+
+    /**
+     * Runs of one cell and IO mode, with their summed average bandwidth and IOPS.
+     */
+    private static final class RunTotals {
+        final int cell;
+        final String ioMode;
+        long runs;
+        double bwMbSec;
+        double iops;
+
+        RunTotals(int cell, String ioMode) {
+            this.cell = cell;
+            this.ioMode = ioMode;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package edu.touro.mco152.bm.cli;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.touro.mco152.bm.App;
+import edu.touro.mco152.bm.GeneralUI;
+import edu.touro.mco152.bm.GeneralUsageBenchmarker;
+import edu.touro.mco152.bm.Util;
+import edu.touro.mco152.bm.commands.MyInvoker;
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs one benchmark without the GUI, for servers and scripts. Parameters come from an optional
+ * profile file in the jdm.properties format, overridden by key=value arguments:
+ * <pre>
+ *   java -cp ... edu.touro.mco152.bm.cli.CommandLineRunner --profile nvme.properties numOfFiles=50
+ * </pre>
+ * A profile with sweep.&lt;key&gt; axes runs a whole {@link SweepScenario}, one benchmark per cell,
+ * and locationDirs benchmarks each cell on several devices, concurrently or one after another,
+ * with a host line totaling the devices. The commands of every cell and device are queued before
+ * any of them runs, and the runs are stored under one sweep id.
+ * <p>
+ * Marks and runs are streamed to stdout as JSON lines, ending with a result line; messages go to
+ * stderr. With metricsPort set, the marks, runs and errors are also served for Prometheus at
+ * GET /metrics while the benchmarks run, see {@link MetricsRegistry}. The exit code is 0 when the benchmark succeeded, 1 when it failed, was cancelled or
+ * found corrupt blocks, and 2 when the arguments were wrong.
+ */
+public class CommandLineRunner {
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    static final String USAGE = """
+            usage: CommandLineRunner [--profile <file>] [key=value ...]
+              keys are those of jdm.properties, e.g. locationDir, writeTest, readTest, mixedTest,
+              numOfFiles (marks), numOfBlocks, blockSizeKb, engineType, blockSequence, syncPolicy,
+              plus persistRuns=true to also store the runs in the GUI's run history;
+              sweep.<key>=v1,v2,... makes key an axis of a parameter sweep;
+              locationDirs=dir1,dir2,... with deviceOrder=CONCURRENT|SERIAL benchmarks several devices;
+              metricsPort=<port> serves /metrics while the benchmarks run, on metricsBind (default 127.0.0.1)""";
+
+    public static void main(String[] args) {
+        // only JSON lines may reach stdout, so stray prints such as Util's disk info go to stderr
+        PrintStream out = System.out;
+        System.setOut(System.err);
+        System.exit(run(args, out, System.err));
+    }
+
+    /**
+     * @return the exit code for the process
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Properties p = new Properties();
+        try {
+            parseArgs(args, p);
+        } catch (IllegalArgumentException | IOException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (p.containsKey("help")) {
+            out.println(USAGE);
+            return EXIT_OK;
+        }
+
+        MetricsRegistry metrics = null;
+        HttpServer metricsServer = null;
+        if (p.containsKey("metricsPort")) {
+            metrics = new MetricsRegistry();
+            try {
+                metricsServer = metrics.serve(new InetSocketAddress(p.getProperty("metricsBind", "127.0.0.1"),
+                        Integer.parseInt(p.getProperty("metricsPort"))));
+            } catch (IllegalArgumentException e) {
+                err.println("Invalid value: metricsPort " + e.getMessage());
+                return EXIT_USAGE;
+            } catch (IOException e) {
+                err.println("Unable to serve metrics: " + e.getMessage());
+                return EXIT_FAILED;
+            }
+            err.println("metrics at http://" + metricsServer.getAddress().getHostString() + ":"
+                    + metricsServer.getAddress().getPort() + "/metrics");
+        }
+
+        AtomicBoolean cancel = new AtomicBoolean(false);
+        Thread main = Thread.currentThread();
+        Thread cancelHook = new Thread(() -> {
+            cancel.set(true);
+            try {
+                main.join(10_000);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(cancelHook);
+        int exitCode;
+        try {
+            exitCode = run(p, out, err, cancel, metrics);
+        } finally {
+            if (metricsServer != null) {
+                metricsServer.stop(0);
+            }
+        }
+        if (!cancel.get()) {
+            Runtime.getRuntime().removeShutdownHook(cancelHook);
+        }
+        return exitCode;
+    }
+
+    /**
+     * Runs the benchmarks a profile describes. If the profile has a startAt time, in milliseconds
+     * since the epoch, every cell is checked and queued first and the first one starts at that
+     * moment, so runners on several hosts can start together.
+     *
+     * @param cancel set to stop the benchmarks from another thread
+     * @return the exit code for the process
+     */
+    public static int run(Properties p, PrintStream out, PrintStream err, AtomicBoolean cancel) {
+        return run(p, out, err, cancel, null);
+    }
+
+    /**
+     * Runs the benchmarks a profile describes, as above, and feeds every mark, run and error to
+     * metrics as well.
+     *
+     * @param metrics registry to feed, or null
+     * @return the exit code for the process
+     */
+    static int run(Properties p, PrintStream out, PrintStream err, AtomicBoolean cancel, MetricsRegistry metrics) {
+        long startAt;
+        try {
+            startAt = Long.parseLong(p.getProperty("startAt", "0"));
+        } catch (NumberFormatException e) {
+            err.println("Invalid value: startAt " + e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        SweepScenario scenario;
+        List<List<Target>> cells = new ArrayList<>();
+        JsonLinesUI output = new JsonLinesUI(out, err);
+        try {
+            scenario = new SweepScenario(p);
+            for (int i = 0; i < scenario.size(); i++) {
+                List<Target> targets = new ArrayList<>();
+                if (scenario.getDevices().isEmpty()) {
+                    targets.add(new Target(new ProfileBenchmarkSettings(scenario.getCell(i), err::println),
+                            output, cancel, metrics));
+                }
+                for (String device : scenario.getDevices()) {
+                    ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(scenario.getCell(i, device),
+                            message -> err.println("[" + device + "] " + message));
+                    targets.add(new Target(settings, new JsonLinesUI(out, err, device), cancel, metrics));
+                }
+                cells.add(targets);
+            }
+        } catch (IllegalArgumentException e) {
+            err.println("Invalid value: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        List<Target> allTargets = new ArrayList<>();
+        cells.forEach(allTargets::addAll);
+        Set<File> dataDirs = new LinkedHashSet<>();
+        for (Target target : allTargets) {
+            if (!target.settings.getLocationDir().isDirectory()) {
+                err.println("locationDir " + target.settings.getLocationDir() + " is not a directory");
+                return EXIT_USAGE;
+            }
+            if (target.settings.isPersistRuns()) {
+                System.setProperty("derby.system.home", App.APP_CACHE_DIR);
+            }
+            target.settings.getDataDir().mkdirs();
+            dataDirs.add(target.settings.getDataDir());
+        }
+
+        // every cell is checked and queued before the first one runs, so a bad cell fails fast
+        GeneralUsageBenchmarker benchmarker = new GeneralUsageBenchmarker();
+        boolean queued = true;
+        for (int i = 0; i < allTargets.size() && queued; i++) {
+            Target target = allTargets.get(i);
+            queued = benchmarker.queueBenchmark(target.settings, target.feed, target.worker, target.invoker);
+        }
+
+        String status;
+        int exitCode;
+        boolean cancelled = false;
+        try {
+            if (queued) {
+                waitUntil(startAt, cancel);
+            }
+            for (int i = 0; i < cells.size() && queued && !cancelled; i++) {
+                List<Target> targets = cells.get(i);
+                if (scenario.isSweep()) {
+                    output.print(new JsonLine("cell")
+                            .add("sweepId", scenario.getSweepId())
+                            .add("cell", i + 1)
+                            .add("cells", cells.size())
+                            .add("params", scenario.getCell(i).getProperty("sweepCell"))
+                            .add("devices", scenario.getDevices().size()));
+                }
+                if (targets.size() > 1 && scenario.getDeviceOrder() == SweepScenario.DeviceOrder.CONCURRENT) {
+                    runConcurrently(targets);
+                } else {
+                    for (Target target : targets) {
+                        target.invoker.runAll();
+                    }
+                }
+                if (targets.size() > 1) {
+                    printHostTotals(output, scenario, i + 1, targets);
+                }
+                cancelled = cancel.get();
+            }
+            int errors = 0;
+            for (JsonLinesUI ui : uniqueUis(allTargets)) {
+                errors += ui.getErrors();
+            }
+            if (cancelled || cancel.get()) {
+                status = "cancelled";
+                exitCode = EXIT_FAILED;
+            } else if (!queued || errors > 0) {
+                status = "failed";
+                exitCode = EXIT_FAILED;
+            } else {
+                status = "ok";
+                exitCode = EXIT_OK;
+            }
+        } catch (Exception e) {
+            err.println("Benchmark failed: " + e);
+            status = "failed";
+            exitCode = EXIT_FAILED;
+        } finally {
+            for (Target target : allTargets) {
+                if (target.settings.isAutoRemoveData() && dataDirs.remove(target.settings.getDataDir())) {
+                    Util.deleteDirectory(target.settings.getDataDir());
+                }
+            }
+        }
+        int runs = 0;
+        int errors = 0;
+        for (JsonLinesUI ui : uniqueUis(allTargets)) {
+            runs += ui.getRuns();
+            errors += ui.getErrors();
+        }
+        output.print(new JsonLine("result")
+                .add("status", status)
+                .add("sweepId", scenario.getSweepId())
+                .add("runs", runs)
+                .add("errors", errors));
+        return exitCode;
+    }
+
+    /**
+     * One device of one cell: its settings, and the UI, worker and queued commands that run it.
+     * The commands report to feed, which is the UI itself or a metrics recorder in front of it.
+     */
+    private static final class Target {
+        final ProfileBenchmarkSettings settings;
+        final JsonLinesUI ui;
+        final GeneralUI feed;
+        final HeadlessWorker worker;
+        final MyInvoker invoker = new MyInvoker();
+
+        Target(ProfileBenchmarkSettings settings, JsonLinesUI ui, AtomicBoolean cancel, MetricsRegistry metrics) {
+            this.settings = settings;
+            this.ui = ui;
+            this.feed = metrics == null ? ui
+                    : metrics.recorder(ui, settings.getLocationDir().getPath(), settings.getBlockSizeKb());
+            this.worker = new HeadlessWorker(settings, feed, cancel);
+        }
+    }
+
+    /**
+     * Sleeps until the given time, in milliseconds since the epoch, or until cancelled.
+     */
+    private static void waitUntil(long startAt, AtomicBoolean cancel) throws InterruptedException {
+        long wait;
+        while ((wait = startAt - System.currentTimeMillis()) > 0 && !cancel.get()) {
+            Thread.sleep(Math.min(wait, 100));
+        }
+    }
+
+    private static Set<JsonLinesUI> uniqueUis(List<Target> targets) {
+        Set<JsonLinesUI> uis = new LinkedHashSet<>();
+        targets.forEach(target -> uis.add(target.ui));
+        return uis;
+    }
+
+    /**
+     * Runs the commands of every device on its own thread, all at once, so the devices compete
+     * for the controller and bus as they would in service.
+     */
+    private static void runConcurrently(List<Target> targets) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(targets.size());
+        try {
+            List<Future<?>> devices = new ArrayList<>();
+            for (Target target : targets) {
+                devices.add(pool.submit(() -> {
+                    target.invoker.runAll();
+                    return null;
+                }));
+            }
+            Exception failure = null;
+            for (Future<?> device : devices) {
+                try {
+                    device.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Prints the host level totals of a cell run on several devices, one line per IO mode: the
+     * sum of the devices' average bandwidth and IOPS, and the slowest and fastest device.
+     */
+    private static void printHostTotals(JsonLinesUI output, SweepScenario scenario, int cell, List<Target> targets) {
+        for (DiskRun.IOMode mode : DiskRun.IOMode.values()) {
+            int devices = 0;
+            double bw = 0;
+            double iops = 0;
+            double deviceBwMin = Double.MAX_VALUE;
+            double deviceBwMax = 0;
+            for (Target target : targets) {
+                for (DiskRun run : target.ui.getRunList()) {
+                    if (run.getIoMode() == mode && run.getRunAvg() >= 0) {
+                        devices++;
+                        bw += run.getRunAvg();
+                        iops += Math.max(0, run.getRunIopsAvg());
+                        deviceBwMin = Math.min(deviceBwMin, run.getRunAvg());
+                        deviceBwMax = Math.max(deviceBwMax, run.getRunAvg());
+                    }
+                }
+            }
+            if (devices > 0) {
+                output.print(new JsonLine("host")
+                        .add("sweepId", scenario.getSweepId())
+                        .add("cell", cell)
+                        .add("ioMode", mode)
+                        .add("deviceOrder", scenario.getDeviceOrder())
+                        .add("devices", devices)
+                        .add("bwMbSec", bw)
+                        .add("iops", iops)
+                        .add("deviceBwMin", deviceBwMin)
+                        .add("deviceBwMax", deviceBwMax));
+            }
+        }
+    }
+
+    /**
+     * Fills p from a --profile file first, then key=value arguments, so arguments override the
+     * profile whatever their order.
+     */
+    static void parseArgs(String[] args, Properties p) throws IOException {
+        Properties overrides = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                overrides.setProperty("help", "true");
+            } else if (arg.equals("--profile") || arg.equals("-p")) {
+                if (++i == args.length) {
+                    throw new IllegalArgumentException(arg + " needs a file");
+                }
+                try (InputStream in = new FileInputStream(new File(args[i]))) {
+                    p.load(in);
+                }
+            } else if (arg.indexOf('=') > 0) {
+                overrides.setProperty(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+        p.putAll(overrides);
+    }
+}
@@ -0,0 +1,45 @@
+package edu.touro.mco152.bm.cli;
+
+import edu.touro.mco152.bm.BenchmarkSettings;
+import edu.touro.mco152.bm.DiskMark;
+import edu.touro.mco152.bm.DiskWorker;
+import edu.touro.mco152.bm.GeneralUI;
+import edu.touro.mco152.bm.GeneralUsageBenchmarker;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DiskWorker for running benchmark commands on the calling thread, with no Swing event queue to
+ * hand marks and progress to. Marks go straight to the UI as they are published, progress is
+ * dropped, and cancelling is a flag, set for example from a shutdown hook on Ctrl-C, that may be
+ * shared by the workers of several devices.
+ */
+public class HeadlessWorker extends DiskWorker {
+
+    private final GeneralUI ui;
+    private final AtomicBoolean cancel;
+
+    public HeadlessWorker(BenchmarkSettings settings, GeneralUI ui, AtomicBoolean cancel) {
+        super(settings, ui, new GeneralUsageBenchmarker());
+        this.ui = ui;
+        this.cancel = cancel;
+    }
+
+    @Override
+    public void publishFromOutside(DiskMark mark) {
+        if (mark.getType() == DiskMark.MarkType.WRITE) {
+            ui.addWriteMark(mark);
+        } else {
+            ui.addReadMark(mark);
+        }
+    }
+
+    @Override
+    public void setProgressFromOutside(int percent) {
+    }
+
+    @Override
+    public boolean isCancelledFromOutside() {
+        return cancel.get();
+    }
+}
@@ -0,0 +1,258 @@
+package edu.touro.mco152.bm.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.touro.mco152.bm.App;
+import edu.touro.mco152.bm.persist.DiskRun;
+import edu.touro.mco152.bm.persist.EM;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
+import java.util.StringJoiner;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Embedded HTTP API for starting, stopping and following benchmarks from other programs, such as
+ * provisioning scripts, on a host without a display:
+ * <pre>
+ *   POST   /benchmark   start a benchmark, the body is a profile in the jdm.properties format
+ *   GET    /benchmark   whether a benchmark is running and how the last one ended
+ *   DELETE /benchmark   cancel the running benchmark
+ *   GET    /runs        stored runs as a JSON array
+ *   GET    /marks       server-sent events for every mark, run and result as it happens
+ *   GET    /metrics     live metrics in the OpenMetrics text format, for Prometheus to scrape
+ * </pre>
+ * Benchmarks run one at a time through the command line runner, so profiles, sweeps and
+ * devices work the same way, and their runs are stored unless persistRuns=false. The server
+ * binds to localhost unless --bind is given, since it runs whatever profile it is sent.
+ * <pre>
+ *   java -cp ... edu.touro.mco152.bm.cli.HttpApiServer [--port 8080] [--bind 0.0.0.0]
+ * </pre>
+ */
+public class HttpApiServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    static final long KEEPALIVE_SEC = 15;
+
+    private final HttpServer server;
+    private final SseBroadcast broadcast = new SseBroadcast();
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final ExecutorService benchmarks = Executors.newSingleThreadExecutor();
+    private final PrintStream err;
+    private Future<Integer> current = null;
+    private AtomicBoolean cancel = null;
+    private int benchmarkId = 0;
+    private String lastStatus = null;
+
+    public HttpApiServer(InetSocketAddress address, PrintStream err) throws IOException {
+        this.err = err;
+        server = HttpServer.create(address, 0);
+        // every open /marks stream holds a thread
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/benchmark", this::benchmark);
+        server.createContext("/runs", this::runs);
+        server.createContext("/marks", this::marks);
+        server.createContext("/metrics", this::metrics);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String bind = "127.0.0.1";
+        for (int i = 0; i < args.length; i += 2) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--bind") && i + 1 < args.length) {
+                bind = args[i + 1];
+            } else {
+                System.err.println("usage: HttpApiServer [--port <port>] [--bind <address>]");
+                System.exit(CommandLineRunner.EXIT_USAGE);
+            }
+        }
+        System.setOut(System.err);
+        System.setProperty("derby.system.home", App.APP_CACHE_DIR);
+        HttpApiServer api = new HttpApiServer(new InetSocketAddress(bind, port), System.err);
+        api.start();
+        System.err.println("Benchmark API listening on http://" + bind + ":" + api.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        synchronized (this) {
+            if (cancel != null) {
+                cancel.set(true);
+            }
+        }
+        server.stop(0);
+        benchmarks.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void benchmark(HttpExchange exchange) throws IOException {
+        switch (exchange.getRequestMethod()) {
+            case "POST":
+                submit(exchange);
+                break;
+            case "DELETE":
+                cancel(exchange);
+                break;
+            case "GET":
+                respond(exchange, 200, status().toString());
+                break;
+            default:
+                respond(exchange, 405, error("use GET, POST or DELETE"));
+                break;
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        Properties p = new Properties();
+        try (InputStream body = exchange.getRequestBody()) {
+            p.load(new StringReader(new String(body.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        p.putIfAbsent("persistRuns", "true");
+        try {
+            SweepScenario scenario = new SweepScenario(p);
+            for (int i = 0; i < scenario.size(); i++) {
+                new ProfileBenchmarkSettings(scenario.getCell(i), message -> { });
+            }
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error("Invalid value: " + e.getMessage()));
+            return;
+        }
+
+        JsonLine accepted;
+        synchronized (this) {
+            if (current != null && !current.isDone()) {
+                respond(exchange, 409, error("benchmark " + benchmarkId + " is still running"));
+                return;
+            }
+            int id = ++benchmarkId;
+            AtomicBoolean runCancel = new AtomicBoolean(false);
+            PrintStream out = new PrintStream(broadcast, true, StandardCharsets.UTF_8);
+            cancel = runCancel;
+            current = benchmarks.submit(() -> {
+                int exitCode = CommandLineRunner.EXIT_FAILED;
+                try {
+                    exitCode = CommandLineRunner.run(p, out, err, runCancel, metrics);
+                } finally {
+                    finished(id, runCancel.get() ? "cancelled"
+                            : exitCode == CommandLineRunner.EXIT_OK ? "ok" : "failed");
+                }
+                return exitCode;
+            });
+            accepted = new JsonLine("accepted").add("id", id);
+        }
+        respond(exchange, 202, accepted.toString());
+    }
+
+    private synchronized void finished(int id, String status) {
+        if (id == benchmarkId) {
+            lastStatus = status;
+        }
+    }
+
+    private void cancel(HttpExchange exchange) throws IOException {
+        JsonLine cancelled;
+        synchronized (this) {
+            if (current == null || current.isDone()) {
+                respond(exchange, 409, error("no benchmark is running"));
+                return;
+            }
+            cancel.set(true);
+            cancelled = new JsonLine("cancelling").add("id", benchmarkId);
+        }
+        respond(exchange, 202, cancelled.toString());
+    }
+
+    private synchronized JsonLine status() {
+        return new JsonLine("status")
+                .add("id", benchmarkId)
+                .add("running", current != null && !current.isDone())
+                .add("lastStatus", lastStatus);
+    }
+
+    private void runs(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            respond(exchange, 405, error("use GET"));
+            return;
+        }
+        List<DiskRun> runs;
+        try {
+            // the shared EntityManager, as a running benchmark stores its runs through it
+            runs = DiskRun.findAll(EM.openEntityManager());
+        } catch (RuntimeException | LinkageError e) {
+            respond(exchange, 500, error("Unable to read stored runs: " + e.getMessage()));
+            return;
+        }
+        StringJoiner array = new StringJoiner(",\n", "[\n", "\n]");
+        for (DiskRun run : runs) {
+            array.add(JsonLinesUI.runLine(run).add("id", run.getId().longValue()).toString());
+        }
+        respond(exchange, 200, array.toString());
+    }
+
+    private void marks(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            respond(exchange, 405, error("use GET"));
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        BlockingQueue<String> lines = broadcast.subscribe();
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(SseBroadcast.toEvent(status().toString()).getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            while (true) {
+                String line = lines.poll(KEEPALIVE_SEC, TimeUnit.SECONDS);
+                // a comment line keeps proxies from closing an idle stream, and finds gone clients
+                String event = line == null ? ": keepalive\n\n" : SseBroadcast.toEvent(line);
+                body.write(event.getBytes(StandardCharsets.UTF_8));
+                body.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // the client went away
+        } finally {
+            broadcast.unsubscribe(lines);
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            respond(exchange, 405, error("use GET"));
+            return;
+        }
+        metrics.respond(exchange);
+    }
+
+    private static String error(String message) {
+        return new JsonLine("error").add("message", message).toString();
+    }
+
+    private static void respond(HttpExchange exchange, int code, String json) throws IOException {
+        byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
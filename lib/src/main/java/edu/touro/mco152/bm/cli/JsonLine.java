@@ -0,0 +1,160 @@
+package edu.touro.mco152.bm.cli;
+
+/**
+ * Builds one flat JSON object for a single line of output. Only strings, numbers and booleans
+ * are needed for marks and runs, so this stays a few lines instead of a JSON library dependency.
+ * Numbers that JSON can not hold (NaN, infinity) and the -1 used for "not measured" are written
+ * as null.
+ */
+public class JsonLine {
+
+    private final StringBuilder sb = new StringBuilder("{");
+
+    /**
+     * @param event what this line reports, e.g. mark, run or result
+     */
+    public JsonLine(String event) {
+        add("event", event);
+    }
+
+    public JsonLine add(String name, String value) {
+        key(name);
+        if (value == null) {
+            sb.append("null");
+        } else {
+            quote(sb, value);
+        }
+        return this;
+    }
+
+    public JsonLine add(String name, Object value) {
+        return add(name, value == null ? null : String.valueOf(value));
+    }
+
+    public JsonLine add(String name, long value) {
+        key(name);
+        sb.append(value);
+        return this;
+    }
+
+    public JsonLine add(String name, boolean value) {
+        key(name);
+        sb.append(value);
+        return this;
+    }
+
+    public JsonLine add(String name, double value) {
+        key(name);
+        if (Double.isNaN(value) || Double.isInfinite(value) || value == -1) {
+            sb.append("null");
+        } else {
+            sb.append(value);
+        }
+        return this;
+    }
+
+    private void key(String name) {
+        if (sb.length() > 1) {
+            sb.append(',');
+        }
+        quote(sb, name);
+        sb.append(':');
+    }
+
+    private static void quote(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                    break;
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Adds a string field to the end of a line, e.g. to label lines relayed from elsewhere.
+     */
+    public static String append(String line, String name, String value) {
+        StringBuilder sb = new StringBuilder(line.substring(0, line.lastIndexOf('}')));
+        sb.append(',');
+        quote(sb, name);
+        sb.append(':');
+        quote(sb, value);
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Reads one field of a flat line as written by this class.
+     *
+     * @return the value, unquoted if it is a string, or null if it is null or missing
+     */
+    public static String get(String line, String name) {
+        String key = "\"" + name + "\":";
+        int start = line.indexOf(key);
+        if (start < 0) {
+            return null;
+        }
+        start += key.length();
+        if (line.charAt(start) != '"') {
+            int end = start;
+            while (end < line.length() && line.charAt(end) != ',' && line.charAt(end) != '}') {
+                end++;
+            }
+            String value = line.substring(start, end);
+            return value.equals("null") ? null : value;
+        }
+        StringBuilder value = new StringBuilder();
+        for (int i = start + 1; i < line.length() && line.charAt(i) != '"'; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                c = line.charAt(++i);
+                switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        c = (char) Integer.parseInt(line.substring(i + 1, i + 5), 16);
+                        i += 4;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            value.append(c);
+        }
+        return value.toString();
+    }
+
+    @Override
+    public String toString() {
+        return sb + "}";
+    }
+}
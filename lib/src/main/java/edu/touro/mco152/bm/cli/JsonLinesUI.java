@@ -0,0 +1,187 @@
+package edu.touro.mco152.bm.cli;
+
+import edu.touro.mco152.bm.DiskMark;
+import edu.touro.mco152.bm.GeneralUI;
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GeneralUI for the command line: each mark and each finished run is written to stdout as one
+ * JSON object per line, so a script or collector can follow a benchmark as it runs. Dialog text
+ * goes to stderr instead, and error dialogs and corrupt blocks are counted so the runner can
+ * report a failed benchmark through its exit code. When several devices are benchmarked at
+ * once, each has its own JsonLinesUI and its lines are labeled with the device.
+ */
+public class JsonLinesUI implements GeneralUI {
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final String device;
+    private final List<DiskRun> runs = new ArrayList<>();
+    private int errors = 0;
+
+    public JsonLinesUI(PrintStream out, PrintStream err) {
+        this(out, err, null);
+    }
+
+    /**
+     * @param device location the marks and runs are labeled with, or null for no label
+     */
+    public JsonLinesUI(PrintStream out, PrintStream err, String device) {
+        this.out = out;
+        this.err = err;
+        this.device = device;
+    }
+
+    /**
+     * @return number of error dialogs and runs with corrupt blocks seen so far
+     */
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    public synchronized int getRuns() {
+        return runs.size();
+    }
+
+    /**
+     * @return the runs finished so far, in order
+     */
+    public synchronized List<DiskRun> getRunList() {
+        return new ArrayList<>(runs);
+    }
+
+    /**
+     * Writes one line to stdout, whole, even when lines come from several threads or devices.
+     */
+    public void print(JsonLine line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    @Override
+    public void updateLegend() {
+    }
+
+    @Override
+    public void resetTestData() {
+    }
+
+    @Override
+    public void addWriteMark(DiskMark mark) {
+        print(label(markLine(mark)));
+    }
+
+    @Override
+    public void addReadMark(DiskMark mark) {
+        print(label(markLine(mark)));
+    }
+
+    @Override
+    public void updateTitle(String text) {
+    }
+
+    @Override
+    public void adjustSensitivity() {
+    }
+
+    @Override
+    public synchronized void showPlainMessageDialog(String message, String title) {
+        err.println((device == null ? "" : "[" + device + "] ") + title + ": " + message);
+    }
+
+    @Override
+    public synchronized void showErrorMessageDialog(String message, String title) {
+        errors++;
+        err.println((device == null ? "" : "[" + device + "] ") + "ERROR " + title + ": " + message);
+    }
+
+    @Override
+    public void addRun(DiskRun run) {
+        synchronized (this) {
+            runs.add(run);
+            if (run.getCorruptBlocks() > 0) {
+                errors++;
+            }
+        }
+        print(label(runLine(run)));
+    }
+
+    private JsonLine label(JsonLine line) {
+        return device == null ? line : line.add("device", device);
+    }
+
+    static JsonLine markLine(DiskMark mark) {
+        return new JsonLine("mark")
+                .add("type", mark.getType())
+                .add("mark", mark.getMarkNum())
+                .add("bwMbSec", mark.getBwMbSec())
+                .add("iops", mark.getIops())
+                .add("bytes", mark.getBytes())
+                .add("cumMin", mark.getCumMin())
+                .add("cumMax", mark.getCumMax())
+                .add("cumAvg", mark.getCumAvg())
+                .add("latP50Ms", mark.getLatP50Ms())
+                .add("latP99Ms", mark.getLatP99Ms())
+                .add("latP999Ms", mark.getLatP999Ms())
+                .add("latMaxMs", mark.getLatMaxMs())
+                .add("syncMs", mark.getSyncMs());
+    }
+
+    static JsonLine runLine(DiskRun run) {
+        return new JsonLine("run")
+                .add("sweepId", run.getSweepId())
+                .add("sweepCell", run.getSweepCell())
+                .add("ioMode", run.getIoMode())
+                .add("ioEngine", run.getIoEngine())
+                .add("blockOrder", run.getBlockOrder())
+                .add("syncPolicy", run.getSyncPolicy())
+                .add("dataPattern", run.getDataPattern())
+                .add("numMarks", run.getNumMarks())
+                .add("numBlocks", run.getNumBlocks())
+                .add("blockSizeKb", run.getBlockSize())
+                .add("queueDepth", run.getQueueDepth())
+                .add("numJobs", run.getNumJobs())
+                .add("start", run.getStartTimeString())
+                .add("duration", run.getDuration())
+                .add("bwMin", run.getRunMin())
+                .add("bwMax", run.getRunMax())
+                .add("bwAvg", run.getRunAvg())
+                .add("bwStdDev", run.getRunStdDev())
+                .add("bwCvPercent", run.getRunCvPercent())
+                .add("bwMedian", run.getRunMedian())
+                .add("bwP5", run.getRunP5())
+                .add("bwP95", run.getRunP95())
+                .add("bwCiLow", run.getRunCiLow())
+                .add("bwCiHigh", run.getRunCiHigh())
+                .add("iopsMin", run.getRunIopsMin())
+                .add("iopsMax", run.getRunIopsMax())
+                .add("iopsAvg", run.getRunIopsAvg())
+                .add("latP50Ms", run.getRunLatP50Ms())
+                .add("latP99Ms", run.getRunLatP99Ms())
+                .add("latP999Ms", run.getRunLatP999Ms())
+                .add("latMaxMs", run.getRunLatMaxMs())
+                .add("readBwAvg", run.getRunReadAvg())
+                .add("writeBwAvg", run.getRunWriteAvg())
+                .add("readIopsAvg", run.getRunReadIopsAvg())
+                .add("writeIopsAvg", run.getRunWriteIopsAvg())
+                .add("readLatP50Ms", run.getRunReadLatP50Ms())
+                .add("readLatP99Ms", run.getRunReadLatP99Ms())
+                .add("readLatP999Ms", run.getRunReadLatP999Ms())
+                .add("readLatMaxMs", run.getRunReadLatMaxMs())
+                .add("writeLatP50Ms", run.getRunWriteLatP50Ms())
+                .add("writeLatP99Ms", run.getRunWriteLatP99Ms())
+                .add("writeLatP999Ms", run.getRunWriteLatP999Ms())
+                .add("writeLatMaxMs", run.getRunWriteLatMaxMs())
+                .add("syncMs", run.getRunSyncMs())
+                .add("warmupMarks", run.getWarmupMarks())
+                .add("steadyAtMark", run.getSteadyAtMark())
+                .add("verifiedBlocks", run.getVerifiedBlocks())
+                .add("corruptBlocks", run.getCorruptBlocks());
+    }
+}
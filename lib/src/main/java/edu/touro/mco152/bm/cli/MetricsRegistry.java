@@ -0,0 +1,235 @@
+package edu.touro.mco152.bm.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.touro.mco152.bm.App;
+import edu.touro.mco152.bm.DiskMark;
+import edu.touro.mco152.bm.GeneralUI;
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live benchmark metrics for scraping by Prometheus or any other OpenMetrics collector.
+ * <p>
+ * The registry is fed once per mark, never per block, through a {@link Recorder} wrapped around
+ * the UI of each device: the last mark's bandwidth, IOPS and latency percentiles are gauges, and
+ * bytes moved, marks and errors are counters that keep growing across every benchmark the
+ * process runs. Series are labeled with the device, the disk info of the run and the block size,
+ * and the mark type for the per mark values. Updates are plain field writes and LongAdders, so
+ * I/O threads never wait on a scrape.
+ * <p>
+ * {@link HttpApiServer} serves the registry at GET /metrics next to its other endpoints, and
+ * {@link #serve} gives the command line runner and the GUI a listener of their own.
+ */
+public class MetricsRegistry {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final Map<String, MarkSeries> marks = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param delegate UI that still receives everything
+     * @param device location the device's series are labeled with
+     * @param blockSizeKb block size the device's series are labeled with
+     * @return UI to hand the benchmark commands instead of delegate
+     */
+    public Recorder recorder(GeneralUI delegate, String device, int blockSizeKb) {
+        return new Recorder(delegate, device, blockSizeKb);
+    }
+
+    /**
+     * Starts a listener that serves GET /metrics from this registry on its own thread, until
+     * the returned server is stopped.
+     */
+    public HttpServer serve(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/metrics", exchange -> {
+            if (exchange.getRequestMethod().equals("GET")) {
+                respond(exchange);
+            } else {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    /**
+     * Answers a GET /metrics with a scrape of every series.
+     */
+    void respond(HttpExchange exchange) throws IOException {
+        byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    void record(String labels, DiskMark mark) {
+        String key = labels + ",type=\"" + mark.getType().name().toLowerCase(Locale.ROOT) + "\"";
+        marks.computeIfAbsent(key, k -> new MarkSeries()).record(mark);
+    }
+
+    void error(String labels) {
+        errors.computeIfAbsent(labels, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return every series in the OpenMetrics text format, ending with # EOF
+     */
+    public String scrape() {
+        StringBuilder text = new StringBuilder();
+        family(text, "jdm_bandwidth_bytes_per_second", "gauge", "Bandwidth of the last mark.");
+        marks.forEach((labels, s) -> sample(text, "jdm_bandwidth_bytes_per_second", labels, s.bwMbSec * App.MEGABYTE));
+        family(text, "jdm_iops", "gauge", "Block operations per second of the last mark.");
+        marks.forEach((labels, s) -> sample(text, "jdm_iops", labels, s.iops));
+        family(text, "jdm_latency_seconds", "gauge", "Block latency percentiles of the last mark.");
+        marks.forEach((labels, s) -> {
+            sample(text, "jdm_latency_seconds", labels + ",quantile=\"0.5\"", s.latP50Ms / 1000);
+            sample(text, "jdm_latency_seconds", labels + ",quantile=\"0.99\"", s.latP99Ms / 1000);
+            sample(text, "jdm_latency_seconds", labels + ",quantile=\"0.999\"", s.latP999Ms / 1000);
+            sample(text, "jdm_latency_seconds", labels + ",quantile=\"1\"", s.latMaxMs / 1000);
+        });
+        family(text, "jdm_bytes", "counter", "Bytes moved by finished marks.");
+        marks.forEach((labels, s) -> sample(text, "jdm_bytes_total", labels, s.bytes.sum()));
+        family(text, "jdm_marks", "counter", "Marks completed.");
+        marks.forEach((labels, s) -> sample(text, "jdm_marks_total", labels, s.marks.sum()));
+        family(text, "jdm_errors", "counter", "Benchmark errors and runs with corrupt blocks.");
+        errors.forEach((labels, count) -> sample(text, "jdm_errors_total", labels, count.sum()));
+        return text.append("# EOF\n").toString();
+    }
+
+    private static void family(StringBuilder text, String name, String type, String help) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, double value) {
+        text.append(name).append('{').append(labels).append("} ");
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+        text.append('\n');
+    }
+
+    /**
+     * @return the labels of one device, quoted and escaped for the exposition format
+     */
+    static String labels(String device, String disk, int blockSizeKb) {
+        return "device=\"" + escape(device) + "\",disk=\"" + escape(disk) + "\",block_size_kb=\"" + blockSizeKb + "\"";
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Values of one device and mark type. The gauges are written by the one thread finishing
+     * the device's marks and may be read mid update, which a scrape can live with.
+     */
+    private static final class MarkSeries {
+        final LongAdder bytes = new LongAdder();
+        final LongAdder marks = new LongAdder();
+        volatile double bwMbSec;
+        volatile double iops;
+        volatile double latP50Ms;
+        volatile double latP99Ms;
+        volatile double latP999Ms;
+        volatile double latMaxMs;
+
+        void record(DiskMark mark) {
+            bwMbSec = mark.getBwMbSec();
+            iops = mark.getIops();
+            latP50Ms = mark.getLatP50Ms();
+            latP99Ms = mark.getLatP99Ms();
+            latP999Ms = mark.getLatP999Ms();
+            latMaxMs = mark.getLatMaxMs();
+            bytes.add(mark.getBytes());
+            marks.increment();
+        }
+    }
+
+    /**
+     * GeneralUI that feeds the registry on its way to the real UI. The disk info label comes
+     * from the run title each command sets before its first mark, and from the finished run.
+     */
+    public final class Recorder implements GeneralUI {
+        private final GeneralUI delegate;
+        private final String device;
+        private final int blockSizeKb;
+        private volatile String labels;
+
+        private Recorder(GeneralUI delegate, String device, int blockSizeKb) {
+            this.delegate = delegate;
+            this.device = device;
+            this.blockSizeKb = blockSizeKb;
+            this.labels = labels(device, null, blockSizeKb);
+        }
+
+        @Override
+        public void updateLegend() {
+            delegate.updateLegend();
+        }
+
+        @Override
+        public void resetTestData() {
+            delegate.resetTestData();
+        }
+
+        @Override
+        public void addWriteMark(DiskMark mark) {
+            record(labels, mark);
+            delegate.addWriteMark(mark);
+        }
+
+        @Override
+        public void addReadMark(DiskMark mark) {
+            record(labels, mark);
+            delegate.addReadMark(mark);
+        }
+
+        @Override
+        public void updateTitle(String text) {
+            labels = labels(device, text, blockSizeKb);
+            delegate.updateTitle(text);
+        }
+
+        @Override
+        public void adjustSensitivity() {
+            delegate.adjustSensitivity();
+        }
+
+        @Override
+        public void showPlainMessageDialog(String message, String title) {
+            delegate.showPlainMessageDialog(message, title);
+        }
+
+        @Override
+        public void showErrorMessageDialog(String message, String title) {
+            error(labels);
+            delegate.showErrorMessageDialog(message, title);
+        }
+
+        @Override
+        public void addRun(DiskRun run) {
+            labels = labels(device, run.getDiskInfo(), blockSizeKb);
+            if (run.getCorruptBlocks() > 0) {
+                error(labels);
+            }
+            delegate.addRun(run);
+        }
+    }
+}
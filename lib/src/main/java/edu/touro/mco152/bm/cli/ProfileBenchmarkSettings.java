@@ -0,0 +1,172 @@
+package edu.touro.mco152.bm.cli;
+
+import edu.touro.mco152.bm.App;
+import edu.touro.mco152.bm.BenchmarkSettings;
+import edu.touro.mco152.bm.DiskMark;
+import edu.touro.mco152.bm.RunMetrics;
+import edu.touro.mco152.bm.engine.TransferStats;
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+/**
+ * BenchmarkSettings read from a profile instead of App's static GUI state, so a benchmark can run
+ * without Swing. A profile uses the same keys as jdm.properties, so a config saved by the GUI
+ * can be handed to the command line as is; keys left out keep the GUI's defaults. As in the GUI,
+ * mixedTest=true is a mode of its own: write and read passes are off unless asked for, which
+ * is rejected.
+ * <p>
+ * Each instance keeps its own mark numbering and {@link RunMetrics}.
+ */
+public class ProfileBenchmarkSettings implements BenchmarkSettings {
+
+    private final File locationDir;
+    private final File dataDir;
+    private final boolean multiFile;
+    private final boolean autoRemoveData;
+    private final boolean autoReset;
+    private final boolean persistRuns;
+    private final boolean readTest;
+    private final boolean writeTest;
+    private final boolean mixedTest;
+    private final int readPercent;
+    private final DiskRun.BlockSequence blockSequence;
+    private final DiskRun.EngineType engineType;
+    private final DiskRun.DataPattern dataPattern;
+    private final int patternPercent;
+    private final boolean verifyData;
+    private final DiskRun.SyncPolicy syncPolicy;
+    private final int syncEveryBlocks;
+    private final DiskRun.Preallocation preallocation;
+    private final int numOfMarks;
+    private final int numOfBlocks;
+    private final int blockSizeKb;
+    private final int queueDepth;
+    private final int numJobs;
+    private final int virtualClients;
+    private final int thinkTimeMs;
+    private final int markDurationMs;
+    private final int runDurationSec;
+    private final int warmupMarks;
+    private final int warmupSec;
+    private final int steadyStateCv;
+    private final int steadyStateWindow;
+    private final String sweepId;
+    private final String sweepCell;
+    private final Consumer<String> messages;
+
+    private volatile RunMetrics metrics = new RunMetrics();
+    private int nextMarkNumber = 1;
+
+    /**
+     * @param p profile values, missing keys fall back to the GUI defaults
+     * @param messages receives the progress messages the GUI would log
+     * @throws IllegalArgumentException if a value can not be parsed
+     */
+    public ProfileBenchmarkSettings(Properties p, Consumer<String> messages) {
+        this.messages = messages;
+        locationDir = new File(p.getProperty("locationDir", System.getProperty("user.home")));
+        dataDir = new File(locationDir, App.DATADIRNAME);
+        multiFile = Boolean.parseBoolean(p.getProperty("multiFile", "true"));
+        autoRemoveData = Boolean.parseBoolean(p.getProperty("autoRemoveData", "false"));
+        autoReset = Boolean.parseBoolean(p.getProperty("autoReset", "true"));
+        persistRuns = Boolean.parseBoolean(p.getProperty("persistRuns", "false"));
+        mixedTest = Boolean.parseBoolean(p.getProperty("mixedTest", "false"));
+        // mixed is a mode of its own, as in the GUI, so it turns the separate passes off
+        writeTest = Boolean.parseBoolean(p.getProperty("writeTest", String.valueOf(!mixedTest)));
+        readTest = Boolean.parseBoolean(p.getProperty("readTest", "false"));
+        if (mixedTest && (writeTest || readTest)) {
+            throw new IllegalArgumentException("mixedTest can not be combined with writeTest or readTest");
+        }
+        readPercent = Integer.parseInt(p.getProperty("readPercent", "70"));
+        blockSequence = DiskRun.BlockSequence.valueOf(p.getProperty("blockSequence", "SEQUENTIAL"));
+        engineType = DiskRun.EngineType.valueOf(p.getProperty("engineType", "RANDOM_ACCESS_FILE"));
+        dataPattern = DiskRun.DataPattern.valueOf(p.getProperty("dataPattern", "ALTERNATING"));
+        patternPercent = Integer.parseInt(p.getProperty("patternPercent", "50"));
+        verifyData = Boolean.parseBoolean(p.getProperty("verifyData", "false"));
+        boolean writeSyncEnable = Boolean.parseBoolean(p.getProperty("writeSyncEnable", "true"));
+        syncPolicy = DiskRun.SyncPolicy.valueOf(p.getProperty("syncPolicy", writeSyncEnable ? "DSYNC" : "NONE"));
+        syncEveryBlocks = Integer.parseInt(p.getProperty("syncEveryBlocks", "16"));
+        preallocation = DiskRun.Preallocation.valueOf(p.getProperty("preallocation", "NONE"));
+        numOfMarks = Integer.parseInt(p.getProperty("numOfFiles", "25"));
+        numOfBlocks = Integer.parseInt(p.getProperty("numOfBlocks", "32"));
+        blockSizeKb = Integer.parseInt(p.getProperty("blockSizeKb", "512"));
+        queueDepth = Integer.parseInt(p.getProperty("queueDepth", "1"));
+        numJobs = Integer.parseInt(p.getProperty("numJobs", "1"));
+        virtualClients = Integer.parseInt(p.getProperty("virtualClients", "256"));
+        thinkTimeMs = Integer.parseInt(p.getProperty("thinkTimeMs", "0"));
+        markDurationMs = Integer.parseInt(p.getProperty("markDurationMs", "0"));
+        runDurationSec = Integer.parseInt(p.getProperty("runDurationSec", "0"));
+        warmupMarks = Integer.parseInt(p.getProperty("warmupMarks", "0"));
+        warmupSec = Integer.parseInt(p.getProperty("warmupSec", "0"));
+        steadyStateCv = Integer.parseInt(p.getProperty("steadyStateCv", "0"));
+        steadyStateWindow = Integer.parseInt(p.getProperty("steadyStateWindow", "5"));
+        sweepId = p.getProperty("sweepId");
+        sweepCell = p.getProperty("sweepCell");
+    }
+
+    public File getLocationDir() {
+        return locationDir;
+    }
+
+    public RunMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override public boolean isReadTest() { return readTest; }
+    @Override public boolean isWriteTest() { return writeTest; }
+    @Override public boolean isMixedTest() { return mixedTest; }
+    @Override public boolean isAutoReset() { return autoReset; }
+    @Override public boolean isAutoRemoveData() { return autoRemoveData; }
+    @Override public boolean isMultiFile() { return multiFile; }
+    @Override public boolean isPersistRuns() { return persistRuns; }
+    @Override public boolean isWriteSyncEnabled() { return syncPolicy == DiskRun.SyncPolicy.DSYNC; }
+    @Override public DiskRun.SyncPolicy getSyncPolicy() { return syncPolicy; }
+    @Override public int getSyncEveryBlocks() { return syncEveryBlocks; }
+    @Override public DiskRun.Preallocation getPreallocation() { return preallocation; }
+
+    @Override public int getNumOfMarks() {
+        if (markDurationMs > 0 && runDurationSec > 0) {
+            return (int) Math.max(1, runDurationSec * 1000L / markDurationMs);
+        }
+        return numOfMarks;
+    }
+    @Override public int getNumOfBlocks() { return numOfBlocks; }
+    @Override public int getBlockSizeKb() { return blockSizeKb; }
+    @Override public int getQueueDepth() { return queueDepth; }
+    @Override public int getNumJobs() { return numJobs; }
+    @Override public int getVirtualClients() { return virtualClients; }
+    @Override public int getThinkTimeMs() { return thinkTimeMs; }
+    @Override public int getReadPercent() { return readPercent; }
+    @Override public int getMarkDurationMs() { return markDurationMs; }
+    @Override public int getWarmupMarks() { return warmupMarks; }
+    @Override public int getWarmupSec() { return warmupSec; }
+    @Override public int getSteadyStateCv() { return steadyStateCv; }
+    @Override public int getSteadyStateWindow() { return steadyStateWindow; }
+    @Override public String getSweepId() { return sweepId; }
+    @Override public String getSweepCell() { return sweepCell; }
+    @Override public DiskRun.DataPattern getDataPattern() { return dataPattern; }
+    @Override public int getPatternPercent() { return patternPercent; }
+    @Override public boolean isVerifyData() { return verifyData; }
+    @Override public long getTargetTxSizeKb() { return (long) blockSizeKb * numOfBlocks * getNumOfMarks(); }
+    @Override public int getNextMarkNumber() { return nextMarkNumber; }
+    @Override public int getKilobyte() { return App.KILOBYTE; }
+    @Override public int getMegabyte() { return App.MEGABYTE; }
+
+    @Override public File getDataDir() { return dataDir; }
+    @Override public DiskRun.BlockSequence getBlockSequence() { return blockSequence; }
+    @Override public DiskRun.EngineType getEngineType() { return engineType; }
+
+    @Override public void resetTestData() {
+        nextMarkNumber = 1;
+        metrics = new RunMetrics();
+    }
+    @Override public void updateMetrics(DiskMark mark) { metrics.record(mark); }
+    @Override public void addTransfers(TransferStats stats) { metrics.add(stats); }
+    @Override public void incrementNextMarkNumber() { nextMarkNumber += getNumOfMarks(); }
+    @Override public void setIdleState() { }
+    @Override public void message(String message) { messages.accept(message); }
+    @Override public void setNextMarkNumber(int newNextMarkNumber) { nextMarkNumber = newNextMarkNumber; }
+}
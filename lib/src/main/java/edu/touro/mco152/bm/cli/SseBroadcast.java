@@ -0,0 +1,71 @@
+package edu.touro.mco152.bm.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Output stream that splits what a benchmark writes into lines and hands every line to each
+ * subscribed server-sent event stream. Every subscriber has its own bounded queue, so a slow or
+ * stalled client loses its oldest lines instead of holding up the benchmark.
+ */
+public class SseBroadcast extends OutputStream {
+
+    static final int QUEUE_LINES = 4096;
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final List<BlockingQueue<String>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return queue that receives every line written from now on
+     */
+    public BlockingQueue<String> subscribe() {
+        BlockingQueue<String> lines = new ArrayBlockingQueue<>(QUEUE_LINES);
+        subscribers.add(lines);
+        return lines;
+    }
+
+    public void unsubscribe(BlockingQueue<String> lines) {
+        subscribers.remove(lines);
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (b == '\n') {
+            publish(pending.toString(StandardCharsets.UTF_8).strip());
+            pending.reset();
+        } else {
+            pending.write(b);
+        }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            write(b[i]);
+        }
+    }
+
+    private void publish(String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        for (BlockingQueue<String> lines : subscribers) {
+            while (!lines.offer(line)) {
+                lines.poll();
+            }
+        }
+    }
+
+    /**
+     * @return the line as one server-sent event, named after its JSON event field
+     */
+    public static String toEvent(String line) {
+        String event = JsonLine.get(line, "event");
+        return (event == null ? "" : "event: " + event + "\n") + "data: " + line + "\n\n";
+    }
+}
@@ -0,0 +1,149 @@
+package edu.touro.mco152.bm.cli;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * A parameter sweep described in a profile: any key written as sweep.&lt;key&gt; with a comma
+ * separated list of values is an axis, and the sweep runs one benchmark per combination of the
+ * axis values, a cell of the matrix. All other keys are shared by every cell. For example
+ * <pre>
+ *   mixedTest=true
+ *   sweep.blockSizeKb=4,64,1024
+ *   sweep.queueDepth=1,8,32
+ *   sweep.blockSequence=SEQUENTIAL,RANDOM
+ *   sweep.readPercent=0,70,100
+ * </pre>
+ * expands to 54 cells. Axes are taken in alphabetical order, with the last one changing
+ * fastest. The runs of all cells share one sweep id, given as sweepId or made from the time,
+ * and are stored in the run history unless persistRuns=false.
+ * <p>
+ * locationDirs=/mnt/a,/mnt/b,... benchmarks every cell on each of several devices, by default
+ * all at the same time (deviceOrder=CONCURRENT) or one after another in the order listed
+ * (deviceOrder=SERIAL). The runs of all devices form one run set under the sweep id.
+ * A profile without axes or devices is a sweep of one cell with no sweep id.
+ */
+public class SweepScenario {
+
+    public static final String AXIS_PREFIX = "sweep.";
+
+    /**
+     * Whether the devices of a cell are benchmarked at the same time or one after another.
+     */
+    public enum DeviceOrder {CONCURRENT, SERIAL}
+
+    private final Properties base = new Properties();
+    private final Map<String, List<String>> axes = new LinkedHashMap<>();
+    private final List<String> devices;
+    private final DeviceOrder deviceOrder;
+    private final String sweepId;
+
+    /**
+     * @throws IllegalArgumentException if an axis has no values or deviceOrder is unknown
+     */
+    public SweepScenario(Properties p) {
+        for (String key : new TreeSet<>(p.stringPropertyNames())) {
+            String value = p.getProperty(key);
+            if (!key.startsWith(AXIS_PREFIX)) {
+                base.setProperty(key, value);
+                continue;
+            }
+            List<String> values = split(value);
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException(key + " has no values");
+            }
+            axes.put(key.substring(AXIS_PREFIX.length()), values);
+        }
+        devices = split(base.getProperty("locationDirs", ""));
+        deviceOrder = DeviceOrder.valueOf(base.getProperty("deviceOrder", "CONCURRENT"));
+        if (axes.isEmpty() && devices.size() < 2) {
+            sweepId = null;
+        } else {
+            sweepId = base.getProperty("sweepId",
+                    "sweep-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()));
+        }
+    }
+
+    private static List<String> split(String list) {
+        List<String> values = new ArrayList<>();
+        for (String v : list.split(",")) {
+            if (!v.isBlank()) {
+                values.add(v.trim());
+            }
+        }
+        return values;
+    }
+
+    public boolean isSweep() {
+        return sweepId != null;
+    }
+
+    public String getSweepId() {
+        return sweepId;
+    }
+
+    /**
+     * @return number of cells, the product of the number of values of each axis
+     */
+    public int size() {
+        int size = 1;
+        for (List<String> values : axes.values()) {
+            size *= values.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the locationDirs to benchmark each cell on, empty to use locationDir alone
+     */
+    public List<String> getDevices() {
+        return devices;
+    }
+
+    public DeviceOrder getDeviceOrder() {
+        return deviceOrder;
+    }
+
+    public Properties getCell(int index) {
+        return getCell(index, null);
+    }
+
+    /**
+     * @param index cell number, from 0 to size() - 1
+     * @param device locationDir to benchmark the cell on, or null for the profile's locationDir
+     * @return profile of the cell: the shared keys, one value of each axis, and for a sweep the
+     *         sweepId and a sweepCell naming the axis values and device
+     */
+    public Properties getCell(int index, String device) {
+        Properties cell = new Properties();
+        cell.putAll(base);
+        List<String> names = new ArrayList<>(axes.keySet());
+        List<String> parts = new ArrayList<>();
+        int rest = index;
+        for (int a = names.size() - 1; a >= 0; a--) {
+            List<String> values = axes.get(names.get(a));
+            String value = values.get(rest % values.size());
+            rest /= values.size();
+            cell.setProperty(names.get(a), value);
+            parts.add(0, names.get(a) + "=" + value);
+        }
+        if (device != null) {
+            cell.setProperty("locationDir", device);
+            parts.add("locationDir=" + device);
+        }
+        if (isSweep()) {
+            cell.putIfAbsent("persistRuns", "true");
+            cell.setProperty("sweepId", sweepId);
+            if (!parts.isEmpty()) {
+                cell.setProperty("sweepCell", String.join(" ", parts));
+            }
+        }
+        return cell;
+    }
+}
@@ -0,0 +1,29 @@
+package edu.touro.mco152.bm.commands;
+
+import edu.touro.mco152.bm.BenchmarkSettings;
+import edu.touro.mco152.bm.DiskWorker;
+import edu.touro.mco152.bm.GeneralUI;
+
+/**
+ * Executes a mixed read/write benchmark by delegating to its receiver.
+ */
+public class MixedBenchmarkCommand implements CommandInterface {
+
+    private final BenchmarkSettings settings;
+    private final GeneralUI ui;
+    private final DiskWorker worker;
+    private final MixedBenchmarkCommandReceiver receiver;
+
+    public MixedBenchmarkCommand(BenchmarkSettings settings, GeneralUI ui, DiskWorker worker, MixedBenchmarkCommandReceiver receiver) {
+        this.settings = settings;
+        this.ui = ui;
+        this.worker = worker;
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void execute() {
+        int newNext = receiver.doMixed(settings, ui, worker);
+        settings.setNextMarkNumber(newNext);
+    }
+}
@@ -0,0 +1,199 @@
+package edu.touro.mco152.bm.commands;
+
+import edu.touro.mco152.bm.*;
+import edu.touro.mco152.bm.engine.LatencyHistogram;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.SteadyStateDetector;
+import edu.touro.mco152.bm.engine.TransferStats;
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static edu.touro.mco152.bm.DiskMark.MarkType.READ;
+import static edu.touro.mco152.bm.DiskMark.MarkType.WRITE;
+
+/**
+ * Contains the logic to perform a mixed read/write disk benchmark to become a command object.
+ * Every block of a mark is read or written according to the configured read percentage, and
+ * each mark is reported as a READ and a WRITE DiskMark so both directions are charted and
+ * measured on their own within the one READ_WRITE run. Every file of the run is filled before
+ * anything is timed, with the run's data pattern unless ZEROS preallocation is asked for.
+ */
+public class MixedBenchmarkCommandReceiver {
+    public int doMixed(BenchmarkSettings settings, GeneralUI ui, DiskWorker worker) {
+        int unitsTotal = settings.getNumOfBlocks() * settings.getNumOfMarks();
+        AtomicInteger unitsComplete = new AtomicInteger(0);
+
+        // engines, buffers and job threads are set up once and reused for every mark
+        MarkExecutor executor = new MarkExecutor(settings, DiskRun.IOMode.READ_WRITE);
+
+        DiskMark rMark;
+        DiskMark wMark;
+        LatencyHistogram runLatency = new LatencyHistogram();
+        LatencyHistogram runReadLatency = new LatencyHistogram();
+        LatencyHistogram runWriteLatency = new LatencyHistogram();
+        MarkStatistics bwStats = new MarkStatistics();
+
+        int startFileNum = settings.getNextMarkNumber();
+
+        DiskRun run = new DiskRun(DiskRun.IOMode.READ_WRITE, settings.getBlockSequence());
+        run.setIoEngine(settings.getEngineType());
+        run.setDataPattern(settings.getDataPattern());
+        run.setPatternPercent(settings.getPatternPercent());
+        // reads need data behind every block, and data no easier to compress than what is written
+        DiskRun.Preallocation prefill = settings.getPreallocation() == DiskRun.Preallocation.ZEROS
+                ? DiskRun.Preallocation.ZEROS : DiskRun.Preallocation.PATTERN;
+        run.setPreallocation(prefill);
+        run.setSyncPolicy(settings.getSyncPolicy());
+        run.setSyncEveryBlocks(settings.getSyncEveryBlocks());
+        run.setVerifyData(executor.isVerifying());
+        run.setQueueDepth(executor.getQueueDepth());
+        run.setNumJobs(executor.getNumJobs());
+        if (settings.getEngineType() == DiskRun.EngineType.VIRTUAL_THREADS) {
+            run.setThinkTimeMs(settings.getThinkTimeMs());
+        }
+        run.setReadPercent(settings.getReadPercent());
+        run.setNumMarks(settings.getNumOfMarks());
+        SteadyStateDetector steadyState = RunPhases.steadyState(settings, run);
+        run.setMarkDurationMs(settings.getMarkDurationMs());
+        run.setNumBlocks(settings.getNumOfBlocks());
+        run.setBlockSize(settings.getBlockSizeKb());
+        run.setTxSize(settings.getTargetTxSizeKb());
+        run.setDiskInfo(Util.getDiskInfo(settings.getDataDir()));
+        run.setSweepId(settings.getSweepId());
+        run.setSweepCell(settings.getSweepCell());
+
+        settings.message("disk info: (" + run.getDiskInfo() + ")");
+
+        ui.updateTitle(run.getDiskInfo());
+
+        // combined (read plus write) bandwidth and IOPS of each mark, for the run's max, min and avg
+        double max = -1, min = -1, avg = -1;
+        double iopsMax = -1, iopsMin = -1, iopsAvg = -1;
+        int marksDone = 0;
+
+        // fill every file of the run before anything is timed, as a file of full length may still be sparse
+        List<File> files = RunPhases.runFiles(settings, startFileNum);
+        long prefillStart = System.nanoTime();
+        try {
+            executor.preallocate(files, prefill);
+        } catch (IOException ex) {
+            Logger.getLogger(DiskWorker.class.getName()).log(Level.SEVERE, null, ex);
+            String emsg = "Preallocation failed: " + ex.getMessage();
+            ui.showErrorMessageDialog(emsg, "Unable to preallocate");
+            settings.message(emsg);
+            executor.close();
+            return startFileNum;
+        }
+        settings.message(prefill + " preallocation of " + files.size() + " file(s) took "
+                + Util.displayString((System.nanoTime() - prefillStart) / 1_000_000_000d) + " sec (untimed)");
+
+        if (!RunPhases.warmup(executor, startFileNum, run, settings, ui, worker,
+                "Mixed read/write benchmark failed: ", "Unable to run MIXED")) {
+            executor.close();
+            return startFileNum;
+        }
+
+        for (int m = startFileNum; m < startFileNum + settings.getNumOfMarks() && !worker.isCancelledFromOutside(); m++) {
+
+            File testFile = RunPhases.markFile(settings, m);
+            rMark = new DiskMark(READ);
+            rMark.setMarkNum(m);
+            wMark = new DiskMark(WRITE);
+            wMark.setMarkNum(m);
+
+            TransferStats stats;
+            long startTime;
+            try {
+                startTime = System.nanoTime();
+                stats = executor.runMark(testFile, m, worker::isCancelledFromOutside, () -> {
+                    float percentComplete = (float) unitsComplete.incrementAndGet() / (float) unitsTotal * 100f;
+                    worker.setProgressFromOutside((int) percentComplete);
+                });
+            } catch (IOException ex) {
+                Logger.getLogger(DiskWorker.class.getName()).log(Level.SEVERE, null, ex);
+                String emsg = "Mixed read/write benchmark failed: " + ex.getMessage();
+                ui.showErrorMessageDialog(emsg, "Unable to run MIXED");
+                settings.message(emsg);
+                executor.close();
+                return startFileNum;
+            }
+            long endTime = System.nanoTime();
+            double sec = (double) (endTime - startTime) / (double) 1000000000;
+            double mbRead = (double) stats.getReadBytes() / (double) settings.getMegabyte();
+            double mbWritten = (double) stats.getWriteBytes() / (double) settings.getMegabyte();
+            rMark.setBwMbSec(mbRead / sec);
+            wMark.setBwMbSec(mbWritten / sec);
+            rMark.setIops(stats.getReadOps() / sec);
+            wMark.setIops(stats.getWriteOps() / sec);
+            rMark.setBytes(stats.getReadBytes());
+            wMark.setBytes(stats.getWriteBytes());
+            rMark.recordLatency(stats.getReadLatency());
+            wMark.recordLatency(stats.getWriteLatency());
+            runLatency.add(stats.getReadLatency());
+            runLatency.add(stats.getWriteLatency());
+            runReadLatency.add(stats.getReadLatency());
+            runWriteLatency.add(stats.getWriteLatency());
+            run.addVerification(stats);
+            settings.addTransfers(stats);
+            wMark.setSyncMs(stats.getSyncMs());
+            wMark.setSyncCount((int) stats.getSyncOps());
+            run.setRunSyncMs(run.getRunSyncMs() + stats.getSyncMs());
+            settings.message("m:" + m + " mixed IO read " + rMark.getBwMbSecAsString() + " MB/s "
+                    + rMark.getIopsAsString() + " IOPS "
+                    + Util.displayString(stats.getReadAvgLatencyMs()) + " ms avg, write "
+                    + wMark.getBwMbSecAsString() + " MB/s "
+                    + wMark.getIopsAsString() + " IOPS "
+                    + Util.displayString(stats.getWriteAvgLatencyMs()) + " ms avg" + wMark.getSyncAsString());
+            settings.message("m:" + m + " read latency " + rMark.getLatencyAsString()
+                    + ", write latency " + wMark.getLatencyAsString());
+            settings.updateMetrics(rMark);
+            settings.updateMetrics(wMark);
+            worker.publishFromOutside(rMark);
+            worker.publishFromOutside(wMark);
+
+            double combined = (mbRead + mbWritten) / sec;
+            marksDone++;
+            max = max == -1 ? combined : Math.max(max, combined);
+            min = min == -1 ? combined : Math.min(min, combined);
+            avg = avg == -1 ? combined : ((marksDone - 1) * avg + combined) / marksDone;
+            double combinedIops = rMark.getIops() + wMark.getIops();
+            iopsMax = iopsMax == -1 ? combinedIops : Math.max(iopsMax, combinedIops);
+            iopsMin = iopsMin == -1 ? combinedIops : Math.min(iopsMin, combinedIops);
+            iopsAvg = iopsAvg == -1 ? combinedIops : ((marksDone - 1) * iopsAvg + combinedIops) / marksDone;
+            run.setRunMax(max);
+            run.setRunMin(min);
+            run.setRunAvg(avg);
+            run.setRunIopsMax(iopsMax);
+            run.setRunIopsMin(iopsMin);
+            run.setRunIopsAvg(iopsAvg);
+            run.setRunReadAvg(rMark.getCumAvg());
+            run.setRunWriteAvg(wMark.getCumAvg());
+            run.setRunReadIopsAvg(rMark.getCumIopsAvg());
+            run.setRunWriteIopsAvg(wMark.getCumIopsAvg());
+            run.recordLatency(runLatency);
+            run.recordLatency(runReadLatency, runWriteLatency);
+            bwStats.add(combined);
+            run.recordStatistics(bwStats);
+            run.setEndTime(new Date());
+
+            if (RunPhases.isSteady(steadyState, combined, marksDone, run, settings)) {
+                break;
+            }
+        }
+        executor.close();
+
+            /*
+              Persist info about the Mixed BM Run (e.g. into Derby Database) and add it to a GUI panel
+             */
+        RunStore.save(run, settings, ui);
+
+        return startFileNum + marksDone;
+    }
+}
@@ -2,14 +2,16 @@ package edu.touro.mco152.bm.commands;
 
 import edu.touro.mco152.bm.*;
 import edu.touro.mco152.bm.persist.DiskRun;
-import edu.touro.mco152.bm.persist.EM;
 import edu.touro.mco152.bm.DiskMark;
-import jakarta.persistence.EntityManager;
+import edu.touro.mco152.bm.engine.LatencyHistogram;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.SteadyStateDetector;
+import edu.touro.mco152.bm.engine.TransferStats;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,64 +21,87 @@ import static edu.touro.mco152.bm.DiskMark.MarkType.READ;
  */
 public class ReadBenchmarkCommandReceiver {
     public int doRead(BenchmarkSettings settings, GeneralUI ui, DiskWorker worker){
-        int wUnitsComplete = 0, rUnitsComplete = 0, unitsComplete;
+        int wUnitsComplete = 0;
         int wUnitsTotal = settings.isWriteTest() ? settings.getNumOfBlocks() * settings.getNumOfMarks() : 0;
         int rUnitsTotal = settings.isReadTest() ? settings.getNumOfBlocks() * settings.getNumOfMarks() : 0;
         int unitsTotal = wUnitsTotal + rUnitsTotal;
-        float percentComplete;
+        AtomicInteger rUnitsComplete = new AtomicInteger(0);
 
-        int blockSize = settings.getBlockSizeKb() * settings.getKilobyte();
-        byte[] blockArr = new byte[blockSize];
-        for (int b = 0; b < blockArr.length; b++) {
-            if (b % 2 == 0) {
-                blockArr[b] = (byte) 0xFF;
-            }
-        }
+        // engines, buffers and job threads are set up once and reused for every mark
+        MarkExecutor executor = new MarkExecutor(settings, DiskRun.IOMode.READ);
 
         DiskMark rMark;
+        LatencyHistogram runLatency = new LatencyHistogram();
+        MarkStatistics bwStats = new MarkStatistics();
 
         int startFileNum = settings.getNextMarkNumber();
 
 
         DiskRun run = new DiskRun(DiskRun.IOMode.READ, settings.getBlockSequence());
+        run.setIoEngine(settings.getEngineType());
+        run.setDataPattern(settings.getDataPattern());
+        run.setPatternPercent(settings.getPatternPercent());
+        run.setVerifyData(executor.isVerifying());
+        run.setQueueDepth(executor.getQueueDepth());
+        run.setNumJobs(executor.getNumJobs());
+        if (settings.getEngineType() == DiskRun.EngineType.VIRTUAL_THREADS) {
+            run.setThinkTimeMs(settings.getThinkTimeMs());
+        }
         run.setNumMarks(settings.getNumOfMarks());
+        SteadyStateDetector steadyState = RunPhases.steadyState(settings, run);
+        run.setMarkDurationMs(settings.getMarkDurationMs());
         run.setNumBlocks(settings.getNumOfBlocks());
         run.setBlockSize(settings.getBlockSizeKb());
         run.setTxSize(settings.getTargetTxSizeKb());
         run.setDiskInfo(Util.getDiskInfo(settings.getDataDir()));
+        run.setSweepId(settings.getSweepId());
+        run.setSweepCell(settings.getSweepCell());
 
         settings.message("disk info: (" + run.getDiskInfo() + ")");
 
         ui.updateTitle(run.getDiskInfo());
 
-        File testFile = null;
+        if (!RunPhases.warmup(executor, startFileNum, run, settings, ui, worker,
+                "May not have done Write Benchmarks, so no data available to read.", "Unable to READ")) {
+            executor.close();
+            return startFileNum;
+        }
+        int nextFileNum = startFileNum;
+
         for (int m = startFileNum; m < startFileNum + settings.getNumOfMarks() && !worker.isCancelledFromOutside(); m++) {
 
-            if (settings.isMultiFile()) {
-                testFile = new File(settings.getDataDir().getAbsolutePath()
-                        + File.separator + "testdata" + m + ".jdm");
+            File testFile = RunPhases.markFile(settings, m);
+            // a write run that reached steady state early, or was cancelled, wrote fewer files
+            if (settings.isMultiFile() && m > startFileNum && !testFile.exists()) {
+                settings.message("no file for mark " + m + ", the write run ended after "
+                        + (m - startFileNum) + " marks");
+                run.setNumMarks(m - startFileNum);
+                break;
             }
             rMark = new DiskMark(READ);  // starting to keep track of a new benchmark
             rMark.setMarkNum(m);
             long startTime = System.nanoTime();
             long totalBytesReadInMark = 0;
+            long totalOpsInMark = 0;
 
             try {
-                try (RandomAccessFile rAccFile = new RandomAccessFile(testFile, "r")) {
-                    for (int b = 0; b < settings.getNumOfBlocks(); b++) {
-                        if (settings.getBlockSequence() == DiskRun.BlockSequence.RANDOM) {
-                            int rLoc = Util.randInt(0, settings.getNumOfBlocks() - 1);
-                            rAccFile.seek((long) rLoc * blockSize);
-                        } else {
-                            rAccFile.seek((long) b * blockSize);
-                        }
-                        rAccFile.readFully(blockArr, 0, blockSize);
-                        totalBytesReadInMark += blockSize;
-                        rUnitsComplete++;
-                        unitsComplete = rUnitsComplete + wUnitsComplete;
-                        percentComplete = (float) unitsComplete / (float) unitsTotal * 100f;
-                        worker.setProgressFromOutside((int) percentComplete);
-                    }
+                TransferStats stats = executor.runMark(testFile, m, worker::isCancelledFromOutside, () -> {
+                    int unitsComplete = rUnitsComplete.incrementAndGet() + wUnitsComplete;
+                    float percentComplete = (float) unitsComplete / (float) unitsTotal * 100f;
+                    worker.setProgressFromOutside((int) percentComplete);
+                });
+                totalBytesReadInMark = stats.getReadBytes();
+                totalOpsInMark = stats.getReadOps();
+                rMark.recordLatency(stats.getReadLatency());
+                runLatency.add(stats.getReadLatency());
+                run.addVerification(stats);
+                settings.addTransfers(stats);
+                if (executor.isVerifying()) {
+                    settings.message("m:" + m + " verified " + stats.getVerifiedBlocks() + " blocks: "
+                            + stats.getMismatchedBlocks() + " mismatched, " + stats.getTornBlocks() + " torn, "
+                            + stats.getMisplacedBlocks() + " misplaced, " + stats.getUnwrittenBlocks()
+                            + " never written ("
+                            + Util.displayString(stats.getChecksumMs()) + " ms checksum CPU)");
                 }
             } catch (IOException ex) {
                 Logger.getLogger(DiskWorker.class.getName()).log(Level.SEVERE, null, ex);
@@ -84,38 +109,53 @@ public class ReadBenchmarkCommandReceiver {
                         ex.getMessage();
                 ui.showErrorMessageDialog(emsg, "Unable to READ");
                 settings.message(emsg);
+                executor.close();
                 return startFileNum;
             }
+            nextFileNum = m + 1;
             long endTime = System.nanoTime();
             long elapsedTimeNs = endTime - startTime;
             double sec = (double) elapsedTimeNs / (double) 1000000000;
             double mbRead = (double) totalBytesReadInMark / (double) settings.getMegabyte();
             rMark.setBwMbSec(mbRead / sec);
-            settings.message("m:" + m + " READ IO is " + rMark.getBwMbSec() + " MB/s    "
-                    + "(MBread " + mbRead + " in " + sec + " sec)");
+            rMark.setIops(totalOpsInMark / sec);
+            rMark.setBytes(totalBytesReadInMark);
+            settings.message("m:" + m + " READ IO is " + rMark.getBwMbSec() + " MB/s "
+                    + rMark.getIopsAsString() + " IOPS    "
+                    + "(MBread " + mbRead + " in " + sec + " sec) " + rMark.getLatencyAsString());
             settings.updateMetrics(rMark);
             worker.publishFromOutside(rMark);
 
             run.setRunMax(rMark.getCumMax());
             run.setRunMin(rMark.getCumMin());
             run.setRunAvg(rMark.getCumAvg());
+            run.setRunIopsMax(rMark.getCumIopsMax());
+            run.setRunIopsMin(rMark.getCumIopsMin());
+            run.setRunIopsAvg(rMark.getCumIopsAvg());
+            run.recordLatency(runLatency);
+            bwStats.add(rMark.getBwMbSec());
+            run.recordStatistics(bwStats);
             run.setEndTime(new Date());
+
+            if (RunPhases.isSteady(steadyState, rMark.getBwMbSec(), m - startFileNum + 1, run, settings)) {
+                break;
+            }
+        }
+        executor.close();
+
+        if (run.getCorruptBlocks() > 0) {
+            String emsg = "Read-back verification found " + run.getCorruptBlocks() + " bad blocks: "
+                    + run.getMismatchedBlocks() + " mismatched, " + run.getTornBlocks() + " torn, "
+                    + run.getMisplacedBlocks() + " misplaced";
+            settings.message(emsg);
+            ui.showErrorMessageDialog(emsg, "Data verification FAILED");
         }
 
             /*
               Persist info about the Read BM Run (e.g. into Derby Database) and add it to a GUI panel
              */
-        try {
-            EntityManager em = EM.getEntityManager();
-            em.getTransaction().begin();
-            em.persist(run);
-            em.getTransaction().commit();
-
-            ui.addRun(run);
-        } catch (Exception e) {
-
-        }
+        RunStore.save(run, settings, ui);
 
-        return startFileNum + settings.getNumOfMarks();
+        return nextFileNum;
     }
 }
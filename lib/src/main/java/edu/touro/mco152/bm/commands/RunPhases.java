@@ -0,0 +1,107 @@
+package edu.touro.mco152.bm.commands;
+
+import edu.touro.mco152.bm.BenchmarkSettings;
+import edu.touro.mco152.bm.DiskWorker;
+import edu.touro.mco152.bm.GeneralUI;
+import edu.touro.mco152.bm.Util;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.SteadyStateDetector;
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The steps around the marks that the read, write and mixed receivers share: naming the test
+ * files, the warmup before the first mark and the steady-state check after each one.
+ */
+final class RunPhases {
+
+    private RunPhases() {
+    }
+
+    /**
+     * @return the file of the given mark, one per mark with multiFile and else the same file
+     */
+    static File markFile(BenchmarkSettings settings, int markNum) {
+        String name = settings.isMultiFile() ? "testdata" + markNum + ".jdm" : "testdata.jdm";
+        return new File(settings.getDataDir().getAbsolutePath() + File.separator + name);
+    }
+
+    /**
+     * @return every file the marks of a run starting at startFileNum use
+     */
+    static List<File> runFiles(BenchmarkSettings settings, int startFileNum) {
+        List<File> files = new ArrayList<>();
+        if (settings.isMultiFile()) {
+            for (int m = startFileNum; m < startFileNum + settings.getNumOfMarks(); m++) {
+                files.add(markFile(settings, m));
+            }
+        } else {
+            files.add(markFile(settings, startFileNum));
+        }
+        return files;
+    }
+
+    /**
+     * Warms up on the first measured mark's file, and leaves all the warmup did out of the run.
+     * @param failure start of the message a failed warmup is reported with
+     * @param title title of the error dialog
+     * @return false if the warmup failed, which has been reported, so the run must end
+     */
+    static boolean warmup(MarkExecutor executor, int startFileNum, DiskRun run, BenchmarkSettings settings,
+                          GeneralUI ui, DiskWorker worker, String failure, String title) {
+        try {
+            long warmupStart = System.nanoTime();
+            int warmups = executor.warmup(markFile(settings, startFileNum), startFileNum,
+                    worker::isCancelledFromOutside);
+            run.setWarmupMarks(warmups);
+            if (warmups > 0) {
+                settings.message("warmup: " + warmups + " mark(s) in "
+                        + Util.displayString((System.nanoTime() - warmupStart) / 1_000_000_000d)
+                        + " sec, left out of the results");
+            }
+            return true;
+        } catch (IOException ex) {
+            Logger.getLogger(DiskWorker.class.getName()).log(Level.SEVERE, null, ex);
+            String emsg = failure + ex.getMessage();
+            ui.showErrorMessageDialog(emsg, title);
+            settings.message(emsg);
+            return false;
+        }
+    }
+
+    /**
+     * @return the detector for the run's steady-state settings, or null if the run has none
+     */
+    static SteadyStateDetector steadyState(BenchmarkSettings settings, DiskRun run) {
+        run.setSteadyStateCv(settings.getSteadyStateCv());
+        return settings.getSteadyStateCv() > 0
+                ? new SteadyStateDetector(settings.getSteadyStateWindow(), settings.getSteadyStateCv()) : null;
+    }
+
+    /**
+     * A run whose last marks barely differ has nothing more to tell, so it ends at the mark that
+     * shows it, and the run records how many marks it took.
+     * @param steadyState the run's detector, or null
+     * @param bwMbSec bandwidth of the mark just finished
+     * @param marksRun measured marks so far, this one included
+     * @return true if the run should end after this mark
+     */
+    static boolean isSteady(SteadyStateDetector steadyState, double bwMbSec, int marksRun, DiskRun run,
+                            BenchmarkSettings settings) {
+        if (steadyState == null || !steadyState.add(bwMbSec)) {
+            return false;
+        }
+        run.setSteadyAtMark(marksRun);
+        run.setNumMarks(marksRun);
+        settings.message("steady state after " + marksRun + " marks: bandwidth CV "
+                + Util.displayString(steadyState.getCvPercent()) + "% over the last "
+                + settings.getSteadyStateWindow() + " marks");
+        return true;
+    }
+}
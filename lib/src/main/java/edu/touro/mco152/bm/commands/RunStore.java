@@ -0,0 +1,50 @@
+package edu.touro.mco152.bm.commands;
+
+import edu.touro.mco152.bm.BenchmarkSettings;
+import edu.touro.mco152.bm.DiskWorker;
+import edu.touro.mco152.bm.GeneralUI;
+import edu.touro.mco152.bm.persist.DiskRun;
+import edu.touro.mco152.bm.persist.EM;
+import jakarta.persistence.EntityManager;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores a finished run, shared by the read, write and mixed receivers.
+ */
+final class RunStore {
+
+    private RunStore() {
+    }
+
+    /**
+     * Persists the run when the settings ask for it, then hands it to the UI. A run that can not
+     * be stored is still shown, and the failure is reported as an error rather than dropped,
+     * even when the database can not be opened at all.
+     */
+    static void save(DiskRun run, BenchmarkSettings settings, GeneralUI ui) {
+        if (settings.isPersistRuns()) {
+            try {
+                EntityManager em = EM.openEntityManager();
+                synchronized (em) {
+                    try {
+                        em.getTransaction().begin();
+                        em.persist(run);
+                        em.getTransaction().commit();
+                    } finally {
+                        if (em.getTransaction().isActive()) {
+                            em.getTransaction().rollback();
+                        }
+                    }
+                }
+            } catch (RuntimeException | LinkageError e) {
+                Logger.getLogger(DiskWorker.class.getName()).log(Level.SEVERE, null, e);
+                String emsg = "Unable to store the " + run.getIoMode() + " run: " + e.getMessage();
+                ui.showErrorMessageDialog(emsg, "Unable to save run");
+                settings.message(emsg);
+            }
+        }
+        ui.addRun(run);
+    }
+}
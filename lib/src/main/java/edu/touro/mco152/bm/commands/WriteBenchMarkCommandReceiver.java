@@ -3,13 +3,16 @@ package edu.touro.mco152.bm.commands;
 import edu.touro.mco152.bm.*;
 import edu.touro.mco152.bm.persist.DiskRun;
 import edu.touro.mco152.bm.DiskMark;
-import edu.touro.mco152.bm.persist.EM;
-import jakarta.persistence.EntityManager;
+import edu.touro.mco152.bm.engine.LatencyHistogram;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.SteadyStateDetector;
+import edu.touro.mco152.bm.engine.TransferStats;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,41 +22,72 @@ import static edu.touro.mco152.bm.DiskMark.MarkType.WRITE;
  */
 public class WriteBenchMarkCommandReceiver {
     public int doWrite(BenchmarkSettings settings, GeneralUI ui, DiskWorker worker){
-        int wUnitsComplete = 0, rUnitsComplete = 0, unitsComplete;
         int wUnitsTotal = settings.isWriteTest() ? settings.getNumOfBlocks() * settings.getNumOfMarks() : 0;
         int rUnitsTotal = settings.isReadTest() ? settings.getNumOfBlocks() * settings.getNumOfMarks() : 0;
         int unitsTotal = wUnitsTotal + rUnitsTotal;
-        float percentComplete;
+        AtomicInteger wUnitsComplete = new AtomicInteger(0);
 
-        int blockSize = settings.getBlockSizeKb() * settings.getKilobyte();
-        byte[] blockArr = new byte[blockSize];
-        for (int b = 0; b < blockArr.length; b++) {
-            if (b % 2 == 0) {
-                blockArr[b] = (byte) 0xFF;
-            }
-        }
+        // engines, buffers and job threads are set up once and reused for every mark
+        MarkExecutor executor = new MarkExecutor(settings, DiskRun.IOMode.WRITE);
 
         DiskMark wMark;
+        LatencyHistogram runLatency = new LatencyHistogram();
+        MarkStatistics bwStats = new MarkStatistics();
 
         int startFileNum = settings.getNextMarkNumber();
 
         DiskRun run = new DiskRun(DiskRun.IOMode.WRITE, settings.getBlockSequence());
+        run.setIoEngine(settings.getEngineType());
+        run.setDataPattern(settings.getDataPattern());
+        run.setPatternPercent(settings.getPatternPercent());
+        run.setPreallocation(settings.getPreallocation());
+        run.setSyncPolicy(settings.getSyncPolicy());
+        run.setSyncEveryBlocks(settings.getSyncEveryBlocks());
+        run.setVerifyData(executor.isVerifying());
+        run.setQueueDepth(executor.getQueueDepth());
+        run.setNumJobs(executor.getNumJobs());
+        if (settings.getEngineType() == DiskRun.EngineType.VIRTUAL_THREADS) {
+            run.setThinkTimeMs(settings.getThinkTimeMs());
+        }
         run.setNumMarks(settings.getNumOfMarks());
+        SteadyStateDetector steadyState = RunPhases.steadyState(settings, run);
+        run.setMarkDurationMs(settings.getMarkDurationMs());
         run.setNumBlocks(settings.getNumOfBlocks());
         run.setBlockSize(settings.getBlockSizeKb());
         run.setTxSize(settings.getTargetTxSizeKb());
         run.setDiskInfo(Util.getDiskInfo(settings.getDataDir()));
+        run.setSweepId(settings.getSweepId());
+        run.setSweepCell(settings.getSweepCell());
 
         // Tell logger and GUI to display what we know so far about the Run
         settings.message("disk info: (" + run.getDiskInfo() + ")");
 
         ui.updateTitle(run.getDiskInfo());
 
-        // Create a test data file using the default file system and config-specified location
-        File testFile = null;
-        if (!settings.isMultiFile()) {
-            testFile = new File(settings.getDataDir().getAbsolutePath() + File.separator + "testdata.jdm");
+        // size every file of the run before any mark is timed, so the marks measure overwrites
+        if (settings.getPreallocation() != DiskRun.Preallocation.NONE) {
+            List<File> files = RunPhases.runFiles(settings, startFileNum);
+            long startTime = System.nanoTime();
+            try {
+                executor.preallocate(files, settings.getPreallocation());
+            } catch (IOException ex) {
+                Logger.getLogger(DiskWorker.class.getName()).log(Level.SEVERE, null, ex);
+                String emsg = "Preallocation failed: " + ex.getMessage();
+                ui.showErrorMessageDialog(emsg, "Unable to preallocate");
+                settings.message(emsg);
+                executor.close();
+                return startFileNum;
+            }
+            settings.message(settings.getPreallocation() + " preallocation of " + files.size() + " file(s) took "
+                    + Util.displayString((System.nanoTime() - startTime) / 1_000_000_000d) + " sec (untimed)");
+        }
+
+        if (!RunPhases.warmup(executor, startFileNum, run, settings, ui, worker,
+                "Warmup failed: ", "Unable to warm up")) {
+            executor.close();
+            return startFileNum;
         }
+        int nextFileNum = startFileNum;
 
             /*
               Begin an outer loop for specified duration (number of 'marks') of benchmark,
@@ -62,44 +96,41 @@ public class WriteBenchMarkCommandReceiver {
              */
         for (int m = startFileNum; m < startFileNum + settings.getNumOfMarks() && !worker.isCancelledFromOutside(); m++) {
 
-            if (settings.isMultiFile()) {
-                testFile = new File(settings.getDataDir().getAbsolutePath()
-                        + File.separator + "testdata" + m + ".jdm");
-            }
+            File testFile = RunPhases.markFile(settings, m);
             wMark = new DiskMark(WRITE);    // starting to keep track of a new benchmark
             wMark.setMarkNum(m);
             long startTime = System.nanoTime();
             long totalBytesWrittenInMark = 0;
-
-            String mode = "rw";
-            if (settings.isWriteSyncEnabled()) {
-                mode = "rwd";
-            }
+            long totalOpsInMark = 0;
 
             try {
-                try (RandomAccessFile rAccFile = new RandomAccessFile(testFile, mode)) {
-                    for (int b = 0; b < settings.getNumOfBlocks(); b++) {
-                        if (settings.getBlockSequence() == DiskRun.BlockSequence.RANDOM) {
-                            int rLoc = Util.randInt(0, settings.getNumOfBlocks() - 1);
-                            rAccFile.seek((long) rLoc * blockSize);
-                        } else {
-                            rAccFile.seek((long) b * blockSize);
-                        }
-                        rAccFile.write(blockArr, 0, blockSize);
-                        totalBytesWrittenInMark += blockSize;
-                        wUnitsComplete++;
-                        unitsComplete = rUnitsComplete + wUnitsComplete;
-                        percentComplete = (float) unitsComplete / (float) unitsTotal * 100f;
-
-                            /*
-                              Report to GUI what percentage level of Entire BM (#Marks * #Blocks) is done.
-                             */
-                        worker.setProgressFromOutside((int) percentComplete);
-                    }
-                }
+                TransferStats stats = executor.runMark(testFile, m, worker::isCancelledFromOutside, () -> {
+                    int unitsComplete = wUnitsComplete.incrementAndGet();
+                    float percentComplete = (float) unitsComplete / (float) unitsTotal * 100f;
+
+                        /*
+                          Report to GUI what percentage level of Entire BM (#Marks * #Blocks) is done.
+                         */
+                    worker.setProgressFromOutside((int) percentComplete);
+                });
+                totalBytesWrittenInMark = stats.getWriteBytes();
+                totalOpsInMark = stats.getWriteOps();
+                wMark.recordLatency(stats.getWriteLatency());
+                runLatency.add(stats.getWriteLatency());
+                run.addVerification(stats);
+                settings.addTransfers(stats);
+                wMark.setSyncMs(stats.getSyncMs());
+                wMark.setSyncCount((int) stats.getSyncOps());
+                run.setRunSyncMs(run.getRunSyncMs() + stats.getSyncMs());
             } catch (IOException ex) {
                 Logger.getLogger(DiskWorker.class.getName()).log(Level.SEVERE, null, ex);
+                String emsg = "Write benchmark failed: " + ex.getMessage();
+                ui.showErrorMessageDialog(emsg, "Unable to WRITE");
+                settings.message(emsg);
+                executor.close();
+                return startFileNum;
             }
+            nextFileNum = m + 1;
 
                 /*
                   Compute duration, throughput of this Mark's step of BM
@@ -109,9 +140,13 @@ public class WriteBenchMarkCommandReceiver {
             double sec = (double) elapsedTimeNs / (double) 1000000000;
             double mbWritten = (double) totalBytesWrittenInMark / (double) settings.getMegabyte();
             wMark.setBwMbSec(mbWritten / sec);
-            settings.message("m:" + m + " write IO is " + wMark.getBwMbSecAsString() + " MB/s     "
+            wMark.setIops(totalOpsInMark / sec);
+            wMark.setBytes(totalBytesWrittenInMark);
+            settings.message("m:" + m + " write IO is " + wMark.getBwMbSecAsString() + " MB/s "
+                    + wMark.getIopsAsString() + " IOPS     "
                     + "(" + Util.displayString(mbWritten) + "MB written in "
-                    + Util.displayString(sec) + " sec)");
+                    + Util.displayString(sec) + " sec) " + wMark.getLatencyAsString()
+                    + wMark.getSyncAsString());
             settings.updateMetrics(wMark);
 
                 /*
@@ -123,23 +158,26 @@ public class WriteBenchMarkCommandReceiver {
             run.setRunMax(wMark.getCumMax());
             run.setRunMin(wMark.getCumMin());
             run.setRunAvg(wMark.getCumAvg());
+            run.setRunIopsMax(wMark.getCumIopsMax());
+            run.setRunIopsMin(wMark.getCumIopsMin());
+            run.setRunIopsAvg(wMark.getCumIopsAvg());
+            run.recordLatency(runLatency);
+            bwStats.add(wMark.getBwMbSec());
+            run.recordStatistics(bwStats);
             run.setEndTime(new Date());
+
+            if (RunPhases.isSteady(steadyState, wMark.getBwMbSec(), m - startFileNum + 1, run, settings)) {
+                break;
+            }
         } // END outer loop for specified duration (number of 'marks') for WRITE benchmark
+        executor.close();
 
             /*
               Persist info about the Write BM Run (e.g. into Derby Database) and add it to a GUI panel
              */
-        try {
-            EntityManager em = EM.getEntityManager();
-            em.getTransaction().begin();
-            em.persist(run);
-            em.getTransaction().commit();
-
-            ui.addRun(run);
-        } catch (Exception e) {
-
-        }
+        RunStore.save(run, settings, ui);
 
-        return startFileNum + settings.getNumOfMarks();
+        // a run ended early by steady state or a cancel leaves no gap before the next run's files
+        return nextFileNum;
     }
 }
@@ -0,0 +1,21 @@
+package edu.touro.mco152.bm.engine;
+
+/**
+ * Holds the completion listener every engine reports its transfers to, and the check every
+ * read block is handed to.
+ */
+public abstract class AbstractIOEngine implements IOEngine {
+
+    protected CompletionListener listener = CompletionListener.NONE;
+    protected ReadCheck readCheck = ReadCheck.NONE;
+
+    @Override
+    public void setCompletionListener(CompletionListener listener) {
+        this.listener = listener == null ? CompletionListener.NONE : listener;
+    }
+
+    @Override
+    public void setReadCheck(ReadCheck check) {
+        this.readCheck = check == null ? ReadCheck.NONE : check;
+    }
+}
@@ -0,0 +1,196 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * AsynchronousFileChannel I/O that keeps up to queueDepth block requests outstanding, so
+ * devices that only reach their rated IOPS with many commands queued can be measured at
+ * queue depths other than 1.
+ * <p>
+ * Requests are tracked in a ring of queueDepth slots. Submitting into an occupied slot first
+ * waits for the request already in it, which is always the oldest one outstanding, and
+ * {@link #drain()} waits for every slot before the mark is timed. Writes share the caller's
+ * buffer content through duplicates, while every read slot owns its own buffer so concurrent
+ * reads never land in the same memory. Each request's completion time is taken in its
+ * completion handler, so latency does not include the time spent before the slot is reclaimed.
+ */
+public class AsyncFileChannelEngine extends AbstractIOEngine {
+
+    private final int queueDepth;
+    private final CompletableFuture<Integer>[] pending;
+    private final ByteBuffer[] slotBufs;
+    private final long[] slotPositions;
+    private final boolean[] slotWrites;
+    private final long[] slotStarts;
+    private final long[] slotEnds;
+    private ByteBuffer[] readBufs = null;
+    private AsynchronousFileChannel channel = null;
+    private int nextSlot = 0;
+
+    @SuppressWarnings("unchecked")
+    public AsyncFileChannelEngine(int queueDepth) {
+        if (queueDepth < 1) {
+            throw new IllegalArgumentException("queue depth must be at least 1, was " + queueDepth);
+        }
+        this.queueDepth = queueDepth;
+        pending = new CompletableFuture[queueDepth];
+        slotBufs = new ByteBuffer[queueDepth];
+        slotPositions = new long[queueDepth];
+        slotWrites = new boolean[queueDepth];
+        slotStarts = new long[queueDepth];
+        slotEnds = new long[queueDepth];
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Allocates a plain direct buffer, as often as called. The ring of read buffers is the
+     * engine's own and is only set up by the first read, so write payloads allocated here can
+     * never be shared with a read in flight.
+     */
+    @Override
+    public ByteBuffer allocate(int blockSize) {
+        return ByteBuffer.allocateDirect(blockSize);
+    }
+
+    @Override
+    public void open(File file, long length, DiskRun.IOMode mode, boolean sync) throws IOException {
+        channel = AsynchronousFileChannel.open(file.toPath(), FileChannelEngine.openOptions(mode, sync), null);
+        nextSlot = 0;
+    }
+
+    @Override
+    public void write(ByteBuffer src, long position) throws IOException {
+        int slot = claimSlot();
+        ByteBuffer buf = src.duplicate();
+        buf.rewind();
+        submit(slot, buf, position, true);
+    }
+
+    /**
+     * Submits a read into one of the engine's own slot buffers. The caller's buffer is only used
+     * for its size, since its content could otherwise be overwritten by several reads at once.
+     */
+    @Override
+    public void read(ByteBuffer dst, long position) throws IOException {
+        int slot = claimSlot();
+        if (readBufs == null || readBufs[0].capacity() < dst.capacity()) {
+            readBufs = new ByteBuffer[queueDepth];
+            for (int i = 0; i < queueDepth; i++) {
+                readBufs[i] = ByteBuffer.allocateDirect(dst.capacity());
+            }
+        }
+        ByteBuffer buf = readBufs[slot];
+        buf.clear().limit(dst.capacity());
+        submit(slot, buf, position, false);
+    }
+
+    private void submit(int slot, ByteBuffer buf, long position, boolean write) {
+        slotBufs[slot] = buf;
+        slotPositions[slot] = position;
+        slotWrites[slot] = write;
+        CompletableFuture<Integer> request = new CompletableFuture<>();
+        pending[slot] = request;
+        slotStarts[slot] = System.nanoTime();
+        CompletionHandler<Integer, Integer> handler = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer n, Integer s) {
+                slotEnds[s] = System.nanoTime();
+                request.complete(n);
+            }
+
+            @Override
+            public void failed(Throwable exc, Integer s) {
+                request.completeExceptionally(exc);
+            }
+        };
+        if (write) {
+            channel.write(buf, position, slot, handler);
+        } else {
+            channel.read(buf, position, slot, handler);
+        }
+    }
+
+    @Override
+    public void drain() throws IOException {
+        for (int i = 0; i < queueDepth; i++) {
+            complete((nextSlot + i) % queueDepth);
+        }
+    }
+
+    /**
+     * Gets the next slot in the ring, first waiting for the request still occupying it.
+     */
+    private int claimSlot() throws IOException {
+        int slot = nextSlot;
+        complete(slot);
+        nextSlot = (nextSlot + 1) % queueDepth;
+        return slot;
+    }
+
+    /**
+     * Waits for the request in a slot, finishing a short transfer synchronously if needed.
+     */
+    private void complete(int slot) throws IOException {
+        CompletableFuture<Integer> request = pending[slot];
+        if (request == null) {
+            return;
+        }
+        pending[slot] = null;
+        ByteBuffer buf = slotBufs[slot];
+        try {
+            int n = request.get();
+            long end = slotEnds[slot];
+            while (buf.hasRemaining()) {
+                if (n < 0) {
+                    throw new EOFException("end of file reached at " + (slotPositions[slot] + buf.position()));
+                }
+                long at = slotPositions[slot] + buf.position();
+                n = slotWrites[slot] ? channel.write(buf, at).get() : channel.read(buf, at).get();
+                end = System.nanoTime();
+            }
+            listener.completed(slotWrites[slot], slotPositions[slot], buf.limit(), end - slotStarts[slot]);
+            if (!slotWrites[slot]) {
+                readCheck.check(buf, slotPositions[slot]);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for block at " + slotPositions[slot]);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public void force(boolean metadata) throws IOException {
+        drain();
+        channel.force(metadata);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (int i = 0; i < queueDepth; i++) {
+            pending[i] = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
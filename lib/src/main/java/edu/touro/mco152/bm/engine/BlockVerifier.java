@@ -0,0 +1,114 @@
+package edu.touro.mco152.bm.engine;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.zip.CRC32C;
+
+/**
+ * Seals written blocks with a header and CRC32C, and checks them when they are read back.
+ * <p>
+ * A sealed block starts every 4 KB sector with the same random 8 byte stamp, unique to that
+ * write. Sector 0 also holds a header with a magic number, the mark number, the block's index
+ * in the file and the CRC32C of the rest of the block. On read-back a block is one of:
+ * <ul>
+ *     <li>UNWRITTEN, if its header is all zeros, as for a block that a RANDOM order skipped,</li>
+ *     <li>TORN, if its sectors carry different stamps, so only part of a write landed,</li>
+ *     <li>MISMATCH, if the header is missing or the CRC fails, so the content is corrupt,</li>
+ *     <li>MISPLACED, if it is intact but belongs to another position or mark,</li>
+ *     <li>OK otherwise.</li>
+ * </ul>
+ * One verifier belongs to one job and is only used from that job's thread.
+ */
+public class BlockVerifier {
+
+    public enum Result {OK, UNWRITTEN, MISMATCH, TORN, MISPLACED}
+
+    static final int MAGIC = 0x4A444D4B;  // "JDMK"
+    private static final int MAGIC_AT = 8;
+    private static final int MARK_AT = 12;
+    private static final int INDEX_AT = 16;
+    private static final int CRC_AT = 24;
+    static final int HEADER_SIZE = 32;
+
+    private final SplittableRandom random;
+    private final boolean checkMark;
+    private final CRC32C crc = new CRC32C();
+
+    /**
+     * @param random the job's own random source, for write stamps
+     * @param checkMark true if every mark has its own file, so the header's mark number must
+     * match the mark reading it
+     */
+    public BlockVerifier(SplittableRandom random, boolean checkMark) {
+        this.random = random;
+        this.checkMark = checkMark;
+    }
+
+    /**
+     * Writes the stamps, header and CRC into a block about to be written.
+     * @param block a whole block, at least one header long
+     * @param markNum the mark writing it
+     * @param blockIndex position of the block in the file divided by the block size
+     */
+    public void seal(ByteBuffer block, int markNum, long blockIndex) {
+        long stamp = random.nextLong();
+        int limit = block.limit();
+        for (int sector = 0; sector + Long.BYTES <= limit; sector += DataPatternPool.SECTOR) {
+            block.putLong(sector, stamp);
+        }
+        block.putInt(MAGIC_AT, MAGIC);
+        block.putInt(MARK_AT, markNum);
+        block.putLong(INDEX_AT, blockIndex);
+        block.putInt(CRC_AT, checksum(block));
+    }
+
+    /**
+     * Checks a block that has just been read.
+     * @param block a whole block as read from the file
+     * @param markNum the mark reading it
+     * @param blockIndex position the block was read from divided by the block size
+     */
+    public Result check(ByteBuffer block, int markNum, long blockIndex) {
+        int limit = block.limit();
+        if (limit < HEADER_SIZE) {
+            return Result.MISMATCH;
+        }
+        if (block.getInt(MAGIC_AT) != MAGIC) {
+            for (int i = 0; i < HEADER_SIZE; i += Long.BYTES) {
+                if (block.getLong(i) != 0) {
+                    return Result.MISMATCH;
+                }
+            }
+            return Result.UNWRITTEN;
+        }
+        long stamp = block.getLong(0);
+        for (int sector = DataPatternPool.SECTOR; sector + Long.BYTES <= limit; sector += DataPatternPool.SECTOR) {
+            if (block.getLong(sector) != stamp) {
+                return Result.TORN;
+            }
+        }
+        if (checksum(block) != block.getInt(CRC_AT)) {
+            return Result.MISMATCH;
+        }
+        if (block.getLong(INDEX_AT) != blockIndex || (checkMark && block.getInt(MARK_AT) != markNum)) {
+            return Result.MISPLACED;
+        }
+        return Result.OK;
+    }
+
+    /**
+     * CRC32C of the whole block except the CRC field itself, leaving the buffer's position
+     * and limit as they were.
+     */
+    private int checksum(ByteBuffer block) {
+        int position = block.position();
+        int limit = block.limit();
+        crc.reset();
+        block.limit(CRC_AT).position(0);
+        crc.update(block);
+        block.limit(limit).position(CRC_AT + Integer.BYTES);
+        crc.update(block);
+        block.position(position);
+        return (int) crc.getValue();
+    }
+}
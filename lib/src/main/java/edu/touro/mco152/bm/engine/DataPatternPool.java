@@ -0,0 +1,139 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Pre-generated write payloads for one job, so the data written matches a
+ * {@link DiskRun.DataPattern} and compressing or deduplicating devices cannot inflate
+ * the numbers.
+ * <ul>
+ *     <li>ALTERNATING is the original 0xFF/0x00 block, identical for every write.</li>
+ *     <li>RANDOM blocks are incompressible and unique.</li>
+ *     <li>COMPRESSIBLE blocks have the given percent of every 4 KB sector zeroed, for a
+ *     compression ratio of about 100 / (100 - percent).</li>
+ *     <li>DEDUPABLE makes the given percent of writes exact copies of a few fixed blocks, the
+ *     rest unique random blocks.</li>
+ * </ul>
+ * Buffers come from the job's engine and are filled once. Before each unique write, one slot
+ * gets a fresh random long stamped at the start of each sector. That keeps every sector
+ * unique for dedupe, with no allocation and almost no copying. Slots are used in rotation,
+ * so a queued asynchronous write is not normally restamped before it is sent.
+ * <p>
+ * Blocks that will be sealed for verification after {@link #next()} get one slot more than the
+ * engine can have in flight, so a slot is never rewritten while a write still holds it. They
+ * also get no duplicates, since each sealed block carries its own position.
+ */
+public class DataPatternPool {
+
+    static final int SECTOR = 4096;
+    private static final int POOL_SLOTS = 8;
+    private static final int DUPLICATE_SLOTS = 4;
+    private static final long MAX_POOL_BYTES = 32L << 20;
+
+    private final DiskRun.DataPattern pattern;
+    private final int percent;
+    private final SplittableRandom random;
+    private final ByteBuffer[] slots;
+    private final ByteBuffer[] duplicates;
+    private int next;
+
+    /**
+     * @param pattern the kind of data to write
+     * @param percent compressible share of a block for COMPRESSIBLE, duplicate share of the
+     * writes for DEDUPABLE, ignored otherwise
+     * @param blockSize bytes in a block
+     * @param allocator returns a buffer the job's engine can write from, e.g. IOEngine::allocate
+     * @param random the job's own random source
+     */
+    public DataPatternPool(DiskRun.DataPattern pattern, int percent, int blockSize,
+                           IntFunction<ByteBuffer> allocator, SplittableRandom random) {
+        this(pattern, percent, blockSize, allocator, random, 0);
+    }
+
+    /**
+     * @param sealedInFlight writes the engine may still hold when the next one is sealed, or
+     * 0 if blocks are not sealed
+     */
+    public DataPatternPool(DiskRun.DataPattern pattern, int percent, int blockSize,
+                           IntFunction<ByteBuffer> allocator, SplittableRandom random, int sealedInFlight) {
+        this.pattern = pattern;
+        this.percent = Math.max(0, Math.min(100, percent));
+        this.random = random;
+        boolean sealed = sealedInFlight > 0;
+        int slotCount;
+        if (sealed) {
+            slotCount = Math.max(sealedInFlight + 1, pattern == DiskRun.DataPattern.ALTERNATING ? 1 : POOL_SLOTS);
+        } else if (pattern == DiskRun.DataPattern.ALTERNATING) {
+            slotCount = 1;
+        } else {
+            slotCount = (int) Math.max(1, Math.min(POOL_SLOTS, MAX_POOL_BYTES / blockSize));
+        }
+        slots = new ByteBuffer[slotCount];
+        for (int s = 0; s < slotCount; s++) {
+            slots[s] = allocator.apply(blockSize);
+            fill(slots[s]);
+        }
+        duplicates = new ByteBuffer[pattern == DiskRun.DataPattern.DEDUPABLE && !sealed ? DUPLICATE_SLOTS : 0];
+        for (int d = 0; d < duplicates.length; d++) {
+            duplicates[d] = allocator.apply(blockSize);
+            fill(duplicates[d]);
+        }
+    }
+
+    /**
+     * @return the buffer to write next, already holding its payload
+     */
+    public ByteBuffer next() {
+        if (duplicates.length > 0 && random.nextInt(100) < percent) {
+            return duplicates[random.nextInt(duplicates.length)];
+        }
+        ByteBuffer slot = slots[next];
+        next = next + 1 == slots.length ? 0 : next + 1;
+        if (pattern != DiskRun.DataPattern.ALTERNATING) {
+            stamp(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * @return bytes at the start of each sector that carry random data, the rest stay zero
+     */
+    private int randomBytesPerSector(int sectorLength) {
+        if (pattern != DiskRun.DataPattern.COMPRESSIBLE) {
+            return sectorLength;
+        }
+        return Math.max(Long.BYTES, sectorLength * (100 - percent) / 100);
+    }
+
+    private void fill(ByteBuffer buf) {
+        int limit = buf.limit();
+        if (pattern == DiskRun.DataPattern.ALTERNATING) {
+            for (int b = 0; b < limit; b += 2) {
+                buf.put(b, (byte) 0xFF);
+            }
+            return;
+        }
+        for (int sector = 0; sector < limit; sector += SECTOR) {
+            int sectorLength = Math.min(SECTOR, limit - sector);
+            int randomEnd = sector + Math.min(sectorLength, randomBytesPerSector(sectorLength));
+            int i = sector;
+            for (; i + Long.BYTES <= randomEnd; i += Long.BYTES) {
+                buf.putLong(i, random.nextLong());
+            }
+            for (; i < randomEnd; i++) {
+                buf.put(i, (byte) random.nextInt());
+            }
+        }
+    }
+
+    private void stamp(ByteBuffer buf) {
+        int limit = buf.limit();
+        for (int sector = 0; sector + Long.BYTES <= limit; sector += SECTOR) {
+            buf.putLong(sector, random.nextLong());
+        }
+    }
+}
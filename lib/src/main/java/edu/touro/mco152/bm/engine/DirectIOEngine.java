@@ -0,0 +1,88 @@
+package edu.touro.mco152.bm.engine;
+
+import com.sun.nio.file.ExtendedOpenOption;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.util.Set;
+
+/**
+ * FileChannel I/O opened with O_DIRECT so blocks bypass the operating system page cache.
+ * A write-then-read run therefore measures the device on the read pass instead of memory,
+ * with no need to flush caches or reboot between the two.
+ * <p>
+ * Direct I/O requires the buffer address, the transfer size and the file offset to all be
+ * multiples of the file store's block size. Buffers are allocated on a {@link #BUFFER_ALIGNMENT}
+ * boundary, and a block size that is not a multiple of the file store block size is rejected
+ * when the file is opened.
+ */
+public class DirectIOEngine extends FileChannelEngine {
+
+    static final int BUFFER_ALIGNMENT = 4096;
+
+    private int blockSize = 0;
+    private long alignment = 1;
+
+    /**
+     * Gets the alignment direct I/O needs for files in the given directory.
+     * @param dir directory holding the test data files
+     * @return the file store block size in bytes
+     * @throws IOException if the file store can not be queried
+     */
+    public static long getAlignment(File dir) throws IOException {
+        return Files.getFileStore(dir.toPath()).getBlockSize();
+    }
+
+    @Override
+    public ByteBuffer allocate(int blockSize) {
+        this.blockSize = blockSize;
+        // alignedSlice also trims the end to the alignment, so round up before adding the slack
+        int rounded = (blockSize + BUFFER_ALIGNMENT - 1) / BUFFER_ALIGNMENT * BUFFER_ALIGNMENT;
+        return ByteBuffer.allocateDirect(rounded + BUFFER_ALIGNMENT)
+                .alignedSlice(BUFFER_ALIGNMENT).limit(blockSize).slice();
+    }
+
+    @Override
+    public void open(File file, long length, DiskRun.IOMode mode, boolean sync) throws IOException {
+        alignment = getAlignment(file.getAbsoluteFile().getParentFile());
+        if (blockSize % alignment != 0) {
+            throw new IOException("block size " + blockSize + " is not a multiple of the "
+                    + alignment + " byte block size direct I/O needs");
+        }
+        if (alignment > BUFFER_ALIGNMENT) {
+            throw new IOException("direct I/O needs buffers aligned to " + alignment + " bytes");
+        }
+        super.open(file, length, mode, sync);
+    }
+
+    @Override
+    protected void openChannel(File file, DiskRun.IOMode mode, boolean sync) throws IOException {
+        Set<OpenOption> options = openOptions(mode, sync);
+        options.add(ExtendedOpenOption.DIRECT);
+        channel = FileChannel.open(file.toPath(), options);
+    }
+
+    @Override
+    public void write(ByteBuffer src, long position) throws IOException {
+        checkAligned(position);
+        super.write(src, position);
+    }
+
+    @Override
+    public void read(ByteBuffer dst, long position) throws IOException {
+        checkAligned(position);
+        super.read(dst, position);
+    }
+
+    private void checkAligned(long position) throws IOException {
+        if (position % alignment != 0) {
+            throw new IOException("offset " + position + " is not aligned to " + alignment + " bytes");
+        }
+    }
+}
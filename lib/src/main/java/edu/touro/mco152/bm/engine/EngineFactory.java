@@ -0,0 +1,30 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.BenchmarkSettings;
+
+/**
+ * Creates the IOEngine that matches the engine type, and its options, selected for a run.
+ */
+public final class EngineFactory {
+
+    private EngineFactory() {
+    }
+
+    public static IOEngine create(BenchmarkSettings settings) {
+        switch (settings.getEngineType()) {
+            case FILE_CHANNEL:
+                return new FileChannelEngine();
+            case DIRECT:
+                return new DirectIOEngine();
+            case ASYNC_CHANNEL:
+                return new AsyncFileChannelEngine(settings.getQueueDepth());
+            case VIRTUAL_THREADS:
+                return new VirtualThreadEngine(settings.getVirtualClients(), settings.getThinkTimeMs());
+            case MEMORY_MAPPED:
+                return new MappedFileEngine();
+            case RANDOM_ACCESS_FILE:
+            default:
+                return new RandomAccessFileEngine();
+        }
+    }
+}
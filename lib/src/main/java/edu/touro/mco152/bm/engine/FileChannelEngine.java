@@ -0,0 +1,90 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Positional FileChannel I/O on a direct buffer. The JDK hands a direct buffer straight to the
+ * operating system, so no heap-to-native copy is made per block and large block sizes report
+ * what the device does rather than what the JVM copy loop does.
+ */
+public class FileChannelEngine extends AbstractIOEngine {
+
+    protected FileChannel channel = null;
+
+    @Override
+    public ByteBuffer allocate(int blockSize) {
+        return ByteBuffer.allocateDirect(blockSize);
+    }
+
+    @Override
+    public void open(File file, long length, DiskRun.IOMode mode, boolean sync) throws IOException {
+        openChannel(file, mode, sync);
+    }
+
+    protected void openChannel(File file, DiskRun.IOMode mode, boolean sync) throws IOException {
+        channel = FileChannel.open(file.toPath(), openOptions(mode, sync));
+    }
+
+    /**
+     * Builds the option set for {@link #open}. Writes use DSYNC to match RandomAccessFile's "rwd".
+     */
+    protected static Set<OpenOption> openOptions(DiskRun.IOMode mode, boolean sync) {
+        Set<OpenOption> options = new HashSet<>();
+        options.add(StandardOpenOption.READ);
+        if (mode != DiskRun.IOMode.READ) {
+            options.add(StandardOpenOption.CREATE);
+            options.add(StandardOpenOption.WRITE);
+            if (sync) {
+                options.add(StandardOpenOption.DSYNC);
+            }
+        }
+        return options;
+    }
+
+    @Override
+    public void write(ByteBuffer src, long position) throws IOException {
+        long start = System.nanoTime();
+        src.rewind();
+        while (src.hasRemaining()) {
+            channel.write(src, position + src.position());
+        }
+        listener.completed(true, position, src.limit(), System.nanoTime() - start);
+    }
+
+    @Override
+    public void read(ByteBuffer dst, long position) throws IOException {
+        long start = System.nanoTime();
+        dst.clear();
+        while (dst.hasRemaining()) {
+            if (channel.read(dst, position + dst.position()) < 0) {
+                throw new EOFException("end of file reached at " + (position + dst.position()));
+            }
+        }
+        listener.completed(false, position, dst.capacity(), System.nanoTime() - start);
+        readCheck.check(dst, position);
+    }
+
+    @Override
+    public void force(boolean metadata) throws IOException {
+        drain();
+        channel.force(metadata);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Sizes test files before a run is timed, so block allocation and the journaling that comes
+ * with it are not charged to the measured writes.
+ * <ul>
+ *     <li>SPARSE only extends each file to its length. The filesystem records the size but
+ *     allocates nothing, so the first write of every block still allocates.</li>
+ *     <li>ZEROS writes every block with zeros, from several threads at once, and forces the
+ *     files to the device, so the timed writes overwrite blocks that already exist.</li>
+ *     <li>PATTERN does the same with blocks of the run's data pattern, so data read back
+ *     later is as hard to compress or deduplicate as the data the run writes.</li>
+ * </ul>
+ * A file's length says nothing about which of its blocks are allocated: one left by a SPARSE
+ * run, or sized with setLength by an engine, has its full length and nothing behind it. So
+ * SPARSE only grows files, while ZEROS and PATTERN write every block of every file, however long the
+ * file already is. Files are written through plain FileChannels, never through the engine
+ * under test.
+ */
+public final class FilePreallocator {
+
+    private FilePreallocator() {
+    }
+
+    /**
+     * @param files the test files, created if missing
+     * @param length size every file should have, a multiple of blockSize
+     * @param blockSize size of each filling write
+     * @param how SPARSE or ZEROS, NONE does nothing
+     * @param threads how many threads share the filling writes
+     * @throws IOException the first failure of any thread
+     */
+    public static void preallocate(List<File> files, long length, int blockSize,
+                                   DiskRun.Preallocation how, int threads) throws IOException {
+        preallocate(files, length, blockSize, how, threads, null);
+    }
+
+    /**
+     * @param how SPARSE, ZEROS or PATTERN, NONE does nothing
+     * @param pattern makes the data pattern PATTERN writes, called once per thread
+     */
+    public static void preallocate(List<File> files, long length, int blockSize, DiskRun.Preallocation how,
+                                   int threads, Supplier<DataPatternPool> pattern) throws IOException {
+        switch (how) {
+            case SPARSE:
+                for (File file : files) {
+                    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                        if (raf.length() < length) {
+                            raf.setLength(length);
+                        }
+                    }
+                }
+                break;
+            case ZEROS:
+                fill(files, length, blockSize, Math.max(1, threads), () -> {
+                    ByteBuffer zeros = ByteBuffer.allocateDirect(blockSize);
+                    return () -> zeros;
+                });
+                break;
+            case PATTERN:
+                if (pattern == null) {
+                    throw new IllegalArgumentException("PATTERN preallocation needs the run's data pattern");
+                }
+                fill(files, length, blockSize, Math.max(1, threads), () -> pattern.get()::next);
+                break;
+            case NONE:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Splits each file into one stripe per thread, so a single large file fills as fast as many.
+     * @param source gives each stripe its own source of the blocks to write
+     */
+    private static void fill(List<File> files, long length, int blockSize, int threads,
+                             Supplier<Supplier<ByteBuffer>> source) throws IOException {
+        long blocks = length / blockSize;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> stripes = new ArrayList<>();
+            for (File file : files) {
+                for (int t = 0; t < threads; t++) {
+                    long first = blocks * t / threads;
+                    long last = blocks * (t + 1) / threads;
+                    if (first < last) {
+                        stripes.add(pool.submit(() -> {
+                            fillStripe(file, first * blockSize, last * blockSize, blockSize, source.get());
+                            return null;
+                        }));
+                    }
+                }
+            }
+            await(stripes);
+
+            List<Future<?>> forces = new ArrayList<>();
+            for (File file : files) {
+                forces.add(pool.submit(() -> {
+                    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                        channel.force(true);
+                    }
+                    return null;
+                }));
+            }
+            await(forces);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void fillStripe(File file, long start, long end, int blockSize,
+                                   Supplier<ByteBuffer> blocks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            for (long position = start; position < end; position += blockSize) {
+                ByteBuffer block = blocks.get();
+                block.rewind();
+                while (block.hasRemaining()) {
+                    channel.write(block, position + block.position());
+                }
+            }
+        }
+    }
+
+    private static void await(List<Future<?>> tasks) throws IOException {
+        IOException failure = null;
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted waiting for preallocation");
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException
+                            ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
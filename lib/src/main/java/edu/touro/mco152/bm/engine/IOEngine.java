@@ -0,0 +1,128 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Strategy used by the read and write receivers to move one block at a time between memory
+ * and a test data file. Every transfer is addressed by an absolute file position so an engine
+ * never has to track a file pointer, and the block buffer is allocated by the engine itself so
+ * each implementation can pick the memory (heap or native) that suits its I/O path.
+ * <p>
+ * An engine is opened once per mark, used for every block of that mark and then closed. The
+ * buffer returned by {@link #allocate(int)} is meant to be allocated once per run and reused.
+ * Engines with a queue depth above 1 may return from read and write before the transfer is
+ * done, so callers must {@link #drain()} before they stop the clock on a mark.
+ * <p>
+ * Every finished transfer is reported to the engine's {@link CompletionListener} together with
+ * its position and latency, measured from submission to completion so it stays meaningful at any queue depth.
+ * Every finished read is then handed to the engine's {@link ReadCheck}, which is how read-back
+ * verification sees the data once it has really arrived.
+ */
+public interface IOEngine extends Closeable {
+
+    /**
+     * Gets the number of block requests this engine keeps outstanding at once.
+     * @return the queue depth, 1 for engines that complete each transfer before returning
+     */
+    default int getQueueDepth() {
+        return 1;
+    }
+
+    /**
+     * Sets who is told about each finished transfer, replacing any previous listener.
+     * @param listener receives every completed block, possibly on an I/O thread
+     */
+    void setCompletionListener(CompletionListener listener);
+
+    /**
+     * Sets what inspects each block once it has been read, replacing any previous check.
+     * @param check called with the block's data after the read completes and is reported
+     */
+    void setReadCheck(ReadCheck check);
+
+    /**
+     * Allocates a block buffer suited to this engine.
+     * @param blockSize size of a block in bytes
+     * @return a buffer whose capacity is exactly blockSize
+     */
+    ByteBuffer allocate(int blockSize);
+
+    /**
+     * Opens the test file for the blocks of one mark.
+     * @param file the test data file
+     * @param length bytes the mark will span in the file (number of blocks times block size)
+     * @param mode READ opens read-only, WRITE and READ_WRITE open for both (creating the file if needed)
+     * @param sync true if every write must reach the device before it returns
+     * @throws IOException if the file can not be opened in the requested mode
+     */
+    void open(File file, long length, DiskRun.IOMode mode, boolean sync) throws IOException;
+
+    /**
+     * Writes the whole buffer to the file at the given position.
+     * @param src block to write, from position 0 to its limit
+     * @param position byte offset in the file
+     * @throws IOException on any I/O failure
+     */
+    void write(ByteBuffer src, long position) throws IOException;
+
+    /**
+     * Fills the whole buffer from the file at the given position.
+     * @param dst block to read into, up to its capacity
+     * @param position byte offset in the file
+     * @throws IOException on any I/O failure, including reaching end of file before the buffer is full
+     */
+    void read(ByteBuffer dst, long position) throws IOException;
+
+    /**
+     * Makes every write submitted so far durable, first waiting for any still outstanding.
+     * @param metadata true to also flush file metadata such as the size, as fsync does, or
+     * false to flush only the data, as fdatasync does
+     * @throws IOException if a write or the flush failed
+     */
+    void force(boolean metadata) throws IOException;
+
+    /**
+     * Waits until every transfer submitted so far has completed.
+     * @throws IOException if any outstanding transfer failed
+     */
+    default void drain() throws IOException {
+    }
+
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Told about every block transfer once it has completed.
+     */
+    @FunctionalInterface
+    interface CompletionListener {
+        CompletionListener NONE = (write, position, bytes, latencyNs) -> { };
+
+        /**
+         * @param write true for a write, false for a read
+         * @param position byte offset of the block in the file
+         * @param bytes size of the block moved
+         * @param latencyNs nanoseconds from submission to completion
+         */
+        void completed(boolean write, long position, int bytes, long latencyNs);
+    }
+
+    /**
+     * Inspects the data of every block read, outside the timing of the read itself.
+     */
+    @FunctionalInterface
+    interface ReadCheck {
+        ReadCheck NONE = (data, position) -> { };
+
+        /**
+         * @param data the block as read, from 0 to its limit, not to be kept after returning
+         * @param position byte offset the block was read from
+         */
+        void check(ByteBuffer data, long position);
+    }
+}
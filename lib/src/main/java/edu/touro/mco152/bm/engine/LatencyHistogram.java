@@ -0,0 +1,108 @@
+package edu.touro.mco152.bm.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-bucketed histogram of operation latencies in nanoseconds. Each power of two is split into
+ * 16 linear sub-buckets, so a recorded value is off by at most 1/16th (6.25%) of itself over the
+ * whole range from 1ns to hours. All buckets are allocated up front and recording is a couple of
+ * atomic increments, so it is cheap enough to run on every block from any number of threads.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values below SUB_BUCKETS get a bucket each, then 16 buckets for every exponent up to 62
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param latencyNs latency of one operation, negative values are counted as 0
+     */
+    public void record(long latencyNs) {
+        long value = Math.max(0, latencyNs);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.addAndGet(i, c);
+            }
+        }
+        count.addAndGet(other.count.get());
+        long otherMax = other.max.get();
+        long current = max.get();
+        while (otherMax > current && !max.compareAndSet(current, otherMax)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxNs() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100, e.g. 99.9
+     * @return the highest latency in the bucket holding that percentile, capped at the recorded
+     * max, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100d * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public double getValueAtPercentileMs(double percentile) {
+        return getValueAtPercentile(percentile) / 1_000_000d;
+    }
+
+    public double getMaxMs() {
+        return getMaxNs() / 1_000_000d;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,128 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped access to a test file, which is how many services actually read their data.
+ * Each mark maps the file with FileChannel.map and moves blocks by copying to or from the
+ * mapping, so reads are served by page faults and writes dirty pages in the page cache.
+ * Write marks call force() when the mark is closed so the dirty pages are written back
+ * inside the timed interval.
+ * <p>
+ * A single mapping is limited to 2GB, so the file is mapped as a series of regions and a
+ * block that straddles two regions is copied in two pieces.
+ */
+public class MappedFileEngine extends AbstractIOEngine {
+
+    static final int REGION_SIZE = 1 << 30;
+
+    private FileChannel channel = null;
+    private MappedByteBuffer[] regions = new MappedByteBuffer[0];
+    private long mappedLength = 0;
+    private boolean writing = false;
+
+    @Override
+    public ByteBuffer allocate(int blockSize) {
+        return ByteBuffer.allocateDirect(blockSize);
+    }
+
+    @Override
+    public void open(File file, long length, DiskRun.IOMode mode, boolean sync) throws IOException {
+        writing = mode != DiskRun.IOMode.READ;
+        FileChannel.MapMode mapMode;
+        if (writing) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapMode = FileChannel.MapMode.READ_WRITE;
+            mappedLength = Math.max(length, channel.size());
+        } else {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            mapMode = FileChannel.MapMode.READ_ONLY;
+            mappedLength = channel.size();
+        }
+
+        int count = (int) ((mappedLength + REGION_SIZE - 1) / REGION_SIZE);
+        regions = new MappedByteBuffer[count];
+        for (int r = 0; r < count; r++) {
+            long start = (long) r * REGION_SIZE;
+            regions[r] = channel.map(mapMode, start, Math.min(REGION_SIZE, mappedLength - start));
+        }
+    }
+
+    @Override
+    public void write(ByteBuffer src, long position) throws IOException {
+        checkBounds(position, src.limit());
+        long start = System.nanoTime();
+        int done = 0;
+        while (done < src.limit()) {
+            long at = position + done;
+            MappedByteBuffer region = regions[(int) (at / REGION_SIZE)];
+            int offset = (int) (at % REGION_SIZE);
+            int n = Math.min(src.limit() - done, region.capacity() - offset);
+            region.put(offset, src, done, n);
+            done += n;
+        }
+        listener.completed(true, position, done, System.nanoTime() - start);
+    }
+
+    @Override
+    public void read(ByteBuffer dst, long position) throws IOException {
+        checkBounds(position, dst.capacity());
+        long start = System.nanoTime();
+        dst.clear();
+        int done = 0;
+        while (done < dst.capacity()) {
+            long at = position + done;
+            MappedByteBuffer region = regions[(int) (at / REGION_SIZE)];
+            int offset = (int) (at % REGION_SIZE);
+            int n = Math.min(dst.capacity() - done, region.capacity() - offset);
+            dst.put(done, region, offset, n);
+            done += n;
+        }
+        listener.completed(false, position, done, System.nanoTime() - start);
+        readCheck.check(dst, position);
+    }
+
+    private void checkBounds(long position, int size) throws EOFException {
+        if (position + size > mappedLength) {
+            throw new EOFException("block at " + position + " lies beyond the mapped length " + mappedLength);
+        }
+    }
+
+    /**
+     * Writes back the dirty pages of every region, plus the file's metadata if asked.
+     */
+    @Override
+    public void force(boolean metadata) throws IOException {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+        if (metadata) {
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writing) {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+        }
+        // the mappings themselves are released when the buffers are collected
+        regions = new MappedByteBuffer[0];
+        mappedLength = 0;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.BenchmarkSettings;
+import edu.touro.mco152.bm.jfr.BlockEvent;
+import edu.touro.mco152.bm.jfr.MarkEvent;
+import edu.touro.mco152.bm.jfr.RunEvent;
+import edu.touro.mco152.bm.jfr.SyncEvent;
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs the block transfers of one mark, shared by the read and write receivers.
+ * <p>
+ * With a single job the blocks are transferred on the calling thread, exactly as the
+ * receivers always did. With numJobs above 1 the mark's file is split into that many
+ * contiguous stripes and each stripe is transferred by its own thread through its own
+ * IOEngine and buffer, so one thread is no longer the limit on aggregate throughput. The
+ * mark only ends once every job has finished, so its bandwidth is all bytes moved by all
+ * jobs over the wall time of the mark. If a job fails or the run is cancelled, the other
+ * jobs stop at their next block.
+ * <p>
+ * Each job visits its stripe in the order given by its own {@link OffsetGenerator}, built
+ * once for the run's block sequence and restarted at every mark.
+ * <p>
+ * With a mark duration set, each job keeps cycling through its stripe until the mark's time is
+ * up instead of stopping after numBlocks, so marks last the same on fast and slow devices and
+ * bandwidth is what finished within that time. Progress is then reported in step with the
+ * elapsed time, still numBlocks callbacks per mark, so the receivers' progress math holds.
+ * <p>
+ * With verification on, every block written is sealed by the job's {@link BlockVerifier}, and in
+ * READ mode every block read is checked once the engine hands it over. Mixed runs only seal,
+ * as their reads can race writes to the same block and meet prefilled blocks never sealed.
+ * <p>
+ * Writes are made durable according to the run's {@link DiskRun.SyncPolicy}: DSYNC opens the
+ * file so each write waits for the device, FORCE_EVERY_N forces data after every N blocks a
+ * job writes, and the two AT_MARK_END policies force once per job after its last block. Forces
+ * are part of the mark's wall time but are timed apart from write latency.
+ * <p>
+ * In READ_WRITE mode every block is read or written at random according to the configured
+ * read percentage, interleaved over the same file, and the returned {@link TransferStats}
+ * keep the two directions apart.
+ * <p>
+ * One MarkExecutor is created per run and reused for every mark, so engines, buffers and
+ * threads are only set up once.
+ * <p>
+ * When Java Flight Recorder is on, the run, each mark, each force and a sample of the blocks
+ * are recorded as events of the {@code edu.touro.mco152.bm.jfr} package, for example with
+ * {@code -XX:StartFlightRecording:filename=run.jfr}. Blocks are only sampled while a recording
+ * has their event enabled, so the transfers pay nothing otherwise.
+ */
+public class MarkExecutor implements Closeable {
+
+    private final BenchmarkSettings settings;
+    private final DiskRun.IOMode mode;
+    private final int readPercent;
+    private final int blockSize;
+    private final int numBlocks;
+    private final long markDurationNs;
+    private final int warmupMarks;
+    private final long warmupNs;
+    private final DiskRun.SyncPolicy syncPolicy;
+    private final int syncEveryBlocks;
+    private final IOEngine[] engines;
+    private final ByteBuffer[] buffers;
+    private final DataPatternPool[] payloads;
+    private final OffsetGenerator[] offsets;
+    private final SplittableRandom[] directions;
+    private final BlockVerifier[] verifiers;
+    private final ExecutorService pool;
+    private final RunEvent runEvent = new RunEvent();
+
+    /**
+     * @param settings the run configuration
+     * @param mode READ, WRITE or the mixed READ_WRITE workload
+     */
+    public MarkExecutor(BenchmarkSettings settings, DiskRun.IOMode mode) {
+        this.settings = settings;
+        this.mode = mode;
+        readPercent = settings.getReadPercent();
+        blockSize = settings.getBlockSizeKb() * settings.getKilobyte();
+        numBlocks = settings.getNumOfBlocks();
+        markDurationNs = settings.getMarkDurationMs() * 1_000_000L;
+        warmupMarks = settings.getWarmupMarks();
+        warmupNs = settings.getWarmupSec() * 1_000_000_000L;
+        syncPolicy = mode == DiskRun.IOMode.READ ? DiskRun.SyncPolicy.NONE : settings.getSyncPolicy();
+        syncEveryBlocks = Math.max(1, settings.getSyncEveryBlocks());
+
+        int numJobs = Math.max(1, Math.min(settings.getNumJobs(), numBlocks));
+        engines = new IOEngine[numJobs];
+        buffers = new ByteBuffer[numJobs];
+        payloads = new DataPatternPool[numJobs];
+        offsets = new OffsetGenerator[numJobs];
+        directions = new SplittableRandom[mode == DiskRun.IOMode.READ_WRITE ? numJobs : 0];
+        verifiers = new BlockVerifier[settings.isVerifyData() ? numJobs : 0];
+        SplittableRandom seeds = new SplittableRandom();
+        for (int j = 0; j < numJobs; j++) {
+            engines[j] = EngineFactory.create(settings);
+            IOEngine engine = engines[j];
+            if (mode != DiskRun.IOMode.WRITE) {
+                buffers[j] = engine.allocate(blockSize);
+            }
+            if (mode != DiskRun.IOMode.READ) {
+                payloads[j] = new DataPatternPool(settings.getDataPattern(), settings.getPatternPercent(),
+                        blockSize, engine::allocate, seeds.split(), isVerifying() ? engine.getQueueDepth() : 0);
+            }
+            if (isVerifying()) {
+                verifiers[j] = new BlockVerifier(seeds.split(), settings.isMultiFile());
+            }
+            int first = (int) ((long) numBlocks * j / numJobs);
+            int last = (int) ((long) numBlocks * (j + 1) / numJobs);
+            offsets[j] = OffsetGenerators.create(settings.getBlockSequence(), last - first, seeds.split());
+            if (directions.length > 0) {
+                directions[j] = seeds.split();
+            }
+        }
+        pool = numJobs > 1 ? Executors.newFixedThreadPool(numJobs) : null;
+
+        runEvent.begin();
+        runEvent.ioMode = mode.name();
+        runEvent.ioEngine = String.valueOf(settings.getEngineType());
+        runEvent.blockOrder = String.valueOf(settings.getBlockSequence());
+        runEvent.syncPolicy = syncPolicy.name();
+        runEvent.blockSize = blockSize;
+        runEvent.numBlocks = numBlocks;
+        runEvent.numMarks = settings.getNumOfMarks();
+        runEvent.numJobs = numJobs;
+        runEvent.queueDepth = getQueueDepth();
+        runEvent.dataDir = String.valueOf(settings.getDataDir());
+        runEvent.sweepId = settings.getSweepId();
+        runEvent.sweepCell = settings.getSweepCell();
+    }
+
+    public int getNumJobs() {
+        return engines.length;
+    }
+
+    public int getQueueDepth() {
+        return engines[0].getQueueDepth();
+    }
+
+    public boolean isVerifying() {
+        return verifiers.length > 0;
+    }
+
+    public boolean isTimed() {
+        return markDurationNs > 0;
+    }
+
+    /**
+     * Sizes or fills the run's files before anything is timed. PATTERN fills them with the
+     * run's data pattern, with a fresh pool per filling thread.
+     * @param files every file the run's marks use
+     * @param how the preallocation to apply
+     * @throws IOException the first failure of any filling thread
+     */
+    public void preallocate(List<File> files, DiskRun.Preallocation how) throws IOException {
+        FilePreallocator.preallocate(files, (long) blockSize * numBlocks, blockSize, how, getNumJobs(),
+                () -> new DataPatternPool(settings.getDataPattern(), settings.getPatternPercent(), blockSize,
+                        ByteBuffer::allocateDirect, new SplittableRandom()));
+    }
+
+    /**
+     * Runs whole marks on the run's first file until both the warmup mark count and the warmup
+     * time are reached, so the JIT, the page cache and the device have settled before the first
+     * measured mark. What they move is thrown away.
+     * @param testFile the file of the first measured mark
+     * @param markNum number of the first measured mark
+     * @param cancelled checked before every block, also ends the warmup
+     * @return number of warmup marks run
+     * @throws IOException the first failure reported by any job
+     */
+    public int warmup(File testFile, int markNum, BooleanSupplier cancelled) throws IOException {
+        int marks = 0;
+        long start = System.nanoTime();
+        while (!cancelled.getAsBoolean() && (marks < warmupMarks || System.nanoTime() - start < warmupNs)) {
+            runMark(testFile, markNum, cancelled, () -> {
+            }, true);
+            marks++;
+        }
+        return marks;
+    }
+
+    /**
+     * Transfers every block of one mark, or as many as fit in the mark duration when timed.
+     * @param testFile the file for this mark
+     * @param markNum number of the mark, recorded in sealed blocks
+     * @param cancelled checked before every block, stops the mark once it returns true
+     * @param onBlock called numBlocks times over a complete mark, possibly from a job thread
+     * @return what all jobs moved, per direction
+     * @throws IOException the first failure reported by any job
+     */
+    public TransferStats runMark(File testFile, int markNum, BooleanSupplier cancelled, Runnable onBlock) throws IOException {
+        return runMark(testFile, markNum, cancelled, onBlock, false);
+    }
+
+    private TransferStats runMark(File testFile, int markNum, BooleanSupplier cancelled, Runnable onBlock,
+                                  boolean warmup) throws IOException {
+        MarkEvent markEvent = new MarkEvent();
+        markEvent.begin();
+        long markStart = System.nanoTime();
+        TransferStats stats = new TransferStats();
+        // checked once per mark, so a recording started mid run samples from the next mark on
+        boolean sampleBlocks = new BlockEvent().isEnabled();
+        for (int j = 0; j < engines.length; j++) {
+            engines[j].setCompletionListener(sampleBlocks ? new BlockSampler(stats, markNum, j) : stats);
+            if (isVerifying() && mode == DiskRun.IOMode.READ) {
+                BlockVerifier verifier = verifiers[j];
+                engines[j].setReadCheck((data, position) -> {
+                    long start = System.nanoTime();
+                    BlockVerifier.Result result = verifier.check(data, markNum, position / blockSize);
+                    stats.verified(result, System.nanoTime() - start);
+                });
+            }
+        }
+        AtomicBoolean failed = new AtomicBoolean(false);
+        BooleanSupplier stop;
+        Runnable progress;
+        TimedProgress timedProgress = null;
+        if (isTimed()) {
+            long start = System.nanoTime();
+            long deadline = start + markDurationNs;
+            stop = () -> failed.get() || cancelled.getAsBoolean() || System.nanoTime() - deadline >= 0;
+            timedProgress = new TimedProgress(start, onBlock);
+            progress = timedProgress;
+        } else {
+            stop = () -> failed.get() || cancelled.getAsBoolean();
+            progress = onBlock;
+        }
+        if (pool == null) {
+            runStripe(0, testFile, markNum, stats, stop, progress);
+            if (timedProgress != null && !cancelled.getAsBoolean()) {
+                timedProgress.finish();
+            }
+            return commit(markEvent, markStart, markNum, warmup, stats);
+        }
+
+        List<Future<?>> jobs = new ArrayList<>();
+        for (int j = 0; j < engines.length; j++) {
+            final int job = j;
+            jobs.add(pool.submit(() -> {
+                try {
+                    runStripe(job, testFile, markNum, stats, stop, progress);
+                    return null;
+                } catch (IOException | RuntimeException e) {
+                    failed.set(true);
+                    throw e;
+                }
+            }));
+        }
+
+        IOException failure = null;
+        for (Future<?> job : jobs) {
+            try {
+                job.get();
+            } catch (InterruptedException e) {
+                failed.set(true);
+                Thread.currentThread().interrupt();
+                failure = new InterruptedIOException("interrupted waiting for jobs to finish");
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException
+                            ? (IOException) e.getCause() : new IOException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (timedProgress != null && !cancelled.getAsBoolean()) {
+            timedProgress.finish();
+        }
+        return commit(markEvent, markStart, markNum, warmup, stats);
+    }
+
+    private TransferStats commit(MarkEvent event, long markStart, int markNum, boolean warmup, TransferStats stats) {
+        if (event.shouldCommit()) {
+            long elapsedNs = Math.max(1, System.nanoTime() - markStart);
+            event.markNum = markNum;
+            event.warmup = warmup;
+            event.ioMode = mode.name();
+            event.readBytes = stats.getReadBytes();
+            event.writeBytes = stats.getWriteBytes();
+            event.readOps = stats.getReadOps();
+            event.writeOps = stats.getWriteOps();
+            event.bandwidth = (long) ((event.readBytes + event.writeBytes) * 1_000_000_000d / elapsedNs);
+            event.readP99 = stats.getReadLatency().getValueAtPercentile(99);
+            event.writeP99 = stats.getWriteLatency().getValueAtPercentile(99);
+            event.commit();
+        }
+        return stats;
+    }
+
+    /**
+     * Transfers the contiguous stripe of blocks owned by one job.
+     */
+    private void runStripe(int job, File testFile, int markNum, TransferStats stats,
+                           BooleanSupplier stop, Runnable onBlock) throws IOException {
+        IOEngine engine = engines[job];
+        ByteBuffer blockBuf = buffers[job];
+        DataPatternPool payload = payloads[job];
+        OffsetGenerator offset = offsets[job];
+        offset.reset();
+        int first = (int) ((long) numBlocks * job / engines.length);
+        int last = (int) ((long) numBlocks * (job + 1) / engines.length);
+
+        engine.open(testFile, (long) blockSize * numBlocks, mode, syncPolicy == DiskRun.SyncPolicy.DSYNC);
+        try (engine) {
+            int stripeBlocks = last - first;
+            int unsynced = 0;
+            // a timed mark wraps around its stripe until the time is up
+            for (long i = 0; (isTimed() || i < stripeBlocks) && !stop.getAsBoolean(); i++) {
+                long position = (long) (first + offset.next()) * blockSize;
+                if (isWrite(job)) {
+                    ByteBuffer out = payload.next();
+                    if (isVerifying()) {
+                        long start = System.nanoTime();
+                        verifiers[job].seal(out, markNum, position / blockSize);
+                        stats.sealed(System.nanoTime() - start);
+                    }
+                    engine.write(out, position);
+                    if (syncPolicy == DiskRun.SyncPolicy.FORCE_EVERY_N && ++unsynced == syncEveryBlocks) {
+                        force(engine, false, stats, markNum, job);
+                        unsynced = 0;
+                    }
+                } else {
+                    engine.read(blockBuf, position);
+                }
+                onBlock.run();
+            }
+            engine.drain();  // blocks still queued belong to this mark's time
+            if (syncPolicy == DiskRun.SyncPolicy.FORCE_EVERY_N && unsynced > 0
+                    || syncPolicy == DiskRun.SyncPolicy.FORCE_DATA_AT_MARK_END) {
+                force(engine, false, stats, markNum, job);
+            } else if (syncPolicy == DiskRun.SyncPolicy.FORCE_ALL_AT_MARK_END) {
+                force(engine, true, stats, markNum, job);
+            }
+        }
+    }
+
+    private void force(IOEngine engine, boolean metadata, TransferStats stats, int markNum, int job) throws IOException {
+        SyncEvent event = new SyncEvent();
+        event.begin();
+        long start = System.nanoTime();
+        engine.force(metadata);
+        stats.synced(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.markNum = markNum;
+            event.job = job;
+            event.metadata = metadata;
+            event.commit();
+        }
+    }
+
+    /**
+     * Decides the direction of the next block, drawing against the read percentage from the
+     * job's own random source when mixed, so the sequence of a job does not depend on the thread
+     * it happens to run on.
+     */
+    private boolean isWrite(int job) {
+        switch (mode) {
+            case READ:
+                return false;
+            case READ_WRITE:
+                return directions[job].nextInt(100) >= readPercent;
+            case WRITE:
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Progress callback of a timed mark, firing onBlock in step with the elapsed share of the
+     * mark duration rather than once per block.
+     */
+    private final class TimedProgress implements Runnable {
+        private final long start;
+        private final Runnable onBlock;
+        private final AtomicInteger reported = new AtomicInteger();
+
+        TimedProgress(long start, Runnable onBlock) {
+            this.start = start;
+            this.onBlock = onBlock;
+        }
+
+        @Override
+        public void run() {
+            advanceTo((int) Math.min(numBlocks, (System.nanoTime() - start) * numBlocks / markDurationNs));
+        }
+
+        /**
+         * Reports whatever the mark still owes, as a mark may finish just short of its time.
+         */
+        void finish() {
+            advanceTo(numBlocks);
+        }
+
+        private void advanceTo(int due) {
+            int current = reported.get();
+            while (current < due) {
+                if (reported.compareAndSet(current, current + 1)) {
+                    onBlock.run();
+                }
+                current = reported.get();
+            }
+        }
+    }
+
+    /**
+     * Completion listener of a job while block events are being recorded: counts every block
+     * into the mark's stats and commits an event for one in {@link BlockEvent#SAMPLE_EVERY}.
+     */
+    private static final class BlockSampler implements IOEngine.CompletionListener {
+        private final TransferStats stats;
+        private final int markNum;
+        private final int job;
+        private final AtomicInteger blocks = new AtomicInteger();
+
+        BlockSampler(TransferStats stats, int markNum, int job) {
+            this.stats = stats;
+            this.markNum = markNum;
+            this.job = job;
+        }
+
+        @Override
+        public void completed(boolean write, long position, int bytes, long latencyNs) {
+            stats.completed(write, position, bytes, latencyNs);
+            if (blocks.incrementAndGet() % BlockEvent.SAMPLE_EVERY == 0) {
+                BlockEvent event = new BlockEvent();
+                event.markNum = markNum;
+                event.job = job;
+                event.write = write;
+                event.offset = position;
+                event.size = bytes;
+                event.latency = latencyNs;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Shuts the job threads down and ends the run's flight recorder event.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        runEvent.commit();
+    }
+}
@@ -0,0 +1,20 @@
+package edu.touro.mco152.bm.engine;
+
+/**
+ * Picks the order in which one job visits the blocks of its stripe. Each job owns its own
+ * generator, so implementations keep their random state unsynchronized and are never shared
+ * between threads.
+ */
+public interface OffsetGenerator {
+
+    /**
+     * Starts a new pass over the stripe, called at the start of every mark.
+     */
+    void reset();
+
+    /**
+     * @return index of the next block to transfer, from 0 to the stripe's block count - 1.
+     * A timed mark keeps calling past one pass, so generators wrap around rather than end.
+     */
+    int next();
+}
@@ -0,0 +1,258 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.util.SplittableRandom;
+
+/**
+ * Creates the {@link OffsetGenerator} for each {@link DiskRun.BlockSequence}.
+ * <ul>
+ *     <li>SEQUENTIAL and REVERSE walk the stripe forwards or backwards.</li>
+ *     <li>RANDOM samples uniformly with replacement, so blocks may repeat or be skipped.</li>
+ *     <li>SHUFFLED visits every block exactly once per pass, in a fresh random order.</li>
+ *     <li>STRIDED jumps {@value #STRIDE} blocks at a time, starting one block further along on
+ *     every lap, so a pass still covers every block.</li>
+ *     <li>HOTSPOT sends {@value #HOT_ACCESS_PERCENT}% of accesses to a hot set of
+ *     {@value #HOT_SET_PERCENT}% of the blocks.</li>
+ *     <li>ZIPFIAN draws block ranks with a zipf distribution (skew {@value #ZIPF_THETA}, as in
+ *     YCSB), with the hot ranks scattered over the stripe.</li>
+ * </ul>
+ * Tables such as permutations and the zipf distribution are built once when the generator is
+ * created, so picking a block never allocates.
+ */
+public final class OffsetGenerators {
+
+    static final int STRIDE = 8;
+    static final int HOT_SET_PERCENT = 10;
+    static final int HOT_ACCESS_PERCENT = 90;
+    static final double ZIPF_THETA = 0.99;
+    // keeps which blocks are hot the same from mark to mark, as a cache would see it
+    private static final long LAYOUT_SEED = 0x5DEECE66DL;
+
+    private OffsetGenerators() {
+    }
+
+    /**
+     * @param sequence the block order configured for the run
+     * @param blocks number of blocks in the stripe, at least 1
+     * @param random the job's own random source
+     */
+    public static OffsetGenerator create(DiskRun.BlockSequence sequence, int blocks, SplittableRandom random) {
+        switch (sequence) {
+            case RANDOM:
+                return new Uniform(blocks, random);
+            case REVERSE:
+                return new Reverse(blocks);
+            case SHUFFLED:
+                return new Shuffled(blocks, random);
+            case STRIDED:
+                return new Strided(blocks);
+            case HOTSPOT:
+                return new Hotspot(blocks, random);
+            case ZIPFIAN:
+                return new Zipfian(blocks, random);
+            case SEQUENTIAL:
+            default:
+                return new Sequential(blocks);
+        }
+    }
+
+    /**
+     * Fisher-Yates shuffle of the whole array in place.
+     */
+    static void shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    private static final class Sequential implements OffsetGenerator {
+        private final int blocks;
+        private int next;
+
+        Sequential(int blocks) {
+            this.blocks = blocks;
+        }
+
+        @Override
+        public void reset() {
+            next = 0;
+        }
+
+        @Override
+        public int next() {
+            int block = next;
+            next = next + 1 == blocks ? 0 : next + 1;
+            return block;
+        }
+    }
+
+    private static final class Reverse implements OffsetGenerator {
+        private final int blocks;
+        private int next;
+
+        Reverse(int blocks) {
+            this.blocks = blocks;
+            reset();
+        }
+
+        @Override
+        public void reset() {
+            next = blocks - 1;
+        }
+
+        @Override
+        public int next() {
+            int block = next;
+            next = next == 0 ? blocks - 1 : next - 1;
+            return block;
+        }
+    }
+
+    private static final class Uniform implements OffsetGenerator {
+        private final int blocks;
+        private final SplittableRandom random;
+
+        Uniform(int blocks, SplittableRandom random) {
+            this.blocks = blocks;
+            this.random = random;
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public int next() {
+            return random.nextInt(blocks);
+        }
+    }
+
+    private static final class Shuffled implements OffsetGenerator {
+        private final int[] order;
+        private final SplittableRandom random;
+        private int next;
+
+        Shuffled(int blocks, SplittableRandom random) {
+            this.random = random;
+            order = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                order[i] = i;
+            }
+        }
+
+        @Override
+        public void reset() {
+            shuffle(order, random);
+            next = 0;
+        }
+
+        @Override
+        public int next() {
+            if (next == order.length) {
+                reset();
+            }
+            return order[next++];
+        }
+    }
+
+    private static final class Strided implements OffsetGenerator {
+        private final int blocks;
+        private final int stride;
+        private int lap;
+        private int next;
+
+        Strided(int blocks) {
+            this.blocks = blocks;
+            stride = Math.min(STRIDE, blocks);
+        }
+
+        @Override
+        public void reset() {
+            lap = 0;
+            next = 0;
+        }
+
+        @Override
+        public int next() {
+            int block = next;
+            next += stride;
+            if (next >= blocks) {
+                lap = lap + 1 == stride ? 0 : lap + 1;
+                next = lap;
+            }
+            return block;
+        }
+    }
+
+    private static final class Hotspot implements OffsetGenerator {
+        private final int blocks;
+        private final int hotBlocks;
+        private final SplittableRandom random;
+
+        Hotspot(int blocks, SplittableRandom random) {
+            this.blocks = blocks;
+            this.random = random;
+            hotBlocks = Math.max(1, (int) ((long) blocks * HOT_SET_PERCENT / 100));
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public int next() {
+            if (hotBlocks == blocks || random.nextInt(100) < HOT_ACCESS_PERCENT) {
+                return random.nextInt(hotBlocks);
+            }
+            return hotBlocks + random.nextInt(blocks - hotBlocks);
+        }
+    }
+
+    private static final class Zipfian implements OffsetGenerator {
+        private final double[] cumulative;
+        private final int[] rankToBlock;
+        private final SplittableRandom random;
+
+        Zipfian(int blocks, SplittableRandom random) {
+            this.random = random;
+            cumulative = new double[blocks];
+            double sum = 0;
+            for (int rank = 0; rank < blocks; rank++) {
+                sum += 1 / Math.pow(rank + 1, ZIPF_THETA);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < blocks; rank++) {
+                cumulative[rank] /= sum;
+            }
+            rankToBlock = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                rankToBlock[i] = i;
+            }
+            shuffle(rankToBlock, new SplittableRandom(LAYOUT_SEED));
+        }
+
+        @Override
+        public void reset() {
+        }
+
+        @Override
+        public int next() {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return rankToBlock[low];
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+/**
+ * The original jDiskMark I/O path: a RandomAccessFile driven by seek followed by write or
+ * readFully on a heap array. Every block is copied between the Java heap and native memory,
+ * so results include that copy cost. Kept so older runs stay comparable.
+ */
+public class RandomAccessFileEngine extends AbstractIOEngine {
+
+    private RandomAccessFile rAccFile = null;
+
+    @Override
+    public ByteBuffer allocate(int blockSize) {
+        return ByteBuffer.wrap(new byte[blockSize]);
+    }
+
+    @Override
+    public void open(File file, long length, DiskRun.IOMode mode, boolean sync) throws IOException {
+        String fileMode = "r";
+        if (mode != DiskRun.IOMode.READ) {
+            fileMode = sync ? "rwd" : "rw";
+        }
+        rAccFile = new RandomAccessFile(file, fileMode);
+    }
+
+    @Override
+    public void write(ByteBuffer src, long position) throws IOException {
+        long start = System.nanoTime();
+        rAccFile.seek(position);
+        rAccFile.write(src.array(), src.arrayOffset(), src.limit());
+        listener.completed(true, position, src.limit(), System.nanoTime() - start);
+    }
+
+    @Override
+    public void read(ByteBuffer dst, long position) throws IOException {
+        long start = System.nanoTime();
+        rAccFile.seek(position);
+        rAccFile.readFully(dst.array(), dst.arrayOffset(), dst.capacity());
+        listener.completed(false, position, dst.capacity(), System.nanoTime() - start);
+        readCheck.check(dst, position);
+    }
+
+    @Override
+    public void force(boolean metadata) throws IOException {
+        rAccFile.getChannel().force(metadata);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (rAccFile != null) {
+            rAccFile.close();
+            rAccFile = null;
+        }
+    }
+}
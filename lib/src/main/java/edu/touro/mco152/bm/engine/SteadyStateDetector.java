@@ -0,0 +1,55 @@
+package edu.touro.mco152.bm.engine;
+
+/**
+ * Decides when a run has settled, from the bandwidth of its most recent marks.
+ * <p>
+ * Keeps the last {@code window} values and reports steady state once the window is full and
+ * the coefficient of variation (standard deviation over mean) of those values falls below the
+ * threshold. A run that keeps drifting, e.g. while an SSD's write cache fills, never settles.
+ */
+public class SteadyStateDetector {
+
+    private final double[] window;
+    private final double maxCv;
+    private int count = 0;
+    private double cv = Double.NaN;
+
+    /**
+     * @param windowSize number of marks looked at, at least 2
+     * @param maxCvPercent highest coefficient of variation counted as steady, in percent
+     */
+    public SteadyStateDetector(int windowSize, double maxCvPercent) {
+        window = new double[Math.max(2, windowSize)];
+        maxCv = maxCvPercent / 100d;
+    }
+
+    /**
+     * @param value bandwidth of the mark just measured
+     * @return true if the run is steady as of this mark
+     */
+    public boolean add(double value) {
+        window[count % window.length] = value;
+        count++;
+        if (count < window.length) {
+            return false;
+        }
+        double sum = 0;
+        for (double v : window) {
+            sum += v;
+        }
+        double mean = sum / window.length;
+        double squares = 0;
+        for (double v : window) {
+            squares += (v - mean) * (v - mean);
+        }
+        cv = mean > 0 ? Math.sqrt(squares / (window.length - 1)) / mean : Double.NaN;
+        return cv < maxCv;
+    }
+
+    /**
+     * @return coefficient of variation of the last full window in percent, NaN before the window fills
+     */
+    public double getCvPercent() {
+        return cv * 100d;
+    }
+}
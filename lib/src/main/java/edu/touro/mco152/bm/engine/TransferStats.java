@@ -0,0 +1,161 @@
+package edu.touro.mco152.bm.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the block transfers of one mark, kept separately for reads and writes so a mixed
+ * workload can report each direction on its own. Safe to update from several job and I/O
+ * threads at once, as engines report completions from whichever thread saw them finish.
+ * Every latency also goes into a per-direction {@link LatencyHistogram} for tail percentiles.
+ * When verifying, the outcome of every block check and the CPU time spent on checksums are
+ * counted here too, apart from the transfer times.
+ */
+public class TransferStats implements IOEngine.CompletionListener {
+
+    private final LongAdder readOps = new LongAdder();
+    private final LongAdder readBytes = new LongAdder();
+    private final LongAdder readLatencyNs = new LongAdder();
+    private final LongAdder writeOps = new LongAdder();
+    private final LongAdder writeBytes = new LongAdder();
+    private final LongAdder writeLatencyNs = new LongAdder();
+    private final LatencyHistogram readLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final LongAdder verifiedBlocks = new LongAdder();
+    private final LongAdder unwrittenBlocks = new LongAdder();
+    private final LongAdder mismatchedBlocks = new LongAdder();
+    private final LongAdder tornBlocks = new LongAdder();
+    private final LongAdder misplacedBlocks = new LongAdder();
+    private final LongAdder checksumNs = new LongAdder();
+    private final LongAdder syncOps = new LongAdder();
+    private final LongAdder syncNs = new LongAdder();
+
+    @Override
+    public void completed(boolean write, long position, int bytes, long latencyNs) {
+        if (write) {
+            writeOps.increment();
+            writeBytes.add(bytes);
+            writeLatencyNs.add(latencyNs);
+            writeLatency.record(latencyNs);
+        } else {
+            readOps.increment();
+            readBytes.add(bytes);
+            readLatencyNs.add(latencyNs);
+            readLatency.record(latencyNs);
+        }
+    }
+
+    /**
+     * Counts the outcome of checking one block read back.
+     */
+    public void verified(BlockVerifier.Result result, long checkNs) {
+        verifiedBlocks.increment();
+        checksumNs.add(checkNs);
+        switch (result) {
+            case UNWRITTEN:
+                unwrittenBlocks.increment();
+                break;
+            case MISMATCH:
+                mismatchedBlocks.increment();
+                break;
+            case TORN:
+                tornBlocks.increment();
+                break;
+            case MISPLACED:
+                misplacedBlocks.increment();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds CPU time spent sealing blocks before they were written.
+     */
+    public void sealed(long sealNs) {
+        checksumNs.add(sealNs);
+    }
+
+    /**
+     * Counts one force of written data to the device, timed apart from the writes.
+     */
+    public void synced(long forceNs) {
+        syncOps.increment();
+        syncNs.add(forceNs);
+    }
+
+    public long getSyncOps() {
+        return syncOps.sum();
+    }
+
+    public double getSyncMs() {
+        return syncNs.sum() / 1_000_000d;
+    }
+
+    public long getVerifiedBlocks() {
+        return verifiedBlocks.sum();
+    }
+
+    public long getUnwrittenBlocks() {
+        return unwrittenBlocks.sum();
+    }
+
+    public long getMismatchedBlocks() {
+        return mismatchedBlocks.sum();
+    }
+
+    public long getTornBlocks() {
+        return tornBlocks.sum();
+    }
+
+    public long getMisplacedBlocks() {
+        return misplacedBlocks.sum();
+    }
+
+    public double getChecksumMs() {
+        return checksumNs.sum() / 1_000_000d;
+    }
+
+    public long getReadOps() {
+        return readOps.sum();
+    }
+
+    public long getReadBytes() {
+        return readBytes.sum();
+    }
+
+    public long getWriteOps() {
+        return writeOps.sum();
+    }
+
+    public long getWriteBytes() {
+        return writeBytes.sum();
+    }
+
+    public LatencyHistogram getReadLatency() {
+        return readLatency;
+    }
+
+    public LatencyHistogram getWriteLatency() {
+        return writeLatency;
+    }
+
+    public long getTotalBytes() {
+        return getReadBytes() + getWriteBytes();
+    }
+
+    /**
+     * @return mean read latency in milliseconds, 0 if nothing was read
+     */
+    public double getReadAvgLatencyMs() {
+        long ops = getReadOps();
+        return ops == 0 ? 0 : readLatencyNs.sum() / (double) ops / 1_000_000d;
+    }
+
+    /**
+     * @return mean write latency in milliseconds, 0 if nothing was written
+     */
+    public double getWriteAvgLatencyMs() {
+        long ops = getWriteOps();
+        return ops == 0 ? 0 : writeLatencyNs.sum() / (double) ops / 1_000_000d;
+    }
+}
@@ -0,0 +1,154 @@
+package edu.touro.mco152.bm.engine;
+
+import edu.touro.mco152.bm.persist.DiskRun;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Blocking positional FileChannel I/O issued from virtual threads, to model request-per-thread
+ * services with thousands of concurrent clients. Each of the configured clients does one block
+ * transfer and then thinks for the configured time before it can take the next block, so the
+ * device sees up to that many outstanding operations without the memory cost of as many
+ * platform threads.
+ * <p>
+ * Every transfer runs on its own virtual thread. A semaphore of idle clients bounds how many
+ * clients are transferring or thinking, and a client only becomes idle again once its think
+ * time is over. A second semaphore counts the transfers in flight, so {@link #drain()} waits for
+ * the transfers alone and a mark's time holds no think time. Whatever a client throws, from the
+ * transfer or the completion listener, fails the engine at its next call. All clients share one direct buffer through duplicates, since thousands of
+ * private block buffers would not fit in memory, so the content read back is not meaningful
+ * and is never handed to the read check.
+ */
+public class VirtualThreadEngine extends FileChannelEngine {
+
+    private final int clients;
+    private final Duration thinkTime;
+    private final Semaphore idleClients;
+    private final Semaphore idleTransfers;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private ExecutorService executor = null;
+
+    /**
+     * @param clients number of logical clients, each with at most one block outstanding
+     * @param thinkTimeMs pause each client takes after a transfer before it takes another
+     */
+    public VirtualThreadEngine(int clients, int thinkTimeMs) {
+        if (clients < 1) {
+            throw new IllegalArgumentException("clients must be at least 1, was " + clients);
+        }
+        this.clients = clients;
+        thinkTime = Duration.ofMillis(thinkTimeMs);
+        idleClients = new Semaphore(clients);
+        idleTransfers = new Semaphore(clients);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return clients;
+    }
+
+    @Override
+    public void open(File file, long length, DiskRun.IOMode mode, boolean sync) throws IOException {
+        super.open(file, length, mode, sync);
+        failure.set(null);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Override
+    public void write(ByteBuffer src, long position) throws IOException {
+        ByteBuffer buf = src.duplicate().rewind();
+        submit(true, position, buf.limit(), () -> {
+            while (buf.hasRemaining()) {
+                channel.write(buf, position + buf.position());
+            }
+        });
+    }
+
+    @Override
+    public void read(ByteBuffer dst, long position) throws IOException {
+        ByteBuffer buf = dst.duplicate().clear();
+        submit(false, position, buf.capacity(), () -> {
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, position + buf.position()) < 0) {
+                    throw new EOFException("end of file reached at " + (position + buf.position()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Hands a transfer to the next idle client, waiting for one if all are busy.
+     */
+    private void submit(boolean write, long position, int bytes, Transfer transfer) throws IOException {
+        checkFailure();
+        acquire(idleClients, 1);
+        acquire(idleTransfers, 1);
+        long start = System.nanoTime();
+        executor.execute(() -> {
+            try {
+                try {
+                    transfer.run();
+                    listener.completed(write, position, bytes, System.nanoTime() - start);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e instanceof IOException ? (IOException) e : new IOException(e));
+                } finally {
+                    idleTransfers.release();
+                }
+                if (!thinkTime.isZero()) {
+                    Thread.sleep(thinkTime);
+                }
+            } catch (InterruptedException e) {
+                // the engine is closing, so the client stops thinking
+            } finally {
+                idleClients.release();
+            }
+        });
+    }
+
+    @Override
+    public void drain() throws IOException {
+        acquire(idleTransfers, clients);
+        idleTransfers.release(clients);
+        checkFailure();
+    }
+
+    private static void acquire(Semaphore semaphore, int permits) throws InterruptedIOException {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for a client");
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.close();
+            executor = null;
+        }
+        super.close();
+    }
+
+    @FunctionalInterface
+    private interface Transfer {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,47 @@
+package edu.touro.mco152.bm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for a single block transfer. Blocks are far too many to record each
+ * one, so only one in {@link #SAMPLE_EVERY} of every job's blocks is committed, and nothing
+ * is counted at all while no recording has the event enabled.
+ */
+@Name("edu.touro.mco152.bm.Block")
+@Label("Benchmark Block")
+@Category("Disk Benchmark")
+@Description("A sampled block read or write")
+@StackTrace(false)
+public class BlockEvent extends Event {
+
+    public static final int SAMPLE_EVERY = 64;
+
+    @Label("Mark Number")
+    public int markNum;
+
+    @Label("Job")
+    public int job;
+
+    @Label("Write")
+    public boolean write;
+
+    @Label("Offset")
+    @DataAmount
+    public long offset;
+
+    @Label("Size")
+    @DataAmount
+    public int size;
+
+    @Label("Latency")
+    @Description("From submission to completion of the transfer")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+}
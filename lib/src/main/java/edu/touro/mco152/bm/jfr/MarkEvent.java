@@ -0,0 +1,61 @@
+package edu.touro.mco152.bm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event spanning the block transfers of one mark, with what the mark moved,
+ * so a throughput dip can be lined up with GC, safepoints and thread states in one recording.
+ * A mixed mark is one event with both directions.
+ */
+@Name("edu.touro.mco152.bm.Mark")
+@Label("Benchmark Mark")
+@Category("Disk Benchmark")
+@Description("The block transfers of one mark")
+@StackTrace(false)
+public class MarkEvent extends Event {
+
+    @Label("Mark Number")
+    public int markNum;
+
+    @Label("Warmup")
+    @Description("Warmup marks are left out of the results")
+    public boolean warmup;
+
+    @Label("IO Mode")
+    public String ioMode;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long readBytes;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long writeBytes;
+
+    @Label("Reads")
+    public long readOps;
+
+    @Label("Writes")
+    public long writeOps;
+
+    @Label("Bandwidth")
+    @DataAmount
+    @Frequency
+    public long bandwidth;
+
+    @Label("Read Latency p99")
+    @Timespan(Timespan.NANOSECONDS)
+    public long readP99;
+
+    @Label("Write Latency p99")
+    @Timespan(Timespan.NANOSECONDS)
+    public long writeP99;
+}
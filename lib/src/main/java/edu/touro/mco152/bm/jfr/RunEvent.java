@@ -0,0 +1,58 @@
+package edu.touro.mco152.bm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one benchmark run, from setting up its engines to the end of
+ * its last mark, so a recording shows which runs were going on around a GC or safepoint.
+ */
+@Name("edu.touro.mco152.bm.Run")
+@Label("Benchmark Run")
+@Category("Disk Benchmark")
+@Description("One read, write or mixed benchmark run")
+@StackTrace(false)
+public class RunEvent extends Event {
+
+    @Label("IO Mode")
+    public String ioMode;
+
+    @Label("IO Engine")
+    public String ioEngine;
+
+    @Label("Block Order")
+    public String blockOrder;
+
+    @Label("Sync Policy")
+    public String syncPolicy;
+
+    @Label("Block Size")
+    @DataAmount
+    public long blockSize;
+
+    @Label("Blocks per Mark")
+    public int numBlocks;
+
+    @Label("Marks")
+    public int numMarks;
+
+    @Label("Jobs")
+    public int numJobs;
+
+    @Label("Queue Depth")
+    public int queueDepth;
+
+    @Label("Data Directory")
+    public String dataDir;
+
+    @Label("Sweep Id")
+    public String sweepId;
+
+    @Label("Sweep Cell")
+    public String sweepCell;
+}
@@ -0,0 +1,29 @@
+package edu.touro.mco152.bm.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one force of written data to the device by a job.
+ */
+@Name("edu.touro.mco152.bm.Sync")
+@Label("Benchmark Sync")
+@Category("Disk Benchmark")
+@Description("One fsync or fdatasync of the mark's file")
+@StackTrace(false)
+public class SyncEvent extends Event {
+
+    @Label("Mark Number")
+    public int markNum;
+
+    @Label("Job")
+    public int job;
+
+    @Label("Metadata")
+    @Description("Whether file metadata was forced as well as data")
+    public boolean metadata;
+}
@@ -1,5 +1,8 @@
 package edu.touro.mco152.bm.persist;
 
+import edu.touro.mco152.bm.MarkStatistics;
+import edu.touro.mco152.bm.engine.LatencyHistogram;
+import edu.touro.mco152.bm.engine.TransferStats;
 import jakarta.persistence.*;
 import java.io.Serial;
 import java.io.Serializable;
@@ -17,7 +20,9 @@ import java.util.List;
 @Table(name = "DiskRun")
 @NamedQueries({
         @NamedQuery(name = "DiskRun.findAll",
-                query = "SELECT d FROM DiskRun d")
+                query = "SELECT d FROM DiskRun d"),
+        @NamedQuery(name = "DiskRun.findBySweep",
+                query = "SELECT d FROM DiskRun d WHERE d.sweepId = :sweepId ORDER BY d.id")
 })
 public class DiskRun implements Serializable {
 
@@ -46,9 +51,57 @@ public class DiskRun implements Serializable {
     BlockSequence blockOrder;
     @Column
     private
+    EngineType ioEngine = EngineType.RANDOM_ACCESS_FILE;
+    @Column
+    private
+    Preallocation preallocation = Preallocation.NONE;
+    @Column
+    private
+    SyncPolicy syncPolicy = SyncPolicy.NONE;
+    @Column
+    private
+    int syncEveryBlocks = 0;
+    @Column
+    private
+    double runSyncMs = 0;
+    @Column
+    private
+    DataPattern dataPattern = DataPattern.ALTERNATING;
+    @Column
+    private
+    int patternPercent = 0;
+    @Column
+    private
+    int queueDepth = 1;
+    @Column
+    private
+    int thinkTimeMs = 0;
+    @Column
+    private
+    int numJobs = 1;
+    @Column
+    private
     int numMarks = 0;
     @Column
     private
+    int markDurationMs = 0;
+    @Column
+    private
+    int warmupMarks = 0;
+    @Column
+    private
+    int steadyStateCv = 0;
+    @Column
+    private
+    int steadyAtMark = 0;
+    @Column
+    private
+    String sweepId = null;
+    @Column
+    private
+    String sweepCell = null;
+    @Column
+    private
     int numBlocks = 0;
     @Column
     private
@@ -69,6 +122,105 @@ public class DiskRun implements Serializable {
     @Column
     private
     double runAvg = 0;
+    @Column
+    private
+    double runIopsMin = -1;
+    @Column
+    private
+    double runIopsMax = -1;
+    @Column
+    private
+    double runIopsAvg = -1;
+    @Column
+    private
+    double runStdDev = -1;
+    @Column
+    private
+    double runCvPercent = -1;
+    @Column
+    private
+    double runMedian = -1;
+    @Column
+    private
+    double runP5 = -1;
+    @Column
+    private
+    double runP95 = -1;
+    @Column
+    private
+    double runCiLow = -1;
+    @Column
+    private
+    double runCiHigh = -1;
+    @Column
+    private
+    double runLatP50Ms = -1;
+    @Column
+    private
+    double runLatP99Ms = -1;
+    @Column
+    private
+    double runLatP999Ms = -1;
+    @Column
+    private
+    double runLatMaxMs = -1;
+    @Column
+    private
+    boolean verifyData = false;
+    @Column
+    private
+    long verifiedBlocks = 0;
+    @Column
+    private
+    long mismatchedBlocks = 0;
+    @Column
+    private
+    long tornBlocks = 0;
+    @Column
+    private
+    long misplacedBlocks = 0;
+    @Column
+    private
+    double checksumMs = 0;
+    @Column
+    private
+    int readPercent = 0;
+    @Column
+    private
+    double runReadAvg = -1;
+    @Column
+    private
+    double runWriteAvg = -1;
+    @Column
+    private
+    double runReadIopsAvg = -1;
+    @Column
+    private
+    double runWriteIopsAvg = -1;
+    @Column
+    private
+    double runReadLatP50Ms = -1;
+    @Column
+    private
+    double runReadLatP99Ms = -1;
+    @Column
+    private
+    double runReadLatP999Ms = -1;
+    @Column
+    private
+    double runReadLatMaxMs = -1;
+    @Column
+    private
+    double runWriteLatP50Ms = -1;
+    @Column
+    private
+    double runWriteLatP99Ms = -1;
+    @Column
+    private
+    double runWriteLatP999Ms = -1;
+    @Column
+    private
+    double runWriteLatMaxMs = -1;
     public DiskRun() {
         this.startTime = new Date();
     }
@@ -83,8 +235,32 @@ public class DiskRun implements Serializable {
      * @return a list of all the disk transaction done, stored as DiskRun objects
      */
     public static List<DiskRun> findAll() {
+        return findAll(EM.getEntityManager());
+    }
+
+    /**
+     * Gets a list of all the disk transactions done so far from the given EntityManager, locked
+     * as a benchmark may be storing a run through it at the same time
+     * @param em the shared EntityManager
+     * @return a list of all the disk transaction done, stored as DiskRun objects
+     */
+    public static List<DiskRun> findAll(EntityManager em) {
+        synchronized (em) {
+            return em.createNamedQuery("DiskRun.findAll", DiskRun.class).getResultList();
+        }
+    }
+
+    /**
+     * Gets the runs of one parameter sweep, in the order they were run
+     * @param sweepId id shared by all runs of the sweep
+     * @return the runs of the sweep, stored as DiskRun objects
+     */
+    public static List<DiskRun> findBySweep(String sweepId) {
         EntityManager em = EM.getEntityManager();
-        return em.createNamedQuery("DiskRun.findAll", DiskRun.class).getResultList();
+        synchronized (em) {
+            return em.createNamedQuery("DiskRun.findBySweep", DiskRun.class)
+                    .setParameter("sweepId", sweepId).getResultList();
+        }
     }
 
     /**
@@ -93,10 +269,12 @@ public class DiskRun implements Serializable {
      */
     public static int deleteAll() {
         EntityManager em = EM.getEntityManager();
-        em.getTransaction().begin();
-        int deletedCount = em.createQuery("DELETE FROM DiskRun").executeUpdate();
-        em.getTransaction().commit();
-        return deletedCount;
+        synchronized (em) {
+            em.getTransaction().begin();
+            int deletedCount = em.createQuery("DELETE FROM DiskRun").executeUpdate();
+            em.getTransaction().commit();
+            return deletedCount;
+        }
     }
 
     @Override
@@ -134,6 +312,198 @@ public class DiskRun implements Serializable {
         setRunAvg(avg);
     }
 
+    public String getIopsMin() {
+        return getRunIopsMin() == -1 ? "- -" : DF.format(getRunIopsMin());
+    }
+
+    public String getIopsMax() {
+        return getRunIopsMax() == -1 ? "- -" : DF.format(getRunIopsMax());
+    }
+
+    public String getIopsAvg() {
+        return getRunIopsAvg() == -1 ? "- -" : DF.format(getRunIopsAvg());
+    }
+
+    /**
+     * Copies the latency percentiles of every block operation in the run.
+     *
+     * @param latency histogram merged from all marks of the run
+     */
+    public void recordLatency(LatencyHistogram latency) {
+        setRunLatP50Ms(latency.getValueAtPercentileMs(50));
+        setRunLatP99Ms(latency.getValueAtPercentileMs(99));
+        setRunLatP999Ms(latency.getValueAtPercentileMs(99.9));
+        setRunLatMaxMs(latency.getMaxMs());
+    }
+
+    /**
+     * Copies the latency percentiles of each direction of a mixed run, so a write tail is not
+     * hidden in percentiles taken over both directions.
+     *
+     * @param read histogram of every read in the run
+     * @param write histogram of every write in the run
+     */
+    public void recordLatency(LatencyHistogram read, LatencyHistogram write) {
+        setRunReadLatP50Ms(read.getValueAtPercentileMs(50));
+        setRunReadLatP99Ms(read.getValueAtPercentileMs(99));
+        setRunReadLatP999Ms(read.getValueAtPercentileMs(99.9));
+        setRunReadLatMaxMs(read.getMaxMs());
+        setRunWriteLatP50Ms(write.getValueAtPercentileMs(50));
+        setRunWriteLatP99Ms(write.getValueAtPercentileMs(99));
+        setRunWriteLatP999Ms(write.getValueAtPercentileMs(99.9));
+        setRunWriteLatMaxMs(write.getMaxMs());
+    }
+
+    /**
+     * Keeps the spread of mark bandwidth so far, -1 where too few marks have been run.
+     */
+    public void recordStatistics(MarkStatistics stats) {
+        setRunStdDev(orNone(stats.getStdDev()));
+        setRunCvPercent(orNone(stats.getCvPercent()));
+        setRunMedian(orNone(stats.getMedian()));
+        setRunP5(orNone(stats.getP5()));
+        setRunP95(orNone(stats.getP95()));
+        setRunCiLow(orNone(stats.getMean() - stats.getCi95HalfWidth()));
+        setRunCiHigh(orNone(stats.getMean() + stats.getCi95HalfWidth()));
+    }
+
+    private static double orNone(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? -1 : value;
+    }
+
+    public String getStdDev() {
+        return getRunStdDev() == -1 ? "- -" : DF.format(getRunStdDev());
+    }
+
+    public String getCv() {
+        return getRunCvPercent() == -1 ? "- -" : DF.format(getRunCvPercent());
+    }
+
+    public String getMedian() {
+        return getRunMedian() == -1 ? "- -" : DF.format(getRunMedian());
+    }
+
+    public String getP5P95() {
+        return getRunP5() == -1 ? "- -" : DF.format(getRunP5()) + " / " + DF.format(getRunP95());
+    }
+
+    public String getCi95() {
+        return getRunCiLow() == -1 ? "- -" : DF.format(getRunCiLow()) + " - " + DF.format(getRunCiHigh());
+    }
+
+    public String getLatP50() {
+        return getRunLatP50Ms() == -1 ? "- -" : DF.format(getRunLatP50Ms());
+    }
+
+    public String getLatP99() {
+        return getRunLatP99Ms() == -1 ? "- -" : DF.format(getRunLatP99Ms());
+    }
+
+    public String getLatP999() {
+        return getRunLatP999Ms() == -1 ? "- -" : DF.format(getRunLatP999Ms());
+    }
+
+    public String getLatMax() {
+        return getRunLatMaxMs() == -1 ? "- -" : DF.format(getRunLatMaxMs());
+    }
+
+    public String getSyncDisplay() {
+        if (syncPolicy == SyncPolicy.FORCE_EVERY_N) {
+            return "FORCE_EVERY_" + syncEveryBlocks;
+        }
+        return String.valueOf(syncPolicy);
+    }
+
+    public String getDataPatternDisplay() {
+        switch (dataPattern) {
+            case COMPRESSIBLE:
+            case DEDUPABLE:
+                return dataPattern + " " + patternPercent + "%";
+            default:
+                return String.valueOf(dataPattern);
+        }
+    }
+
+    /**
+     * Adds the verification counts and checksum time of one mark to the run's totals.
+     *
+     * @param stats what one mark moved and checked
+     */
+    public void addVerification(TransferStats stats) {
+        verifiedBlocks += stats.getVerifiedBlocks();
+        mismatchedBlocks += stats.getMismatchedBlocks();
+        tornBlocks += stats.getTornBlocks();
+        misplacedBlocks += stats.getMisplacedBlocks();
+        checksumMs += stats.getChecksumMs();
+    }
+
+    public long getCorruptBlocks() {
+        return mismatchedBlocks + tornBlocks + misplacedBlocks;
+    }
+
+    public String getVerification() {
+        if (!verifyData) {
+            return "- -";
+        }
+        if (getCorruptBlocks() > 0) {
+            return "FAIL " + mismatchedBlocks + "/" + tornBlocks + "/" + misplacedBlocks;
+        }
+        return verifiedBlocks == 0 ? "sealed" : "OK " + verifiedBlocks;
+    }
+
+    public String getSteadyState() {
+        if (steadyStateCv == 0) {
+            return "off";
+        }
+        return steadyAtMark == 0 ? "not reached" : "CV<" + steadyStateCv + "% at " + steadyAtMark;
+    }
+
+    public String getSweep() {
+        return sweepId == null ? "" : sweepId + " " + sweepCell;
+    }
+
+    public String getMarkDuration() {
+        return markDurationMs == 0 ? "- -" : String.valueOf(markDurationMs);
+    }
+
+    public String getMix() {
+        return getIoMode() == IOMode.READ_WRITE ? readPercent + "/" + (100 - readPercent) : "";
+    }
+
+    public String getReadWriteAvg() {
+        return readWrite(getRunReadAvg(), getRunWriteAvg());
+    }
+
+    public String getReadWriteIopsAvg() {
+        return readWrite(getRunReadIopsAvg(), getRunWriteIopsAvg());
+    }
+
+    public String getReadWriteLatP50() {
+        return readWrite(getRunReadLatP50Ms(), getRunWriteLatP50Ms());
+    }
+
+    public String getReadWriteLatP99() {
+        return readWrite(getRunReadLatP99Ms(), getRunWriteLatP99Ms());
+    }
+
+    public String getReadWriteLatP999() {
+        return readWrite(getRunReadLatP999Ms(), getRunWriteLatP999Ms());
+    }
+
+    public String getReadWriteLatMax() {
+        return readWrite(getRunReadLatMaxMs(), getRunWriteLatMaxMs());
+    }
+
+    /**
+     * @return the read and write values of a mixed run as one "read / write" cell
+     */
+    private static String readWrite(double read, double write) {
+        if (read == -1 || write == -1) {
+            return "- -";
+        }
+        return DF.format(read) + " / " + DF.format(write);
+    }
+
     public String getDuration() {
         if (getEndTime() == null) {
             return "unknown";
@@ -179,6 +549,38 @@ public class DiskRun implements Serializable {
         this.blockOrder = blockOrder;
     }
 
+    public EngineType getIoEngine() {
+        return ioEngine;
+    }
+
+    public void setIoEngine(EngineType ioEngine) {
+        this.ioEngine = ioEngine;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getThinkTimeMs() {
+        return thinkTimeMs;
+    }
+
+    public void setThinkTimeMs(int thinkTimeMs) {
+        this.thinkTimeMs = thinkTimeMs;
+    }
+
+    public int getNumJobs() {
+        return numJobs;
+    }
+
+    public void setNumJobs(int numJobs) {
+        this.numJobs = numJobs;
+    }
+
     public int getNumMarks() {
         return numMarks;
     }
@@ -235,6 +637,346 @@ public class DiskRun implements Serializable {
         this.runAvg = runAvg;
     }
 
+    public double getRunIopsMin() {
+        return runIopsMin;
+    }
+
+    public void setRunIopsMin(double runIopsMin) {
+        this.runIopsMin = runIopsMin;
+    }
+
+    public double getRunIopsMax() {
+        return runIopsMax;
+    }
+
+    public void setRunIopsMax(double runIopsMax) {
+        this.runIopsMax = runIopsMax;
+    }
+
+    public double getRunIopsAvg() {
+        return runIopsAvg;
+    }
+
+    public void setRunIopsAvg(double runIopsAvg) {
+        this.runIopsAvg = runIopsAvg;
+    }
+
+    public double getRunStdDev() {
+        return runStdDev;
+    }
+
+    public void setRunStdDev(double runStdDev) {
+        this.runStdDev = runStdDev;
+    }
+
+    public double getRunCvPercent() {
+        return runCvPercent;
+    }
+
+    public void setRunCvPercent(double runCvPercent) {
+        this.runCvPercent = runCvPercent;
+    }
+
+    public double getRunMedian() {
+        return runMedian;
+    }
+
+    public void setRunMedian(double runMedian) {
+        this.runMedian = runMedian;
+    }
+
+    public double getRunP5() {
+        return runP5;
+    }
+
+    public void setRunP5(double runP5) {
+        this.runP5 = runP5;
+    }
+
+    public double getRunP95() {
+        return runP95;
+    }
+
+    public void setRunP95(double runP95) {
+        this.runP95 = runP95;
+    }
+
+    public double getRunCiLow() {
+        return runCiLow;
+    }
+
+    public void setRunCiLow(double runCiLow) {
+        this.runCiLow = runCiLow;
+    }
+
+    public double getRunCiHigh() {
+        return runCiHigh;
+    }
+
+    public void setRunCiHigh(double runCiHigh) {
+        this.runCiHigh = runCiHigh;
+    }
+
+    public double getRunLatP50Ms() {
+        return runLatP50Ms;
+    }
+
+    public void setRunLatP50Ms(double runLatP50Ms) {
+        this.runLatP50Ms = runLatP50Ms;
+    }
+
+    public double getRunLatP99Ms() {
+        return runLatP99Ms;
+    }
+
+    public void setRunLatP99Ms(double runLatP99Ms) {
+        this.runLatP99Ms = runLatP99Ms;
+    }
+
+    public double getRunLatP999Ms() {
+        return runLatP999Ms;
+    }
+
+    public void setRunLatP999Ms(double runLatP999Ms) {
+        this.runLatP999Ms = runLatP999Ms;
+    }
+
+    public double getRunLatMaxMs() {
+        return runLatMaxMs;
+    }
+
+    public void setRunLatMaxMs(double runLatMaxMs) {
+        this.runLatMaxMs = runLatMaxMs;
+    }
+
+    public Preallocation getPreallocation() {
+        return preallocation;
+    }
+
+    public void setPreallocation(Preallocation preallocation) {
+        this.preallocation = preallocation;
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    public void setSyncPolicy(SyncPolicy syncPolicy) {
+        this.syncPolicy = syncPolicy;
+    }
+
+    public int getSyncEveryBlocks() {
+        return syncEveryBlocks;
+    }
+
+    public void setSyncEveryBlocks(int syncEveryBlocks) {
+        this.syncEveryBlocks = syncEveryBlocks;
+    }
+
+    public double getRunSyncMs() {
+        return runSyncMs;
+    }
+
+    public void setRunSyncMs(double runSyncMs) {
+        this.runSyncMs = runSyncMs;
+    }
+
+    public DataPattern getDataPattern() {
+        return dataPattern;
+    }
+
+    public void setDataPattern(DataPattern dataPattern) {
+        this.dataPattern = dataPattern;
+    }
+
+    public int getPatternPercent() {
+        return patternPercent;
+    }
+
+    public void setPatternPercent(int patternPercent) {
+        this.patternPercent = patternPercent;
+    }
+
+    public int getWarmupMarks() {
+        return warmupMarks;
+    }
+
+    public void setWarmupMarks(int warmupMarks) {
+        this.warmupMarks = warmupMarks;
+    }
+
+    public int getSteadyStateCv() {
+        return steadyStateCv;
+    }
+
+    public void setSteadyStateCv(int steadyStateCv) {
+        this.steadyStateCv = steadyStateCv;
+    }
+
+    public int getSteadyAtMark() {
+        return steadyAtMark;
+    }
+
+    public void setSteadyAtMark(int steadyAtMark) {
+        this.steadyAtMark = steadyAtMark;
+    }
+
+    public String getSweepId() {
+        return sweepId;
+    }
+
+    public void setSweepId(String sweepId) {
+        this.sweepId = sweepId;
+    }
+
+    public String getSweepCell() {
+        return sweepCell;
+    }
+
+    public void setSweepCell(String sweepCell) {
+        this.sweepCell = sweepCell;
+    }
+
+    public int getMarkDurationMs() {
+        return markDurationMs;
+    }
+
+    public void setMarkDurationMs(int markDurationMs) {
+        this.markDurationMs = markDurationMs;
+    }
+
+    public boolean isVerifyData() {
+        return verifyData;
+    }
+
+    public void setVerifyData(boolean verifyData) {
+        this.verifyData = verifyData;
+    }
+
+    public long getVerifiedBlocks() {
+        return verifiedBlocks;
+    }
+
+    public long getMismatchedBlocks() {
+        return mismatchedBlocks;
+    }
+
+    public long getTornBlocks() {
+        return tornBlocks;
+    }
+
+    public long getMisplacedBlocks() {
+        return misplacedBlocks;
+    }
+
+    public double getChecksumMs() {
+        return checksumMs;
+    }
+
+    public int getReadPercent() {
+        return readPercent;
+    }
+
+    public void setReadPercent(int readPercent) {
+        this.readPercent = readPercent;
+    }
+
+    public double getRunReadAvg() {
+        return runReadAvg;
+    }
+
+    public void setRunReadAvg(double runReadAvg) {
+        this.runReadAvg = runReadAvg;
+    }
+
+    public double getRunWriteAvg() {
+        return runWriteAvg;
+    }
+
+    public void setRunWriteAvg(double runWriteAvg) {
+        this.runWriteAvg = runWriteAvg;
+    }
+
+    public double getRunReadIopsAvg() {
+        return runReadIopsAvg;
+    }
+
+    public void setRunReadIopsAvg(double runReadIopsAvg) {
+        this.runReadIopsAvg = runReadIopsAvg;
+    }
+
+    public double getRunWriteIopsAvg() {
+        return runWriteIopsAvg;
+    }
+
+    public void setRunWriteIopsAvg(double runWriteIopsAvg) {
+        this.runWriteIopsAvg = runWriteIopsAvg;
+    }
+
+    public double getRunReadLatP50Ms() {
+        return runReadLatP50Ms;
+    }
+
+    public void setRunReadLatP50Ms(double runReadLatP50Ms) {
+        this.runReadLatP50Ms = runReadLatP50Ms;
+    }
+
+    public double getRunReadLatP99Ms() {
+        return runReadLatP99Ms;
+    }
+
+    public void setRunReadLatP99Ms(double runReadLatP99Ms) {
+        this.runReadLatP99Ms = runReadLatP99Ms;
+    }
+
+    public double getRunReadLatP999Ms() {
+        return runReadLatP999Ms;
+    }
+
+    public void setRunReadLatP999Ms(double runReadLatP999Ms) {
+        this.runReadLatP999Ms = runReadLatP999Ms;
+    }
+
+    public double getRunReadLatMaxMs() {
+        return runReadLatMaxMs;
+    }
+
+    public void setRunReadLatMaxMs(double runReadLatMaxMs) {
+        this.runReadLatMaxMs = runReadLatMaxMs;
+    }
+
+    public double getRunWriteLatP50Ms() {
+        return runWriteLatP50Ms;
+    }
+
+    public void setRunWriteLatP50Ms(double runWriteLatP50Ms) {
+        this.runWriteLatP50Ms = runWriteLatP50Ms;
+    }
+
+    public double getRunWriteLatP99Ms() {
+        return runWriteLatP99Ms;
+    }
+
+    public void setRunWriteLatP99Ms(double runWriteLatP99Ms) {
+        this.runWriteLatP99Ms = runWriteLatP99Ms;
+    }
+
+    public double getRunWriteLatP999Ms() {
+        return runWriteLatP999Ms;
+    }
+
+    public void setRunWriteLatP999Ms(double runWriteLatP999Ms) {
+        this.runWriteLatP999Ms = runWriteLatP999Ms;
+    }
+
+    public double getRunWriteLatMaxMs() {
+        return runWriteLatMaxMs;
+    }
+
+    public void setRunWriteLatMaxMs(double runWriteLatMaxMs) {
+        this.runWriteLatMaxMs = runWriteLatMaxMs;
+    }
+
     public Date getEndTime() {
         return endTime;
     }
@@ -245,5 +987,13 @@ public class DiskRun implements Serializable {
 
     public enum IOMode {READ, WRITE, READ_WRITE}
 
-    public enum BlockSequence {SEQUENTIAL, RANDOM}
+    public enum BlockSequence {SEQUENTIAL, RANDOM, REVERSE, STRIDED, SHUFFLED, HOTSPOT, ZIPFIAN}
+
+    public enum Preallocation {NONE, SPARSE, ZEROS, PATTERN}
+
+    public enum SyncPolicy {NONE, FORCE_EVERY_N, FORCE_DATA_AT_MARK_END, FORCE_ALL_AT_MARK_END, DSYNC}
+
+    public enum DataPattern {ALTERNATING, RANDOM, COMPRESSIBLE, DEDUPABLE}
+
+    public enum EngineType {RANDOM_ACCESS_FILE, FILE_CHANNEL, MEMORY_MAPPED, DIRECT, ASYNC_CHANNEL, VIRTUAL_THREADS}
 }
@@ -27,29 +27,42 @@ public class EM {
      * manage changes done with persistent data from disk tests. This
      * method returns reference to the same object to all callers. A
      * new Entity Manager is only created when none already exists.
+     * An EntityManager is not thread safe, so callers that may run at the same time, such as
+     * benchmarks of several devices, synchronize on it around their transactions.
      * @return a reference to a EntityManger to help manage persistent data
      */
-    public static EntityManager getEntityManager() {
-        if (em == null) {
-            try {
-                EntityManagerFactory emf = Persistence.createEntityManagerFactory("jDiskMarkPU");
-                em = emf.createEntityManager();
-            } catch (PersistenceException jpe)
-            {
-                System.err.println("EM: FATAL Error initializing persistence: " + jpe.getMessage());
-                if (jpe.getCause() instanceof DatabaseException)
-                    System.err.println("Make sure another copy of program or DerbyDB is not already running");
-                else
-                    System.err.println("Make sure persistence.xml is accessible");
-
-                System.exit(5);
-            }
-            catch (Exception exc)
-            {
-                System.err.println("EM: FATAL Error initializing persistence: " + exc.getMessage());
+    public static synchronized EntityManager getEntityManager() {
+        try {
+            return openEntityManager();
+        } catch (PersistenceException jpe)
+        {
+            System.err.println("EM: FATAL Error initializing persistence: " + jpe.getMessage());
+            if (jpe.getCause() instanceof DatabaseException)
+                System.err.println("Make sure another copy of program or DerbyDB is not already running");
+            else
                 System.err.println("Make sure persistence.xml is accessible");
-                System.exit(5);
-            }
+
+            System.exit(5);
+        }
+        catch (Exception exc)
+        {
+            System.err.println("EM: FATAL Error initializing persistence: " + exc.getMessage());
+            System.err.println("Make sure persistence.xml is accessible");
+            System.exit(5);
+        }
+        return em;
+    }
+
+    /**
+     * Same EntityManager as {@link #getEntityManager()}, for callers that must keep running when
+     * the database can not be opened, such as the HTTP API while the GUI holds Derby.
+     * @return a reference to the shared EntityManager
+     * @throws PersistenceException if persistence can not be initialized
+     */
+    public static synchronized EntityManager openEntityManager() {
+        if (em == null) {
+            EntityManagerFactory emf = Persistence.createEntityManagerFactory("jDiskMarkPU");
+            em = emf.createEntityManager();
         }
         return em;
     }
@@ -8,6 +8,7 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
@@ -27,6 +28,7 @@ public final class Gui {
     public static SelectFrame selFrame = null;
     public static XYSeries wSeries, wAvgSeries, wMaxSeries, wMinSeries;
     public static XYSeries rSeries, rAvgSeries, rMaxSeries, rMinSeries;
+    public static XYSeries wIopsSeries, rIopsSeries;
     public static JFreeChart chart;
     public static JProgressBar progressBar = null;
     public static RunPanel runPanel = null;
@@ -69,6 +71,22 @@ public final class Gui {
         NumberAxis range = (NumberAxis) plot.getDomainAxis();
         range.setNumberFormatOverride(NumberFormat.getNumberInstance());
         chart.getTitle().setVisible(false);
+
+        // IOPS on its own axis, as small random blocks give high IOPS at low MB/s
+        wIopsSeries = new XYSeries("Write IOPS");
+        rIopsSeries = new XYSeries("Read IOPS");
+        XYSeriesCollection iopsDataset = new XYSeriesCollection();
+        iopsDataset.addSeries(wIopsSeries);
+        iopsDataset.addSeries(rIopsSeries);
+        NumberAxis iopsAxis = new NumberAxis("IOPS");
+        iopsAxis.setAutoRangeIncludesZero(false);
+        XYLineAndShapeRenderer iopsRenderer = new XYLineAndShapeRenderer(true, false);
+        iopsRenderer.setSeriesPaint(0, Color.CYAN);
+        iopsRenderer.setSeriesPaint(1, Color.MAGENTA);
+        plot.setRangeAxis(1, iopsAxis);
+        plot.setDataset(1, iopsDataset);
+        plot.mapDatasetToRangeAxis(1, 1);
+        plot.setRenderer(1, iopsRenderer);
         chartPanel = new ChartPanel(chart) {
             // Only way to set the size of chart panel
             // ref: http://www.jfree.org/phpBB2/viewtopic.php?p=75516
@@ -96,6 +114,7 @@ public final class Gui {
     public static void addWriteMark(DiskMark mark) {
         wSeries.add(mark.getMarkNum(), mark.getBwMbSec());
         wAvgSeries.add(mark.getMarkNum(), mark.getCumAvg());
+        wIopsSeries.add(mark.getMarkNum(), mark.getIops());
         if (App.showMaxMin) {
             wMaxSeries.add(mark.getMarkNum(), mark.getCumMax());
             wMinSeries.add(mark.getMarkNum(), mark.getCumMin());
@@ -107,6 +126,7 @@ public final class Gui {
     public static void addReadMark(DiskMark mark) {
         rSeries.add(mark.getMarkNum(), mark.getBwMbSec());
         rAvgSeries.add(mark.getMarkNum(), mark.getCumAvg());
+        rIopsSeries.add(mark.getMarkNum(), mark.getIops());
         if (App.showMaxMin) {
             rMaxSeries.add(mark.getMarkNum(), mark.getCumMax());
             rMinSeries.add(mark.getMarkNum(), mark.getCumMin());
@@ -124,20 +144,25 @@ public final class Gui {
         rMaxSeries.clear();
         wMinSeries.clear();
         rMinSeries.clear();
+        wIopsSeries.clear();
+        rIopsSeries.clear();
         progressBar.setValue(0);
         Gui.mainFrame.refreshReadMetrics();
         Gui.mainFrame.refreshWriteMetrics();
     }
 
     public static void updateLegend() {
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(0, App.writeTest);
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(1, App.writeTest);
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(2, App.writeTest && App.showMaxMin);
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(3, App.writeTest && App.showMaxMin);
-
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(4, App.readTest);
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(5, App.readTest);
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(6, App.readTest && App.showMaxMin);
-        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(7, App.readTest && App.showMaxMin);
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(0, App.writeTest || App.mixedTest);
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(1, App.writeTest || App.mixedTest);
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(2, (App.writeTest || App.mixedTest) && App.showMaxMin);
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(3, (App.writeTest || App.mixedTest) && App.showMaxMin);
+
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(4, App.readTest || App.mixedTest);
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(5, App.readTest || App.mixedTest);
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(6, (App.readTest || App.mixedTest) && App.showMaxMin);
+        chart.getXYPlot().getRenderer().setSeriesVisibleInLegend(7, (App.readTest || App.mixedTest) && App.showMaxMin);
+
+        chart.getXYPlot().getRenderer(1).setSeriesVisibleInLegend(0, App.writeTest || App.mixedTest);
+        chart.getXYPlot().getRenderer(1).setSeriesVisibleInLegend(1, App.readTest || App.mixedTest);
     }
 }
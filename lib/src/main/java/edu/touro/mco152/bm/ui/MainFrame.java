@@ -1,6 +1,8 @@
 package edu.touro.mco152.bm.ui;
 
 import edu.touro.mco152.bm.App;
+import edu.touro.mco152.bm.DiskMark;
+import edu.touro.mco152.bm.RunMetrics;
 import edu.touro.mco152.bm.Util;
 import edu.touro.mco152.bm.persist.DiskRun;
 import edu.touro.mco152.bm.persist.DiskRun.BlockSequence;
@@ -11,6 +13,13 @@ import javax.swing.text.DefaultCaret;
 import java.awt.*;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,6 +34,8 @@ public final class MainFrame extends javax.swing.JFrame {
 
     private static final long serialVersionUID = 1L;
     DecimalFormat df = new DecimalFormat("###.###");
+    // keeps the option sub menus built outside the form editor in step with App
+    private final List<Runnable> optionMenuRefreshers = new ArrayList<>();
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JCheckBoxMenuItem autoRemoveCheckBoxMenuItem;
     private javax.swing.JCheckBoxMenuItem autoResetCheckBoxMenuItem;
@@ -105,8 +116,105 @@ public final class MainFrame extends javax.swing.JFrame {
         caret.setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
 
         // init order combo box
-        orderComboBox.addItem(DiskRun.BlockSequence.SEQUENTIAL);
-        orderComboBox.addItem(DiskRun.BlockSequence.RANDOM);
+        for (DiskRun.BlockSequence sequence : DiskRun.BlockSequence.values()) {
+            orderComboBox.addItem(sequence);
+        }
+
+        // option sub menus that are not part of the generated form
+        addEnumOptionMenu("IO Engine", DiskRun.EngineType.values(),
+                () -> App.engineType, value -> App.engineType = value);
+        addIntOptionMenu("Queue Depth", new int[]{1, 2, 4, 8, 16, 32, 64, 128},
+                () -> App.queueDepth, value -> App.queueDepth = value);
+        addIntOptionMenu("Jobs", new int[]{1, 2, 4, 8, 16, 32},
+                () -> App.numJobs, value -> App.numJobs = value);
+        addIntOptionMenu("Virtual Clients", new int[]{16, 64, 256, 1024, 4096, 16384},
+                () -> App.virtualClients, value -> App.virtualClients = value);
+        addIntOptionMenu("Think Time (ms)", new int[]{0, 1, 5, 10, 50, 100},
+                () -> App.thinkTimeMs, value -> App.thinkTimeMs = value);
+        addIntOptionMenu("Mixed Read %", new int[]{10, 30, 50, 70, 90},
+                () -> App.readPercent, value -> App.readPercent = value);
+        addEnumOptionMenu("Sync Policy", DiskRun.SyncPolicy.values(), () -> App.syncPolicy, value -> {
+            App.syncPolicy = value;
+            App.writeSyncEnable = value == DiskRun.SyncPolicy.DSYNC;
+            writeSyncCheckBoxMenuItem.setSelected(App.writeSyncEnable);
+        });
+        addIntOptionMenu("Sync Every N Blocks", new int[]{1, 4, 16, 64, 256},
+                () -> App.syncEveryBlocks, value -> App.syncEveryBlocks = value);
+        addEnumOptionMenu("Preallocation", DiskRun.Preallocation.values(),
+                () -> App.preallocation, value -> App.preallocation = value);
+        addEnumOptionMenu("Data Pattern", DiskRun.DataPattern.values(),
+                () -> App.dataPattern, value -> App.dataPattern = value);
+        addIntOptionMenu("Pattern %", new int[]{0, 25, 50, 75, 90},
+                () -> App.patternPercent, value -> App.patternPercent = value);
+        addCheckOptionMenu("Verify Data (CRC32C)", () -> App.verifyData, value -> App.verifyData = value);
+        addIntOptionMenu("Mark Duration (ms)", new int[]{0, 250, 500, 1000, 2000, 5000},
+                () -> App.markDurationMs, value -> App.markDurationMs = value);
+        addIntOptionMenu("Run Duration (s)", new int[]{0, 10, 30, 60, 120, 300, 600},
+                () -> App.runDurationSec, value -> App.runDurationSec = value);
+        addIntOptionMenu("Warmup Marks", new int[]{0, 1, 2, 3, 5, 10},
+                () -> App.warmupMarks, value -> App.warmupMarks = value);
+        addIntOptionMenu("Warmup (s)", new int[]{0, 5, 10, 30, 60},
+                () -> App.warmupSec, value -> App.warmupSec = value);
+        addIntOptionMenu("Steady-State CV %", new int[]{0, 1, 2, 5, 10},
+                () -> App.steadyStateCv, value -> App.steadyStateCv = value);
+        addIntOptionMenu("Steady-State Window", new int[]{3, 5, 10, 20},
+                () -> App.steadyStateWindow, value -> App.steadyStateWindow = value);
+    }
+
+    /**
+     * Adds a sub menu of radio items to the Options menu, one per preset value, that applies
+     * and saves the chosen value.
+     */
+    private void addIntOptionMenu(String title, int[] values, IntSupplier current, IntConsumer apply) {
+        JMenu menu = new JMenu(title);
+        ButtonGroup group = new ButtonGroup();
+        for (int value : values) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(String.valueOf(value));
+            item.addActionListener(evt -> {
+                apply.accept(value);
+                App.saveConfig();
+            });
+            group.add(item);
+            menu.add(item);
+            optionMenuRefreshers.add(() -> item.setSelected(current.getAsInt() == value));
+        }
+        optionMenu.add(menu);
+        optionMenuRefreshers.forEach(Runnable::run);
+    }
+
+    /**
+     * Adds a check box item to the Options menu that applies and saves its state.
+     */
+    private void addCheckOptionMenu(String title, BooleanSupplier current, Consumer<Boolean> apply) {
+        JCheckBoxMenuItem item = new JCheckBoxMenuItem(title);
+        item.addActionListener(evt -> {
+            apply.accept(item.isSelected());
+            App.saveConfig();
+        });
+        optionMenu.add(item);
+        optionMenuRefreshers.add(() -> item.setSelected(current.getAsBoolean()));
+        optionMenuRefreshers.forEach(Runnable::run);
+    }
+
+    /**
+     * Adds a sub menu of radio items to the Options menu, one per enum constant, that applies
+     * and saves the chosen value.
+     */
+    private <E extends Enum<E>> void addEnumOptionMenu(String title, E[] values, Supplier<E> current, Consumer<E> apply) {
+        JMenu menu = new JMenu(title);
+        ButtonGroup group = new ButtonGroup();
+        for (E value : values) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(value.toString());
+            item.addActionListener(evt -> {
+                apply.accept(value);
+                App.saveConfig();
+            });
+            group.add(item);
+            menu.add(item);
+            optionMenuRefreshers.add(() -> item.setSelected(current.get() == value));
+        }
+        optionMenu.add(menu);
+        optionMenuRefreshers.forEach(Runnable::run);
     }
 
     public JPanel getMountPanel() {
@@ -126,9 +234,12 @@ public final class MainFrame extends javax.swing.JFrame {
         autoResetCheckBoxMenuItem.setSelected(App.autoReset);
         showMaxMinCheckBoxMenuItem.setSelected(App.showMaxMin);
         writeSyncCheckBoxMenuItem.setSelected(App.writeSyncEnable);
+        optionMenuRefreshers.forEach(Runnable::run);
 
         String modeStr = "unset";
-        if (!App.readTest && App.writeTest) {
+        if (App.mixedTest) {
+            modeStr = "mixed";
+        } else if (!App.readTest && App.writeTest) {
             modeStr = "write";
         } else if (App.readTest && !App.writeTest) {
             modeStr = "read";
@@ -284,7 +395,7 @@ public final class MainFrame extends javax.swing.JFrame {
 
         jLabel4.setText("IO Mode");
 
-        modeCombo.setModel(new javax.swing.DefaultComboBoxModel(new String[]{"write", "read", "write&read"}));
+        modeCombo.setModel(new javax.swing.DefaultComboBoxModel(new String[]{"write", "read", "write&read", "mixed"}));
         modeCombo.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 modeComboActionPerformed(evt);
@@ -712,6 +823,7 @@ public final class MainFrame extends javax.swing.JFrame {
         String modeStr = (String) modeCombo.getSelectedItem();
         App.readTest = modeStr.contains("read");
         App.writeTest = modeStr.contains("write");
+        App.mixedTest = modeStr.equals("mixed");
     }//GEN-LAST:event_modeComboActionPerformed
 
     private void jMenuItem1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem1ActionPerformed
@@ -768,6 +880,8 @@ public final class MainFrame extends javax.swing.JFrame {
 
     private void writeSyncCheckBoxMenuItemActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_writeSyncCheckBoxMenuItemActionPerformed
         App.writeSyncEnable = writeSyncCheckBoxMenuItem.getState();
+        App.syncPolicy = App.writeSyncEnable ? DiskRun.SyncPolicy.DSYNC : DiskRun.SyncPolicy.NONE;
+        optionMenuRefreshers.forEach(Runnable::run);
         App.saveConfig();
     }//GEN-LAST:event_writeSyncCheckBoxMenuItemActionPerformed
 
@@ -789,6 +903,7 @@ public final class MainFrame extends javax.swing.JFrame {
         String modeStr = (String) modeCombo.getSelectedItem();
         App.readTest = modeStr.contains("read");
         App.writeTest = modeStr.contains("write");
+        App.mixedTest = modeStr.equals("mixed");
         App.blockSequence = (DiskRun.BlockSequence) orderComboBox.getSelectedItem();
         App.numOfMarks = Integer.valueOf((String) numFilesCombo.getSelectedItem());
         App.numOfBlocks = Integer.valueOf((String) numBlocksCombo.getSelectedItem());
@@ -799,21 +914,23 @@ public final class MainFrame extends javax.swing.JFrame {
 
     public void refreshWriteMetrics() {
         String value;
-        value = App.wMin == -1 ? "- -" : df.format(App.wMin);
+        RunMetrics.Summary writes = App.metrics.getSummary(DiskMark.MarkType.WRITE);
+        value = writes.getBwMin() == -1 ? "- -" : df.format(writes.getBwMin());
         wMinLabel.setText(value);
-        value = App.wMax == -1 ? "- -" : df.format(App.wMax);
+        value = writes.getBwMax() == -1 ? "- -" : df.format(writes.getBwMax());
         wMaxLabel.setText(value);
-        value = App.wAvg == -1 ? "- -" : df.format(App.wAvg);
+        value = writes.getBwAvg() == -1 ? "- -" : df.format(writes.getBwAvg());
         wAvgLabel.setText(value);
     }
 
     public void refreshReadMetrics() {
         String value;
-        value = App.rMin == -1 ? "- -" : df.format(App.rMin);
+        RunMetrics.Summary reads = App.metrics.getSummary(DiskMark.MarkType.READ);
+        value = reads.getBwMin() == -1 ? "- -" : df.format(reads.getBwMin());
         rMinLabel.setText(value);
-        value = App.rMax == -1 ? "- -" : df.format(App.rMax);
+        value = reads.getBwMax() == -1 ? "- -" : df.format(reads.getBwMax());
         rMaxLabel.setText(value);
-        value = App.rAvg == -1 ? "- -" : df.format(App.rAvg);
+        value = reads.getBwAvg() == -1 ? "- -" : df.format(reads.getBwAvg());
         rAvgLabel.setText(value);
     }
 
@@ -57,13 +57,13 @@ public class RunPanel extends javax.swing.JPanel {
 
                 },
                 new String[]{
-                        "Disk Info", "IO Mode", "Block Order", "Marks", "Blocks", "B. Size", "Tx Size", "Start Time", "Duration", "Max (MB/s)", "Min (MB/s)", "Avg (MB/s)"
+                        "Disk Info", "IO Mode", "Mix", "Engine", "QD", "Jobs", "Think (ms)", "Block Order", "Prealloc", "Data", "Verify", "Sync", "Marks", "Mark (ms)", "Warmup", "Steady", "Blocks", "B. Size", "Tx Size", "Start Time", "Duration", "Sweep", "Max (MB/s)", "Min (MB/s)", "Avg (MB/s)", "Std Dev", "CV %", "Median (MB/s)", "p5 / p95 (MB/s)", "95% CI (MB/s)", "R / W Avg (MB/s)", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "Max Lat (ms)", "Max IOPS", "Min IOPS", "Avg IOPS", "R / W Avg IOPS", "R / W p50 (ms)", "R / W p99 (ms)", "R / W p99.9 (ms)", "R / W Max Lat (ms)"
                 }
         ) {
             @Serial
             private static final long serialVersionUID = 1L;
             boolean[] canEdit = new boolean[]{
-                    false, false, false, false, false, false, false, false, false, false, false, false
+                    false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false, false
             };
 
             public boolean isCellEditable(int rowIndex, int columnIndex) {
@@ -74,16 +74,47 @@ public class RunPanel extends javax.swing.JPanel {
         if (runTable.getColumnModel().getColumnCount() > 0) {
             runTable.getColumnModel().getColumn(0).setPreferredWidth(35);
             runTable.getColumnModel().getColumn(1).setPreferredWidth(25);
-            runTable.getColumnModel().getColumn(2).setPreferredWidth(50);
-            runTable.getColumnModel().getColumn(3).setPreferredWidth(7);
-            runTable.getColumnModel().getColumn(4).setPreferredWidth(10);
-            runTable.getColumnModel().getColumn(5).setPreferredWidth(10);
+            runTable.getColumnModel().getColumn(2).setPreferredWidth(20);
+            runTable.getColumnModel().getColumn(3).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(4).setPreferredWidth(7);
+            runTable.getColumnModel().getColumn(5).setPreferredWidth(7);
             runTable.getColumnModel().getColumn(6).setPreferredWidth(10);
-            runTable.getColumnModel().getColumn(7).setPreferredWidth(100);
-            runTable.getColumnModel().getColumn(8).setPreferredWidth(20);
-            runTable.getColumnModel().getColumn(9).setPreferredWidth(32);
-            runTable.getColumnModel().getColumn(10).setPreferredWidth(32);
-            runTable.getColumnModel().getColumn(11).setPreferredWidth(32);
+            runTable.getColumnModel().getColumn(7).setPreferredWidth(50);
+            runTable.getColumnModel().getColumn(8).setPreferredWidth(70);
+            runTable.getColumnModel().getColumn(9).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(10).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(11).setPreferredWidth(110);
+            runTable.getColumnModel().getColumn(12).setPreferredWidth(7);
+            runTable.getColumnModel().getColumn(13).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(14).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(15).setPreferredWidth(110);
+            runTable.getColumnModel().getColumn(16).setPreferredWidth(10);
+            runTable.getColumnModel().getColumn(17).setPreferredWidth(10);
+            runTable.getColumnModel().getColumn(18).setPreferredWidth(10);
+            runTable.getColumnModel().getColumn(19).setPreferredWidth(100);
+            runTable.getColumnModel().getColumn(20).setPreferredWidth(20);
+            runTable.getColumnModel().getColumn(21).setPreferredWidth(140);
+            runTable.getColumnModel().getColumn(22).setPreferredWidth(32);
+            runTable.getColumnModel().getColumn(23).setPreferredWidth(32);
+            runTable.getColumnModel().getColumn(24).setPreferredWidth(32);
+            runTable.getColumnModel().getColumn(25).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(26).setPreferredWidth(50);
+            runTable.getColumnModel().getColumn(27).setPreferredWidth(80);
+            runTable.getColumnModel().getColumn(28).setPreferredWidth(100);
+            runTable.getColumnModel().getColumn(29).setPreferredWidth(100);
+            runTable.getColumnModel().getColumn(30).setPreferredWidth(50);
+            runTable.getColumnModel().getColumn(31).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(32).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(33).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(34).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(35).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(36).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(37).setPreferredWidth(40);
+            runTable.getColumnModel().getColumn(38).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(39).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(40).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(41).setPreferredWidth(60);
+            runTable.getColumnModel().getColumn(42).setPreferredWidth(60);
         }
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(this);
@@ -111,16 +142,47 @@ public class RunPanel extends javax.swing.JPanel {
                 new Object[]{
                         run.getDiskInfo(),
                         run.getIoMode(),
+                        run.getMix(),
+                        run.getIoEngine(),
+                        run.getQueueDepth(),
+                        run.getNumJobs(),
+                        run.getThinkTimeMs(),
                         run.getBlockOrder(),
+                        run.getPreallocation(),
+                        run.getDataPatternDisplay(),
+                        run.getVerification(),
+                        run.getSyncDisplay(),
                         run.getNumMarks(),
+                        run.getMarkDuration(),
+                        run.getWarmupMarks(),
+                        run.getSteadyState(),
                         run.getNumBlocks(),
                         run.getBlockSize(),
                         run.getTxSize(),
                         run.getStartTimeString(),
                         run.getDuration(),
+                        run.getSweep(),
                         run.getMax(),
                         run.getMin(),
                         run.getAvg(),
+                        run.getStdDev(),
+                        run.getCv(),
+                        run.getMedian(),
+                        run.getP5P95(),
+                        run.getCi95(),
+                        run.getReadWriteAvg(),
+                        run.getLatP50(),
+                        run.getLatP99(),
+                        run.getLatP999(),
+                        run.getLatMax(),
+                        run.getIopsMax(),
+                        run.getIopsMin(),
+                        run.getIopsAvg(),
+                        run.getReadWriteIopsAvg(),
+                        run.getReadWriteLatP50(),
+                        run.getReadWriteLatP99(),
+                        run.getReadWriteLatP999(),
+                        run.getReadWriteLatMax(),
                 });
     }
 
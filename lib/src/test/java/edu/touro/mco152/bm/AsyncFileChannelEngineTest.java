@@ -0,0 +1,82 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.AsyncFileChannelEngine;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncFileChannelEngineTest {
+
+    private static final int BLOCK = 4096;
+
+    @TempDir
+    Path dir;
+
+    private File file() {
+        return dir.resolve("testdata.jdm").toFile();
+    }
+
+    /**
+     * CORRECT: Cardinality - up to queueDepth requests stay outstanding, the next one first
+     * reclaims the oldest, and drain completes the rest
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 16})
+    void testQueueDepthRequestsOutstanding(int queueDepth) throws IOException {
+        AsyncFileChannelEngine engine = new AsyncFileChannelEngine(queueDepth);
+        AtomicInteger completed = new AtomicInteger();
+        engine.setCompletionListener((write, position, size, latencyNs) -> completed.incrementAndGet());
+        ByteBuffer payload = engine.allocate(BLOCK);
+        engine.open(file(), (long) BLOCK * (queueDepth + 1), DiskRun.IOMode.WRITE, false);
+        try (engine) {
+            for (int b = 0; b < queueDepth; b++) {
+                engine.write(payload, (long) b * BLOCK);
+            }
+            assertEquals(0, completed.get());
+            engine.write(payload, (long) queueDepth * BLOCK);
+            assertEquals(1, completed.get());
+            engine.drain();
+            assertEquals(queueDepth + 1, completed.get());
+        }
+        assertEquals((long) BLOCK * (queueDepth + 1), file().length());
+    }
+
+    /**
+     * BICEP: Error
+     * a queue depth below 1 is refused
+     */
+    @Test
+    void testQueueDepthBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncFileChannelEngine(0));
+    }
+
+    /**
+     * BICEP: Boundary
+     * a read past the end of the file fails when its slot is completed instead of passing a
+     * short block on as read
+     */
+    @Test
+    void testReadPastEndFails() throws IOException {
+        Files.write(file().toPath(), new byte[BLOCK]);
+        AsyncFileChannelEngine engine = new AsyncFileChannelEngine(2);
+        ByteBuffer dst = engine.allocate(BLOCK);
+        engine.open(file(), BLOCK * 2L, DiskRun.IOMode.READ, false);
+        try (engine) {
+            engine.read(dst, 0);
+            engine.read(dst, BLOCK);
+            assertThrows(EOFException.class, engine::drain);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.BlockVerifier;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+public class BlockVerifierTest {
+
+    private final BlockVerifier verifier = new BlockVerifier(new SplittableRandom(3), true);
+
+    private ByteBuffer sealedBlock(long blockIndex) {
+        ByteBuffer block = ByteBuffer.allocate(16 * 1024);
+        for (int i = 0; i < block.limit(); i += 2) {
+            block.put(i, (byte) 0xFF);
+        }
+        verifier.seal(block, 4, blockIndex);
+        return block;
+    }
+
+    /**
+     * BICEP: Right
+     * a block read back exactly as written passes
+     */
+    @Test
+    void testIntactBlock() {
+        assertEquals(BlockVerifier.Result.OK, verifier.check(sealedBlock(9), 4, 9));
+    }
+
+    /**
+     * BICEP: E for Error
+     * a single flipped bit in the payload fails the CRC
+     */
+    @Test
+    void testFlippedBit() {
+        ByteBuffer block = sealedBlock(9);
+        block.put(10_000, (byte) (block.get(10_000) ^ 1));
+        assertEquals(BlockVerifier.Result.MISMATCH, verifier.check(block, 4, 9));
+    }
+
+    /**
+     * BICEP: E for Error
+     * a block whose last sector still holds an older write is torn
+     */
+    @Test
+    void testTornBlock() {
+        ByteBuffer block = sealedBlock(9);
+        ByteBuffer older = sealedBlock(9);
+        block.put(12 * 1024, older, 12 * 1024, 4 * 1024);
+        assertEquals(BlockVerifier.Result.TORN, verifier.check(block, 4, 9));
+    }
+
+    /**
+     * BICEP: E for Error
+     * an intact block read from the wrong position or mark is misplaced
+     */
+    @Test
+    void testMisplacedBlock() {
+        assertEquals(BlockVerifier.Result.MISPLACED, verifier.check(sealedBlock(9), 4, 10));
+        assertEquals(BlockVerifier.Result.MISPLACED, verifier.check(sealedBlock(9), 5, 9));
+    }
+
+    /**
+     * CORRECT: Existence
+     * a hole that was never written is told apart from a block with foreign data
+     */
+    @Test
+    void testUnsealedBlock() {
+        ByteBuffer hole = ByteBuffer.allocate(16 * 1024);
+        assertEquals(BlockVerifier.Result.UNWRITTEN, verifier.check(hole, 4, 9));
+        hole.put(3, (byte) 1);
+        assertEquals(BlockVerifier.Result.MISMATCH, verifier.check(hole, 4, 9));
+    }
+}
@@ -0,0 +1,135 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.ClusterAggregator;
+import edu.touro.mco152.bm.cli.JsonLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ClusterAggregatorTest {
+
+    private static String mark(int mark, double bw, double iops) {
+        return new JsonLine("mark").add("type", "WRITE").add("mark", mark)
+                .add("bwMbSec", bw).add("iops", iops).toString();
+    }
+
+    /**
+     * BICEP: Right
+     * a cluster mark is emitted once every agent has reported that mark, with their sum
+     */
+    @Test
+    void testClusterMark() {
+        ClusterAggregator aggregator = new ClusterAggregator(2);
+        assertTrue(aggregator.add("a", mark(1, 100, 1000)).isEmpty());
+        assertTrue(aggregator.add("a", mark(2, 120, 1200)).isEmpty());
+
+        List<JsonLine> cluster = aggregator.add("b", mark(1, 50, 500));
+        assertEquals(1, cluster.size());
+        String line = cluster.get(0).toString();
+        assertEquals("cluster", JsonLine.get(line, "event"));
+        assertEquals("1", JsonLine.get(line, "mark"));
+        assertEquals(150.0, Double.parseDouble(JsonLine.get(line, "bwMbSec")), 1e-9);
+        assertEquals(1500.0, Double.parseDouble(JsonLine.get(line, "iops")), 1e-9);
+    }
+
+    /**
+     * BICEP: Right
+     * run averages are totaled per IO mode, and the job is ok only when every agent says so
+     */
+    @Test
+    void testTotalsAndStatus() {
+        ClusterAggregator aggregator = new ClusterAggregator(2);
+        aggregator.add("a", new JsonLine("run").add("ioMode", "WRITE").add("bwAvg", 200.0).add("iopsAvg", 10.0).toString());
+        aggregator.add("b", new JsonLine("run").add("ioMode", "WRITE").add("bwAvg", 300.0).add("iopsAvg", 20.0).toString());
+        aggregator.add("a", new JsonLine("result").add("status", "ok").toString());
+        assertFalse(aggregator.isAllOk());
+        aggregator.add("b", new JsonLine("result").add("status", "ok").toString());
+        assertTrue(aggregator.isAllOk());
+
+        List<JsonLine> totals = aggregator.totals();
+        assertEquals(1, totals.size());
+        assertEquals(500.0, Double.parseDouble(JsonLine.get(totals.get(0).toString(), "bwMbSec")), 1e-9);
+        assertEquals("2", JsonLine.get(totals.get(0).toString(), "runs"));
+    }
+
+    /**
+     * CORRECT: Reference
+     * cells of a sweep run one after another, so their runs are totaled apart, per cell and IO mode
+     */
+    @Test
+    void testTotalsPerCell() {
+        ClusterAggregator aggregator = new ClusterAggregator(2);
+        for (String agent : new String[]{"a", "b"}) {
+            for (int cell = 1; cell <= 2; cell++) {
+                aggregator.add(agent, new JsonLine("cell").add("cell", cell).toString());
+                aggregator.add(agent, new JsonLine("run").add("ioMode", "WRITE")
+                        .add("bwAvg", 100.0 * cell).add("iopsAvg", 10.0).toString());
+            }
+        }
+
+        List<JsonLine> totals = aggregator.totals();
+        assertEquals(2, totals.size());
+        for (int cell = 1; cell <= 2; cell++) {
+            String line = totals.get(cell - 1).toString();
+            assertEquals(String.valueOf(cell), JsonLine.get(line, "cell"));
+            assertEquals("WRITE", JsonLine.get(line, "ioMode"));
+            assertEquals("2", JsonLine.get(line, "runs"));
+            assertEquals(200.0 * cell, Double.parseDouble(JsonLine.get(line, "bwMbSec")), 1e-9);
+        }
+    }
+
+    /**
+     * BICEP: Boundary
+     * once an agent that stopped early sends its result, the marks only it never reported are
+     * summed over the agents that did, and later marks of the others are not held back either
+     */
+    @Test
+    void testAgentStoppingEarly() {
+        ClusterAggregator aggregator = new ClusterAggregator(2);
+        aggregator.add("a", mark(1, 100, 1000));
+        aggregator.add("b", mark(1, 50, 500));
+        aggregator.add("a", mark(2, 100, 1000));
+        aggregator.add("a", mark(3, 100, 1000));
+
+        List<JsonLine> flushed = aggregator.add("b", new JsonLine("result").add("status", "ok").toString());
+        assertEquals(2, flushed.size());
+        for (JsonLine cluster : flushed) {
+            assertEquals("1", JsonLine.get(cluster.toString(), "agents"));
+            assertEquals(100.0, Double.parseDouble(JsonLine.get(cluster.toString(), "bwMbSec")), 1e-9);
+        }
+
+        List<JsonLine> later = aggregator.add("a", mark(4, 80, 800));
+        assertEquals(1, later.size());
+        assertEquals("1", JsonLine.get(later.get(0).toString(), "agents"));
+    }
+
+    /**
+     * BICEP: Error
+     * marks still waiting on an agent whose connection was lost are flushed as partial lines
+     */
+    @Test
+    void testFlushLostAgent() {
+        ClusterAggregator aggregator = new ClusterAggregator(3);
+        aggregator.add("a", mark(1, 100, 1000));
+        aggregator.add("b", mark(1, 50, 500));
+        List<JsonLine> flushed = aggregator.flush();
+        assertEquals(1, flushed.size());
+        assertEquals("2", JsonLine.get(flushed.get(0).toString(), "agents"));
+        assertEquals(150.0, Double.parseDouble(JsonLine.get(flushed.get(0).toString(), "bwMbSec")), 1e-9);
+        assertTrue(aggregator.flush().isEmpty());
+    }
+
+    /**
+     * BICEP: Error
+     * an agent that fails makes the whole job fail
+     */
+    @Test
+    void testFailedAgent() {
+        ClusterAggregator aggregator = new ClusterAggregator(2);
+        aggregator.add("a", new JsonLine("result").add("status", "ok").toString());
+        aggregator.add("b", new JsonLine("result").add("status", "failed").toString());
+        assertFalse(aggregator.isAllOk());
+    }
+}
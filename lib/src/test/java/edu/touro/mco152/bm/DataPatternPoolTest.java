@@ -0,0 +1,78 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.DataPatternPool;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.zip.Deflater;
+
+public class DataPatternPoolTest {
+
+    private static final int BLOCK = 64 * 1024;
+
+    private static DataPatternPool pool(DiskRun.DataPattern pattern, int percent) {
+        return new DataPatternPool(pattern, percent, BLOCK, ByteBuffer::allocate, new SplittableRandom(7));
+    }
+
+    private static byte[] copy(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.limit()];
+        buf.duplicate().rewind().get(bytes);
+        return bytes;
+    }
+
+    private static double compressionRatio(byte[] bytes) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(bytes);
+        deflater.finish();
+        byte[] out = new byte[bytes.length * 2];
+        int compressed = deflater.deflate(out);
+        deflater.end();
+        return (double) bytes.length / compressed;
+    }
+
+    /**
+     * BICEP: Right
+     * random payloads do not compress and no two writes are the same block
+     */
+    @Test
+    void testRandomIsIncompressibleAndUnique() {
+        DataPatternPool pool = pool(DiskRun.DataPattern.RANDOM, 0);
+        Set<ByteBuffer> seen = new HashSet<>();
+        for (int i = 0; i < 32; i++) {
+            byte[] block = copy(pool.next());
+            assertTrue(compressionRatio(block) < 1.05);
+            assertTrue(seen.add(ByteBuffer.wrap(block)), "block " + i + " repeated");
+        }
+    }
+
+    /**
+     * CORRECT: Range
+     * zeroing 75% of each sector gives roughly 4:1 compression
+     */
+    @Test
+    void testCompressibleRatio() {
+        double ratio = compressionRatio(copy(pool(DiskRun.DataPattern.COMPRESSIBLE, 75).next()));
+        assertTrue(ratio > 3 && ratio < 4.5, "ratio was " + ratio);
+    }
+
+    /**
+     * CORRECT: Range
+     * with 50% duplicates about half the writes come from only a handful of distinct blocks
+     */
+    @Test
+    void testDedupableShare() {
+        DataPatternPool pool = pool(DiskRun.DataPattern.DEDUPABLE, 50);
+        Set<ByteBuffer> distinct = new HashSet<>();
+        int writes = 1000;
+        for (int i = 0; i < writes; i++) {
+            distinct.add(ByteBuffer.wrap(copy(pool.next())));
+        }
+        assertEquals(writes / 2, writes - distinct.size(), 60);
+    }
+}
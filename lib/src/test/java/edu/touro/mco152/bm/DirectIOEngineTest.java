@@ -0,0 +1,53 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.DirectIOEngine;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+public class DirectIOEngineTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * BICEP: Boundary
+     * CORRECT: Range - buffers of any block size, whole pages or not, start on a 4 KB boundary
+     * and hold the whole block
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {512, 1024, 3000, 4096, 4096 + 512, 65536})
+    void testAllocateIsAlignedForAnySize(int blockSize) {
+        for (int i = 0; i < 16; i++) {
+            ByteBuffer buf = new DirectIOEngine().allocate(blockSize);
+            assertTrue(buf.isDirect());
+            assertEquals(0, buf.alignmentOffset(0, 4096));
+            assertEquals(blockSize, buf.limit());
+            assertEquals(blockSize, buf.capacity());
+        }
+    }
+
+    /**
+     * BICEP: Error
+     * a block size the file store can not align to is refused with an IOException when the file
+     * is opened, which the receivers report
+     */
+    @Test
+    void testUnalignedBlockSizeIsRejected() throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        long alignment = DirectIOEngine.getAlignment(dir.toFile());
+        DirectIOEngine engine = new DirectIOEngine();
+        engine.allocate((int) alignment + 1);
+        assertThrows(IOException.class, () -> engine.open(file, alignment * 4, DiskRun.IOMode.WRITE, false));
+        assertFalse(file.exists());
+    }
+}
@@ -2,6 +2,7 @@ package edu.touro.mco152.bm;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import edu.touro.mco152.bm.engine.LatencyHistogram;
 import edu.touro.mco152.bm.persist.DiskRun;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -106,4 +107,26 @@ public class DiskRunTest {
         assertEquals("- -", dr.getMin());
     }
 
+    /**
+     * BICEP: Right
+     * CORRECT: Reference - a mixed run keeps each direction's latency apart, so a slow write
+     * tail shows in the write percentiles and not in the read ones
+     * */
+    @Test
+    void testRecordLatencyPerDirection(){
+        LatencyHistogram read = new LatencyHistogram();
+        LatencyHistogram write = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            read.record(100_000);
+            write.record(i < 95 ? 100_000 : 50_000_000);
+        }
+        DiskRun dr = new DiskRun(DiskRun.IOMode.READ_WRITE, DiskRun.BlockSequence.RANDOM);
+        dr.recordLatency(read, write);
+
+        assertTrue(dr.getRunReadLatP99Ms() < 1);
+        assertTrue(dr.getRunWriteLatP99Ms() > 40);
+        assertEquals(50, dr.getRunWriteLatMaxMs(), 0.001);
+        assertEquals(-1, new DiskRun().getRunWriteLatP99Ms());
+    }
+
 }
@@ -0,0 +1,81 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.FilePreallocator;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+public class FilePreallocatorTest {
+
+    private static final int BLOCK = 4096;
+    private static final int BLOCKS = 64;
+
+    @TempDir
+    Path dir;
+
+    private static boolean allZero(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * BICEP: Right
+     * SPARSE and ZEROS both give every file its full length, whether it was missing or short
+     */
+    @Test
+    void testFilesGetTheirLength() throws IOException {
+        for (DiskRun.Preallocation how : List.of(DiskRun.Preallocation.SPARSE, DiskRun.Preallocation.ZEROS)) {
+            File missing = dir.resolve(how + "missing.jdm").toFile();
+            File shorter = dir.resolve(how + "short.jdm").toFile();
+            Files.write(shorter.toPath(), new byte[BLOCK * 3]);
+            FilePreallocator.preallocate(List.of(missing, shorter), (long) BLOCK * BLOCKS, BLOCK, how, 3);
+            assertEquals((long) BLOCK * BLOCKS, missing.length(), how + " missing file");
+            assertEquals((long) BLOCK * BLOCKS, shorter.length(), how + " short file");
+        }
+    }
+
+    /**
+     * CORRECT: Existence
+     * NONE leaves a missing file missing
+     */
+    @Test
+    void testNoneDoesNothing() throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        FilePreallocator.preallocate(List.of(file), (long) BLOCK * BLOCKS, BLOCK, DiskRun.Preallocation.NONE, 2);
+        assertFalse(file.exists());
+    }
+
+    /**
+     * BICEP: Right
+     * SPARSE never touches the blocks of a file that is long enough, while ZEROS writes every
+     * block of it, as a file of full length may still have nothing allocated behind it
+     */
+    @Test
+    void testZerosWritesFullLengthFiles() throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        byte[] old = new byte[BLOCK * BLOCKS];
+        Arrays.fill(old, (byte) 0x5A);
+        Files.write(file.toPath(), old);
+
+        FilePreallocator.preallocate(List.of(file), (long) BLOCK * BLOCKS, BLOCK, DiskRun.Preallocation.SPARSE, 4);
+        assertArrayEquals(old, Files.readAllBytes(file.toPath()));
+
+        FilePreallocator.preallocate(List.of(file), (long) BLOCK * BLOCKS, BLOCK, DiskRun.Preallocation.ZEROS, 4);
+        byte[] now = Files.readAllBytes(file.toPath());
+        assertEquals(BLOCK * BLOCKS, now.length);
+        assertTrue(allZero(now));
+    }
+}
@@ -0,0 +1,77 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.jfr.BlockEvent;
+import edu.touro.mco152.bm.persist.DiskRun;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+public class FlightRecorderEventsTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * BICEP: Right
+     * a recorded run holds one run event, one event per mark and force, and one sampled block
+     * event per SAMPLE_EVERY blocks, carrying offset, size and mark number
+     */
+    @Test
+    void testRunRecordsEvents() throws IOException {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("numOfFiles", "2");
+        p.setProperty("numOfBlocks", String.valueOf(2 * BlockEvent.SAMPLE_EVERY));
+        p.setProperty("blockSizeKb", "4");
+        p.setProperty("syncPolicy", "FORCE_DATA_AT_MARK_END");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+        File testFile = dir.resolve("testdata.jdm").toFile();
+
+        Path dump = dir.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("edu.touro.mco152.bm.Run");
+            recording.enable("edu.touro.mco152.bm.Mark");
+            recording.enable("edu.touro.mco152.bm.Sync");
+            recording.enable("edu.touro.mco152.bm.Block");
+            recording.start();
+            MarkExecutor executor = new MarkExecutor(settings, DiskRun.IOMode.WRITE);
+            executor.runMark(testFile, 1, () -> false, () -> { });
+            executor.runMark(testFile, 2, () -> false, () -> { });
+            executor.close();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertEquals(1, count(events, "Run"));
+        assertEquals(2, count(events, "Mark"));
+        assertEquals(2, count(events, "Sync"));
+        assertEquals(4, count(events, "Block"));
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("edu.touro.mco152.bm.Block")) {
+                assertTrue(event.getBoolean("write"));
+                assertEquals(4096, event.getInt("size"));
+                assertEquals(0, event.getLong("offset") % 4096);
+                assertTrue(event.getInt("markNum") == 1 || event.getInt("markNum") == 2);
+            } else if (event.getEventType().getName().equals("edu.touro.mco152.bm.Mark")) {
+                assertEquals(2L * BlockEvent.SAMPLE_EVERY * 4096, event.getLong("writeBytes"));
+            }
+        }
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals("edu.touro.mco152.bm." + name)).count();
+    }
+}
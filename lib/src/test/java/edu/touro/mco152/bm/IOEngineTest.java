@@ -0,0 +1,222 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.engine.AsyncFileChannelEngine;
+import edu.touro.mco152.bm.engine.DirectIOEngine;
+import edu.touro.mco152.bm.engine.FileChannelEngine;
+import edu.touro.mco152.bm.engine.IOEngine;
+import edu.touro.mco152.bm.engine.MappedFileEngine;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.RandomAccessFileEngine;
+import edu.touro.mco152.bm.engine.TransferStats;
+import edu.touro.mco152.bm.engine.VirtualThreadEngine;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IOEngineTest {
+
+    private static final int BLOCK = 4096;
+    private static final int BLOCKS = 32;
+
+    @TempDir
+    Path dir;
+
+    private static IOEngine engine(String type) {
+        switch (type) {
+            case "FILE_CHANNEL":
+                return new FileChannelEngine();
+            case "MEMORY_MAPPED":
+                return new MappedFileEngine();
+            case "DIRECT":
+                return new DirectIOEngine();
+            case "ASYNC_CHANNEL":
+                return new AsyncFileChannelEngine(8);
+            case "VIRTUAL_THREADS":
+                // one client, so reads into the caller's buffer never overlap
+                return new VirtualThreadEngine(1, 0);
+            default:
+                return new RandomAccessFileEngine();
+        }
+    }
+
+    /**
+     * @return the content block number n is written with, different for every block
+     */
+    private static byte[] content(int n) {
+        byte[] bytes = new byte[BLOCK];
+        new Random(n).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] copy(ByteBuffer data) {
+        byte[] bytes = new byte[data.limit()];
+        data.duplicate().rewind().get(bytes);
+        return bytes;
+    }
+
+    private static Properties profile(Path dir) {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("blockSizeKb", String.valueOf(BLOCK / 1024));
+        p.setProperty("syncPolicy", "NONE");
+        return p;
+    }
+
+    /**
+     * BICEP: Right
+     * CORRECT: Cardinality - every engine reads back exactly what it wrote at each position,
+     * written in random order, and reports one completion per block with its size and position
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"RANDOM_ACCESS_FILE", "FILE_CHANNEL", "MEMORY_MAPPED", "DIRECT", "ASYNC_CHANNEL",
+            "VIRTUAL_THREADS"})
+    void testRoundTrip(String type) throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        List<Integer> order = new ArrayList<>();
+        for (int n = 0; n < BLOCKS; n++) {
+            order.add(n);
+        }
+        Collections.shuffle(order, new Random(3));
+
+        AtomicLong writes = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        Map<Long, Boolean> positions = new ConcurrentHashMap<>();
+        IOEngine.CompletionListener counter = (write, position, size, latencyNs) -> {
+            (write ? writes : reads).incrementAndGet();
+            bytes.addAndGet(size);
+            positions.put(position, true);
+        };
+
+        IOEngine writer = engine(type);
+        writer.setCompletionListener(counter);
+        // a write's buffer may still be in flight at a queue depth above 1, so each block has its own
+        List<ByteBuffer> payloads = new ArrayList<>();
+        for (int n = 0; n < BLOCKS; n++) {
+            ByteBuffer payload = writer.allocate(BLOCK);
+            payload.clear();
+            payload.put(content(n)).flip();
+            payloads.add(payload);
+        }
+        try {
+            writer.open(file, (long) BLOCK * BLOCKS, DiskRun.IOMode.WRITE, false);
+        } catch (IOException | UnsupportedOperationException e) {
+            Assumptions.abort(type + " is not supported here: " + e.getMessage());
+        }
+        try (writer) {
+            for (int n : order) {
+                writer.write(payloads.get(n), (long) n * BLOCK);
+            }
+            writer.drain();
+        }
+        assertEquals(BLOCKS, writes.get());
+        assertEquals(BLOCKS, positions.size());
+
+        IOEngine reader = engine(type);
+        reader.setCompletionListener(counter);
+        Map<Long, byte[]> checked = new ConcurrentHashMap<>();
+        reader.setReadCheck((data, position) -> checked.put(position, copy(data)));
+        ByteBuffer dst = reader.allocate(BLOCK);
+        reader.open(file, (long) BLOCK * BLOCKS, DiskRun.IOMode.READ, false);
+        try (reader) {
+            for (int n : order) {
+                long position = (long) n * BLOCK;
+                reader.read(dst, position);
+                if (reader.getQueueDepth() == 1) {
+                    reader.drain();
+                    checked.putIfAbsent(position, copy(dst));
+                }
+            }
+            reader.drain();
+        }
+        assertEquals(BLOCKS, reads.get());
+        assertEquals(2L * BLOCKS * BLOCK, bytes.get());
+        for (int n = 0; n < BLOCKS; n++) {
+            assertArrayEquals(content(n), checked.get((long) n * BLOCK), type + " block " + n);
+        }
+    }
+
+    /**
+     * CORRECT: Reference - at a queue depth above 1, reads of a mixed mark never land in the
+     * buffers writes are made from, so every block written holds its pattern and not data read
+     * from the file before it
+     */
+    @ParameterizedTest
+    @CsvSource({"ALTERNATING, 1", "DEDUPABLE, 1", "ALTERNATING, 2", "RANDOM, 2"})
+    void testMixedReadsLeavePayloadsAlone(String pattern, int numJobs) throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        int blocks = 256;
+        byte[] filler = new byte[BLOCK * blocks];
+        Arrays.fill(filler, (byte) 0x5A);
+        Files.write(file.toPath(), filler);
+
+        Properties p = profile(dir);
+        p.setProperty("engineType", "ASYNC_CHANNEL");
+        p.setProperty("queueDepth", "16");
+        p.setProperty("numJobs", String.valueOf(numJobs));
+        p.setProperty("numOfBlocks", String.valueOf(blocks));
+        p.setProperty("readPercent", "50");
+        p.setProperty("dataPattern", pattern);
+        MarkExecutor executor = new MarkExecutor(new ProfileBenchmarkSettings(p, message -> { }),
+                DiskRun.IOMode.READ_WRITE);
+        TransferStats stats = executor.runMark(file, 1, () -> false, () -> { });
+        executor.close();
+
+        byte[] written = Files.readAllBytes(file.toPath());
+        int changed = 0;
+        for (int b = 0; b < blocks; b++) {
+            byte[] block = Arrays.copyOfRange(written, b * BLOCK, (b + 1) * BLOCK);
+            byte[] untouched = Arrays.copyOfRange(filler, 0, BLOCK);
+            if (!Arrays.equals(block, untouched)) {
+                changed++;
+            }
+        }
+        assertTrue(stats.getWriteOps() > 0 && stats.getReadOps() > 0);
+        assertEquals(stats.getWriteOps(), changed);
+    }
+
+    /**
+     * BICEP: Right
+     * CORRECT: Range - the share of reads in a mixed mark follows readPercent
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, 30, 70, 100})
+    void testMixedReadShare(int readPercent) throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        int blocks = 4000;
+        Files.write(file.toPath(), new byte[BLOCK * blocks]);
+
+        Properties p = profile(dir);
+        p.setProperty("engineType", "FILE_CHANNEL");
+        p.setProperty("numOfBlocks", String.valueOf(blocks));
+        p.setProperty("readPercent", String.valueOf(readPercent));
+        MarkExecutor executor = new MarkExecutor(new ProfileBenchmarkSettings(p, message -> { }),
+                DiskRun.IOMode.READ_WRITE);
+        TransferStats stats = executor.runMark(file, 1, () -> false, () -> { });
+        executor.close();
+
+        assertEquals(blocks, stats.getReadOps() + stats.getWriteOps());
+        assertEquals(readPercent / 100d, (double) stats.getReadOps() / blocks, 0.04);
+    }
+}
@@ -0,0 +1,84 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.HeadlessWorker;
+import edu.touro.mco152.bm.cli.JsonLine;
+import edu.touro.mco152.bm.cli.JsonLinesUI;
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.commands.MyInvoker;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class IopsTest {
+
+    private static final int MARKS = 4;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * BICEP: Cross-check
+     * a mark's IOPS is its block operations over the same time its bandwidth is taken over, so
+     * IOPS times the block size is the bandwidth, and a run's IOPS min, max and avg are those
+     * of its marks
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {4, 64})
+    void testIopsMatchesBandwidth(int blockSizeKb) throws Exception {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("readTest", "true");
+        p.setProperty("numOfFiles", String.valueOf(MARKS));
+        p.setProperty("numOfBlocks", "16");
+        p.setProperty("blockSizeKb", String.valueOf(blockSizeKb));
+        p.setProperty("syncPolicy", "NONE");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+        settings.getDataDir().mkdirs();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonLinesUI ui = new JsonLinesUI(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(new ByteArrayOutputStream()));
+        MyInvoker invoker = new MyInvoker();
+        assertTrue(new GeneralUsageBenchmarker().queueBenchmark(settings, ui,
+                new HeadlessWorker(settings, ui, new AtomicBoolean(false)), invoker));
+        invoker.runAll();
+        assertEquals(0, ui.getErrors());
+
+        List<String> marks = out.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> "mark".equals(JsonLine.get(line, "event"))).toList();
+        assertEquals(2 * MARKS, marks.size());
+        for (String mark : marks) {
+            double iops = Double.parseDouble(JsonLine.get(mark, "iops"));
+            double bwMbSec = Double.parseDouble(JsonLine.get(mark, "bwMbSec"));
+            assertTrue(iops > 0);
+            assertEquals(bwMbSec * App.MEGABYTE, iops * blockSizeKb * App.KILOBYTE, bwMbSec * App.MEGABYTE * 1e-9);
+        }
+        for (DiskRun run : ui.getRunList()) {
+            String type = run.getIoMode() == DiskRun.IOMode.WRITE ? "WRITE" : "READ";
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            double sum = 0;
+            for (String mark : marks) {
+                if (type.equals(JsonLine.get(mark, "type"))) {
+                    double iops = Double.parseDouble(JsonLine.get(mark, "iops"));
+                    min = Math.min(min, iops);
+                    max = Math.max(max, iops);
+                    sum += iops;
+                }
+            }
+            assertEquals(min, run.getRunIopsMin(), min * 1e-9);
+            assertEquals(max, run.getRunIopsMax(), max * 1e-9);
+            assertEquals(sum / MARKS, run.getRunIopsAvg(), sum / MARKS * 1e-9);
+        }
+    }
+}
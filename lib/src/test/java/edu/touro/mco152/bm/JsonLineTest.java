@@ -0,0 +1,47 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.JsonLine;
+import org.junit.jupiter.api.Test;
+
+public class JsonLineTest {
+
+    /**
+     * BICEP: Right
+     * values are written as one flat JSON object, in the order added
+     */
+    @Test
+    void testLine() {
+        String line = new JsonLine("mark").add("type", DiskMark.MarkType.READ).add("mark", 3)
+                .add("bwMbSec", 12.5).add("verified", true).toString();
+        assertEquals("{\"event\":\"mark\",\"type\":\"READ\",\"mark\":3,\"bwMbSec\":12.5,\"verified\":true}", line);
+    }
+
+    /**
+     * CORRECT: Conformance
+     * quotes, backslashes and control characters are escaped, and numbers JSON can not hold become null
+     */
+    @Test
+    void testEscapingAndNull() {
+        String line = new JsonLine("run").add("dir", "C:\\data \"x\"\n").add("cv", Double.NaN)
+                .add("median", -1.0).toString();
+        assertEquals("{\"event\":\"run\",\"dir\":\"C:\\\\data \\\"x\\\"\\n\",\"cv\":null,\"median\":null}", line);
+    }
+
+    /**
+     * BICEP: Inverse
+     * fields written by a line read back the same, including escaped strings and added labels
+     */
+    @Test
+    void testReadBack() {
+        String line = JsonLine.append(new JsonLine("mark").add("dir", "a \"b\"\n").add("mark", 12)
+                .add("cv", Double.NaN).toString(), "agent", "node1:7070");
+        assertEquals("mark", JsonLine.get(line, "event"));
+        assertEquals("a \"b\"\n", JsonLine.get(line, "dir"));
+        assertEquals("12", JsonLine.get(line, "mark"));
+        assertNull(JsonLine.get(line, "cv"));
+        assertNull(JsonLine.get(line, "missing"));
+        assertEquals("node1:7070", JsonLine.get(line, "agent"));
+    }
+}
@@ -0,0 +1,74 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    /**
+     * BICEP: Right
+     * 1000 latencies of 1..1000 microseconds should put p50 near 500us and p99 near 990us,
+     * within the histogram's 1/16th bucket error
+     */
+    @Test
+    void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int us = 1; us <= 1000; us++) {
+            h.record(us * 1000L);
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(500_000, h.getValueAtPercentile(50), 500_000 / 16.0);
+        assertEquals(990_000, h.getValueAtPercentile(99), 990_000 / 16.0);
+        assertEquals(1_000_000, h.getMaxNs());
+    }
+
+    /**
+     * BICEP: Right
+     * two stalls in 1000 operations must show up in p99.9 and max even though p99 stays fast
+     */
+    @Test
+    void testTailStall() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 998; i++) {
+            h.record(100_000);
+        }
+        h.record(50_000_000);
+        h.record(50_000_000);
+        assertTrue(h.getValueAtPercentile(99) < 200_000);
+        assertEquals(50.0, h.getValueAtPercentileMs(99.9), 50.0 / 16);
+        assertEquals(50.0, h.getMaxMs());
+    }
+
+    /**
+     * BICEP: Cross-check
+     * merging two histograms should give the same answers as recording everything in one
+     */
+    @Test
+    void testAdd() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        LatencyHistogram all = new LatencyHistogram();
+        for (long v = 1; v < 5_000_000; v = v * 3 + 7) {
+            (v % 2 == 0 ? a : b).record(v);
+            all.record(v);
+        }
+        a.add(b);
+        assertEquals(all.getCount(), a.getCount());
+        assertEquals(all.getMaxNs(), a.getMaxNs());
+        assertEquals(all.getValueAtPercentile(50), a.getValueAtPercentile(50));
+        assertEquals(all.getValueAtPercentile(99.9), a.getValueAtPercentile(99.9));
+    }
+
+    /**
+     * BICEP: B for Boundary
+     * an empty histogram reports 0 rather than failing
+     */
+    @Test
+    void testEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getValueAtPercentile(99));
+        assertEquals(0, h.getMaxNs());
+    }
+}
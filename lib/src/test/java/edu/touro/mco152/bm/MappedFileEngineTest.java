@@ -0,0 +1,71 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.MappedFileEngine;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class MappedFileEngineTest {
+
+    private static final int BLOCK = 4096;
+    private static final int BLOCKS = 8;
+
+    @TempDir
+    Path dir;
+
+    private File file() {
+        return dir.resolve("testdata.jdm").toFile();
+    }
+
+    /**
+     * BICEP: Right
+     * a write mapping covers the whole mark, so a missing file is created at full length and a
+     * block written through the mapping is on disk once the engine is closed
+     */
+    @Test
+    void testWriteMapsWholeLength() throws IOException {
+        MappedFileEngine engine = new MappedFileEngine();
+        ByteBuffer payload = engine.allocate(BLOCK);
+        byte[] content = new byte[BLOCK];
+        Arrays.fill(content, (byte) 0x3C);
+        payload.put(content).flip();
+        engine.open(file(), (long) BLOCK * BLOCKS, DiskRun.IOMode.WRITE, false);
+        try (engine) {
+            engine.write(payload, (long) (BLOCKS - 1) * BLOCK);
+        }
+
+        byte[] data = Files.readAllBytes(file().toPath());
+        assertEquals(BLOCK * BLOCKS, data.length);
+        assertArrayEquals(content, Arrays.copyOfRange(data, (BLOCKS - 1) * BLOCK, BLOCKS * BLOCK));
+        assertArrayEquals(new byte[BLOCK], Arrays.copyOfRange(data, 0, BLOCK));
+    }
+
+    /**
+     * BICEP: Boundary
+     * CORRECT: Range - a read mapping only covers the file as it is, so a block past its end is
+     * refused instead of reading what is not there, and the file does not grow
+     */
+    @Test
+    void testReadPastEndIsRejected() throws IOException {
+        Files.write(file().toPath(), new byte[BLOCK * 2]);
+        MappedFileEngine engine = new MappedFileEngine();
+        ByteBuffer dst = engine.allocate(BLOCK);
+        engine.open(file(), (long) BLOCK * BLOCKS, DiskRun.IOMode.READ, false);
+        try (engine) {
+            engine.read(dst, BLOCK);
+            assertEquals(BLOCK, dst.limit());
+            assertThrows(EOFException.class, () -> engine.read(dst, 2L * BLOCK));
+        }
+        assertEquals(BLOCK * 2, file().length());
+    }
+}
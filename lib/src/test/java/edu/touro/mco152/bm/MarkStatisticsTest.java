@@ -0,0 +1,63 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class MarkStatisticsTest {
+
+    /**
+     * BICEP: Right
+     * marks of 1..10 MB/s have a sample standard deviation of 3.03 and a 95% CI of the mean of
+     * 5.5 +/- 2.262 * 3.03 / sqrt(10)
+     */
+    @Test
+    void testStdDevAndConfidenceInterval() {
+        MarkStatistics stats = new MarkStatistics();
+        for (int bw = 1; bw <= 10; bw++) {
+            stats.add(bw);
+        }
+        assertEquals(10, stats.getN());
+        assertEquals(5.5, stats.getMean(), 1e-9);
+        assertEquals(3.0277, stats.getStdDev(), 1e-3);
+        assertEquals(55.05, stats.getCvPercent(), 0.01);
+        assertEquals(2.166, stats.getCi95HalfWidth(), 1e-3);
+    }
+
+    /**
+     * BICEP: Cross-check
+     * the streaming percentile estimates of 1000 shuffled marks should land within 1% of the
+     * exact median, p5 and p95
+     */
+    @Test
+    void testStreamingPercentiles() {
+        List<Double> marks = new ArrayList<>();
+        for (int bw = 1; bw <= 1000; bw++) {
+            marks.add((double) bw);
+        }
+        Collections.shuffle(marks, new Random(42));
+        MarkStatistics stats = new MarkStatistics();
+        marks.forEach(stats::add);
+        assertEquals(500.5, stats.getMedian(), 10);
+        assertEquals(50, stats.getP5(), 10);
+        assertEquals(950, stats.getP95(), 10);
+    }
+
+    /**
+     * BICEP: Boundary
+     * a single mark has no spread, so standard deviation and confidence interval are undefined
+     */
+    @Test
+    void testSingleMark() {
+        MarkStatistics stats = new MarkStatistics();
+        stats.add(250);
+        assertEquals(250, stats.getMean(), 1e-9);
+        assertTrue(Double.isNaN(stats.getStdDev()));
+        assertTrue(Double.isNaN(stats.getCi95HalfWidth()));
+    }
+}
@@ -0,0 +1,102 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.touro.mco152.bm.cli.JsonLinesUI;
+import edu.touro.mco152.bm.cli.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+public class MetricsRegistryTest {
+
+    private static DiskMark mark(DiskMark.MarkType type, double bwMbSec, long bytes) {
+        DiskMark mark = new DiskMark(type);
+        mark.setBwMbSec(bwMbSec);
+        mark.setIops(100);
+        mark.setLatP99Ms(2);
+        mark.setBytes(bytes);
+        return mark;
+    }
+
+    /**
+     * BICEP: Right
+     * bandwidth and latency gauges show the last mark, bytes and marks add up over all marks,
+     * and the marks still reach the UI behind the recorder
+     */
+    @Test
+    void testMarksFeedSeries() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GeneralUI ui = metrics.recorder(new JsonLinesUI(new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(new ByteArrayOutputStream())), "/mnt/a", 64);
+        ui.updateTitle("disk A");
+        ui.addWriteMark(mark(DiskMark.MarkType.WRITE, 1, 1000));
+        ui.addWriteMark(mark(DiskMark.MarkType.WRITE, 2, 500));
+
+        String labels = "{device=\"/mnt/a\",disk=\"disk A\",block_size_kb=\"64\",type=\"write\"}";
+        String text = metrics.scrape();
+        assertTrue(text.contains("jdm_bandwidth_bytes_per_second" + labels + " " + 2 * App.MEGABYTE + "\n"));
+        assertTrue(text.contains("jdm_bytes_total" + labels + " 1500\n"));
+        assertTrue(text.contains("jdm_marks_total" + labels + " 2\n"));
+        assertTrue(text.contains("jdm_latency_seconds" + labels.replace("}", ",quantile=\"0.99\"}") + " 0.002\n"));
+        assertTrue(text.contains("# TYPE jdm_bytes counter\n"));
+        assertTrue(text.endsWith("# EOF\n"));
+        assertEquals(2, out.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    /**
+     * CORRECT: Conformance
+     * errors are counted per device, and quotes and backslashes in labels are escaped
+     */
+    @Test
+    void testErrorsAndEscaping() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        GeneralUI ui = metrics.recorder(new JsonLinesUI(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(new ByteArrayOutputStream())), "C:\\data", 512);
+        ui.updateTitle("disk \"B\"");
+        ui.showErrorMessageDialog("disk full", "Unable to write");
+
+        assertTrue(metrics.scrape().contains(
+                "jdm_errors_total{device=\"C:\\\\data\",disk=\"disk \\\"B\\\"\",block_size_kb=\"512\"} 1\n"));
+    }
+
+    /**
+     * CORRECT: Conformance
+     * a listener of its own serves the registry at GET /metrics in the OpenMetrics format, as
+     * the command line runner and the GUI use it, and refuses other methods
+     */
+    @Test
+    void testServeAnswersScrapes() throws IOException, InterruptedException {
+        MetricsRegistry metrics = new MetricsRegistry();
+        GeneralUI ui = metrics.recorder(new JsonLinesUI(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(new ByteArrayOutputStream())), "/mnt/a", 64);
+        ui.addReadMark(mark(DiskMark.MarkType.READ, 3, 4096));
+        HttpServer server = metrics.serve(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+            HttpClient client = HttpClient.newHttpClient();
+            HttpResponse<String> scrape = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, scrape.statusCode());
+            assertEquals(MetricsRegistry.CONTENT_TYPE, scrape.headers().firstValue("Content-Type").orElse(null));
+            assertEquals(metrics.scrape(), scrape.body());
+            assertTrue(scrape.body().contains("jdm_marks_total{device=\"/mnt/a\""));
+
+            HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(405, post.statusCode());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.HeadlessWorker;
+import edu.touro.mco152.bm.cli.JsonLinesUI;
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.commands.MixedBenchmarkCommandReceiver;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MixedBenchmarkTest {
+
+    private static final int BLOCK = 4096;
+    private static final int BLOCKS = 32;
+
+    @TempDir
+    Path dir;
+
+    private Properties profile() {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("mixedTest", "true");
+        p.setProperty("numOfFiles", "2");
+        p.setProperty("numOfBlocks", String.valueOf(BLOCKS));
+        p.setProperty("blockSizeKb", String.valueOf(BLOCK / 1024));
+        p.setProperty("syncPolicy", "NONE");
+        return p;
+    }
+
+    private static DiskRun runMixed(ProfileBenchmarkSettings settings) {
+        JsonLinesUI ui = new JsonLinesUI(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(new ByteArrayOutputStream()));
+        new MixedBenchmarkCommandReceiver().doMixed(settings, ui,
+                new HeadlessWorker(settings, ui, new AtomicBoolean(false)));
+        assertEquals(0, ui.getErrors());
+        assertEquals(1, ui.getRuns());
+        return ui.getRunList().get(0);
+    }
+
+    /**
+     * BICEP: Right
+     * CORRECT: Existence - files left sparse at their full length are filled with the run's data
+     * pattern before the reads, so no read meets a hole or a block of zeros, and the run records it
+     */
+    @Test
+    void testPrefillFillsSparseFiles() throws IOException {
+        Properties p = profile();
+        p.setProperty("readPercent", "100");
+        p.setProperty("dataPattern", "RANDOM");
+        p.setProperty("preallocation", "SPARSE");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+        settings.getDataDir().mkdirs();
+        for (int m = 1; m <= 2; m++) {
+            try (RandomAccessFile raf = new RandomAccessFile(new File(settings.getDataDir(),
+                    "testdata" + m + ".jdm"), "rw")) {
+                raf.setLength((long) BLOCK * BLOCKS);
+            }
+        }
+
+        DiskRun run = runMixed(settings);
+
+        assertEquals(DiskRun.Preallocation.PATTERN, run.getPreallocation());
+        byte[] zeros = new byte[BLOCK];
+        Set<String> distinct = new HashSet<>();
+        for (int m = 1; m <= 2; m++) {
+            byte[] data = Files.readAllBytes(new File(settings.getDataDir(), "testdata" + m + ".jdm").toPath());
+            assertEquals(BLOCK * BLOCKS, data.length);
+            for (int b = 0; b < BLOCKS; b++) {
+                byte[] block = Arrays.copyOfRange(data, b * BLOCK, (b + 1) * BLOCK);
+                assertFalse(Arrays.equals(zeros, block), "file " + m + " block " + b + " was never filled");
+                distinct.add(Arrays.toString(block));
+            }
+        }
+        assertEquals(2 * BLOCKS, distinct.size());
+    }
+
+    /**
+     * CORRECT: Conformance
+     * a ZEROS preallocation asked for explicitly is kept and recorded
+     */
+    @Test
+    void testZerosPrefillIsKept() {
+        Properties p = profile();
+        p.setProperty("preallocation", "ZEROS");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+        settings.getDataDir().mkdirs();
+        assertEquals(DiskRun.Preallocation.ZEROS, runMixed(settings).getPreallocation());
+    }
+}
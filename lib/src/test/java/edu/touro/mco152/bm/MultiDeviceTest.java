@@ -0,0 +1,116 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.CommandLineRunner;
+import edu.touro.mco152.bm.cli.JsonLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MultiDeviceTest {
+
+    private static final int MARKS = 3;
+
+    @TempDir
+    Path dir;
+
+    private File a;
+    private File b;
+
+    private Properties profile(String deviceOrder) throws IOException {
+        a = Files.createDirectory(dir.resolve("a")).toFile();
+        b = Files.createDirectory(dir.resolve("b")).toFile();
+        Properties p = new Properties();
+        p.setProperty("locationDirs", a + "," + b);
+        p.setProperty("deviceOrder", deviceOrder);
+        p.setProperty("numOfFiles", String.valueOf(MARKS));
+        p.setProperty("numOfBlocks", "4");
+        p.setProperty("blockSizeKb", "4");
+        p.setProperty("syncPolicy", "NONE");
+        // a run set is stored by default, which is not what is under test here
+        p.setProperty("persistRuns", "false");
+        return p;
+    }
+
+    /**
+     * @return the JSON lines the runner printed, after checking it succeeded
+     */
+    private static List<String> run(Properties p) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int exitCode = CommandLineRunner.run(p, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(new ByteArrayOutputStream()), new AtomicBoolean(false));
+        assertEquals(0, exitCode);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static int first(List<String> lines, String event, File device) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (event.equals(JsonLine.get(lines.get(i), "event"))
+                    && device.getPath().equals(JsonLine.get(lines.get(i), "device"))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int last(List<String> lines, String event, File device) {
+        int found = -1;
+        for (int i = 0; i < lines.size(); i++) {
+            if (event.equals(JsonLine.get(lines.get(i), "event"))
+                    && device.getPath().equals(JsonLine.get(lines.get(i), "device"))) {
+                found = i;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * BICEP: Right
+     * CORRECT: Ordering - SERIAL finishes every mark and the run of the first device listed
+     * before the second one starts, then totals both on a host line
+     */
+    @Test
+    void testSerialRunsDevicesInOrder() throws IOException {
+        List<String> lines = run(profile("SERIAL"));
+
+        assertEquals(MARKS, lines.stream().filter(l -> "mark".equals(JsonLine.get(l, "event"))
+                && a.getPath().equals(JsonLine.get(l, "device"))).count());
+        assertEquals(MARKS, lines.stream().filter(l -> "mark".equals(JsonLine.get(l, "event"))
+                && b.getPath().equals(JsonLine.get(l, "device"))).count());
+        assertTrue(first(lines, "mark", a) >= 0);
+        assertTrue(last(lines, "run", a) < first(lines, "mark", b));
+        String host = lines.stream().filter(l -> "host".equals(JsonLine.get(l, "event"))).findFirst().orElseThrow();
+        assertEquals("2", JsonLine.get(host, "devices"));
+        assertEquals("SERIAL", JsonLine.get(host, "deviceOrder"));
+        assertTrue(lines.indexOf(host) > last(lines, "run", b));
+    }
+
+    /**
+     * CORRECT: Time
+     * CONCURRENT runs the devices at the same time, so timed marks of one device are under way
+     * while the other's are
+     */
+    @Test
+    void testConcurrentRunsDevicesTogether() throws IOException {
+        Properties p = profile("CONCURRENT");
+        p.setProperty("markDurationMs", "200");
+        List<String> lines = run(p);
+
+        assertTrue(first(lines, "mark", b) < last(lines, "mark", a));
+        assertTrue(first(lines, "mark", a) < last(lines, "mark", b));
+        String host = lines.stream().filter(l -> "host".equals(JsonLine.get(l, "event"))).findFirst().orElseThrow();
+        assertEquals("2", JsonLine.get(host, "devices"));
+        assertEquals("CONCURRENT", JsonLine.get(host, "deviceOrder"));
+    }
+}
@@ -0,0 +1,88 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.OffsetGenerator;
+import edu.touro.mco152.bm.engine.OffsetGenerators;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+public class OffsetGeneratorsTest {
+
+    private static int[] hits(DiskRun.BlockSequence sequence, int blocks, int draws) {
+        OffsetGenerator gen = OffsetGenerators.create(sequence, blocks, new SplittableRandom(42));
+        gen.reset();
+        int[] hits = new int[blocks];
+        for (int i = 0; i < draws; i++) {
+            hits[gen.next()]++;
+        }
+        return hits;
+    }
+
+    /**
+     * BICEP: Right
+     * shuffled, strided, sequential and reverse passes each touch every block exactly once
+     */
+    @Test
+    void testFullCoverage() {
+        for (DiskRun.BlockSequence sequence : new DiskRun.BlockSequence[]{
+                DiskRun.BlockSequence.SEQUENTIAL, DiskRun.BlockSequence.REVERSE,
+                DiskRun.BlockSequence.SHUFFLED, DiskRun.BlockSequence.STRIDED}) {
+            for (int hit : hits(sequence, 37, 37)) {
+                assertEquals(1, hit, sequence.toString());
+            }
+        }
+    }
+
+    /**
+     * BICEP: Right
+     * reverse starts at the last block and wraps back to it after block 0
+     */
+    @Test
+    void testReverseOrder() {
+        OffsetGenerator gen = OffsetGenerators.create(DiskRun.BlockSequence.REVERSE, 3, new SplittableRandom(1));
+        gen.reset();
+        assertArrayEquals(new int[]{2, 1, 0, 2}, new int[]{gen.next(), gen.next(), gen.next(), gen.next()});
+    }
+
+    /**
+     * CORRECT: Range
+     * hotspot sends about 90% of accesses to the first 10% of blocks
+     */
+    @Test
+    void testHotspotSkew() {
+        int[] hits = hits(DiskRun.BlockSequence.HOTSPOT, 1000, 100_000);
+        int hot = 0;
+        for (int b = 0; b < 100; b++) {
+            hot += hits[b];
+        }
+        assertEquals(90_000, hot, 1_000);
+    }
+
+    /**
+     * CORRECT: Range
+     * with zipf skew the hottest block alone gets far more than a uniform share
+     */
+    @Test
+    void testZipfianSkew() {
+        int[] hits = hits(DiskRun.BlockSequence.ZIPFIAN, 1000, 100_000);
+        int max = 0;
+        for (int hit : hits) {
+            max = Math.max(max, hit);
+        }
+        assertTrue(max > 50 * 100, "hottest block got " + max);
+    }
+
+    /**
+     * BICEP: B for Boundary
+     * a one block stripe always returns block 0
+     */
+    @Test
+    void testSingleBlock() {
+        for (DiskRun.BlockSequence sequence : DiskRun.BlockSequence.values()) {
+            assertEquals(5, hits(sequence, 1, 5)[0], sequence.toString());
+        }
+    }
+}
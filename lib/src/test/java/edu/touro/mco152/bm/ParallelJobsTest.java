@@ -0,0 +1,69 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.TransferStats;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+public class ParallelJobsTest {
+
+    private static final int BLOCK = 4096;
+    // prime, so no job count below divides it and stripes differ in size
+    private static final int BLOCKS = 29;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * BICEP: Right
+     * CORRECT: Cardinality - the stripes of several jobs cover every block of the mark exactly
+     * once, whatever the order within a stripe and even with more jobs than blocks
+     */
+    @ParameterizedTest
+    @CsvSource({"SEQUENTIAL, 4", "REVERSE, 3", "STRIDED, 4", "SHUFFLED, 7", "SEQUENTIAL, 40"})
+    void testStripesCoverEveryBlockOnce(String sequence, int numJobs) throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        byte[] filler = new byte[BLOCK * BLOCKS];
+        Arrays.fill(filler, (byte) 0x5A);
+        Files.write(file.toPath(), filler);
+
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("numOfBlocks", String.valueOf(BLOCKS));
+        p.setProperty("blockSizeKb", String.valueOf(BLOCK / 1024));
+        p.setProperty("syncPolicy", "NONE");
+        p.setProperty("dataPattern", "RANDOM");
+        p.setProperty("blockSequence", sequence);
+        p.setProperty("numJobs", String.valueOf(numJobs));
+        MarkExecutor executor = new MarkExecutor(new ProfileBenchmarkSettings(p, message -> { }),
+                DiskRun.IOMode.WRITE);
+        TransferStats stats;
+        try {
+            stats = executor.runMark(file, 1, () -> false, () -> { });
+        } finally {
+            executor.close();
+        }
+
+        assertEquals(BLOCKS, stats.getWriteOps());
+        byte[] written = Files.readAllBytes(file.toPath());
+        assertEquals(BLOCK * BLOCKS, written.length);
+        // as many writes as blocks and no block left untouched means each was written once
+        byte[] untouched = Arrays.copyOfRange(filler, 0, BLOCK);
+        for (int b = 0; b < BLOCKS; b++) {
+            byte[] block = Arrays.copyOfRange(written, b * BLOCK, (b + 1) * BLOCK);
+            assertFalse(Arrays.equals(untouched, block), "block " + b + " was never written");
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.HeadlessWorker;
+import edu.touro.mco152.bm.cli.JsonLinesUI;
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.commands.MyInvoker;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ProfileBenchmarkSettingsTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * BICEP: Right
+     * a profile uses the jdm.properties keys, and keys left out keep the GUI defaults
+     */
+    @Test
+    void testProfileSettings() {
+        Properties p = new Properties();
+        p.setProperty("locationDir", "/tmp");
+        p.setProperty("numOfFiles", "7");
+        p.setProperty("engineType", "FILE_CHANNEL");
+        p.setProperty("writeSyncEnable", "false");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+
+        assertEquals(7, settings.getNumOfMarks());
+        assertEquals(DiskRun.EngineType.FILE_CHANNEL, settings.getEngineType());
+        assertEquals(DiskRun.SyncPolicy.NONE, settings.getSyncPolicy());
+        assertEquals(32, settings.getNumOfBlocks());
+        assertFalse(settings.isPersistRuns());
+        assertTrue(settings.getDataDir().getPath().endsWith(App.DATADIRNAME));
+    }
+
+    /**
+     * BICEP: Error
+     * a value that is not one of the enum's names is rejected rather than ignored
+     */
+    @Test
+    void testBadProfileValue() {
+        Properties p = new Properties();
+        p.setProperty("blockSequence", "SIDEWAYS");
+        assertThrows(IllegalArgumentException.class, () -> new ProfileBenchmarkSettings(p, message -> { }));
+    }
+
+    /**
+     * CORRECT: Conformance
+     * mixed is a mode of its own as in the GUI: it turns the write pass off by default, and
+     * asking for a write or read pass alongside it is rejected
+     */
+    @Test
+    void testMixedIsExclusive() {
+        Properties p = new Properties();
+        p.setProperty("mixedTest", "true");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+        assertTrue(settings.isMixedTest());
+        assertFalse(settings.isWriteTest());
+        assertFalse(settings.isReadTest());
+        assertTrue(new ProfileBenchmarkSettings(new Properties(), message -> { }).isWriteTest());
+
+        p.setProperty("readTest", "true");
+        assertThrows(IllegalArgumentException.class, () -> new ProfileBenchmarkSettings(p, message -> { }));
+    }
+
+    /**
+     * BICEP: Right
+     * a write and read run reads back the files the write made, so verification finds every
+     * block sealed by that write
+     */
+    @Test
+    void testWriteThenReadVerifies() throws Exception {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("readTest", "true");
+        p.setProperty("verifyData", "true");
+        p.setProperty("numOfFiles", "3");
+        p.setProperty("numOfBlocks", "8");
+        p.setProperty("blockSizeKb", "4");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+        settings.getDataDir().mkdirs();
+        JsonLinesUI ui = new JsonLinesUI(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(new ByteArrayOutputStream()));
+        MyInvoker invoker = new MyInvoker();
+        assertTrue(new GeneralUsageBenchmarker().queueBenchmark(settings, ui,
+                new HeadlessWorker(settings, ui, new AtomicBoolean(false)), invoker));
+        invoker.runAll();
+
+        assertEquals(2, ui.getRuns());
+        assertEquals(0, ui.getErrors());
+        DiskRun read = ui.getRunList().get(1);
+        assertEquals(DiskRun.IOMode.READ, read.getIoMode());
+        assertEquals(3 * 8, read.getVerifiedBlocks());
+    }
+}
@@ -0,0 +1,88 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.TransferStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RunMetricsTest {
+
+    private static DiskMark mark(DiskMark.MarkType type, double bw, double iops) {
+        DiskMark mark = new DiskMark(type);
+        mark.setBwMbSec(bw);
+        mark.setIops(iops);
+        return mark;
+    }
+
+    /**
+     * BICEP: Right
+     * each mark is stamped with max, min and avg of all marks of its direction so far
+     */
+    @Test
+    void testCumulativeValues() {
+        RunMetrics metrics = new RunMetrics();
+        DiskMark first = mark(DiskMark.MarkType.WRITE, 100, 1000);
+        metrics.record(first);
+        DiskMark second = mark(DiskMark.MarkType.WRITE, 300, 3000);
+        metrics.record(second);
+        metrics.record(mark(DiskMark.MarkType.READ, 50, 500));
+
+        assertEquals(100, first.getCumAvg());
+        assertEquals(200, second.getCumAvg());
+        assertEquals(300, second.getCumMax());
+        assertEquals(100, second.getCumMin());
+        assertEquals(2000, second.getCumIopsAvg());
+        assertEquals(2, metrics.getSummary(DiskMark.MarkType.WRITE).getMarks());
+        assertEquals(50, metrics.getSummary(DiskMark.MarkType.READ).getBwAvg());
+    }
+
+    /**
+     * BICEP: Boundary
+     * before any mark every aggregate reads -1, the value shown as "- -"
+     */
+    @Test
+    void testEmpty() {
+        RunMetrics.Summary summary = new RunMetrics().getSummary(DiskMark.MarkType.READ);
+        assertEquals(0, summary.getMarks());
+        assertEquals(-1, summary.getBwMax());
+        assertEquals(-1, summary.getBwAvg());
+    }
+
+    /**
+     * CORRECT: Concurrency
+     * marks and transfers recorded from 8 threads at once must all be counted, with no lost update
+     */
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        RunMetrics metrics = new RunMetrics();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    metrics.record(mark(DiskMark.MarkType.WRITE, i, i * 10));
+                    TransferStats stats = new TransferStats();
+                    stats.completed(true, 0, 4096, 1000);
+                    metrics.add(stats);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        RunMetrics.Summary summary = metrics.getSummary(DiskMark.MarkType.WRITE);
+        assertEquals(8000, summary.getMarks());
+        assertEquals(1000, summary.getBwMax());
+        assertEquals(1, summary.getBwMin());
+        assertEquals(500.5, summary.getBwAvg(), 1e-6);
+        assertEquals(8000, metrics.getOps(DiskMark.MarkType.WRITE));
+        assertEquals(8000L * 4096, metrics.getBytes(DiskMark.MarkType.WRITE));
+        assertEquals(8000, metrics.getLatency(DiskMark.MarkType.WRITE).getCount());
+        assertEquals(0, metrics.getOps(DiskMark.MarkType.READ));
+    }
+}
@@ -0,0 +1,65 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.SseBroadcast;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+
+public class SseBroadcastTest {
+
+    /**
+     * BICEP: Right
+     * written bytes reach every subscriber as whole lines, blank lines are skipped
+     */
+    @Test
+    void testLinesReachSubscribers() {
+        SseBroadcast broadcast = new SseBroadcast();
+        BlockingQueue<String> first = broadcast.subscribe();
+        BlockingQueue<String> second = broadcast.subscribe();
+
+        broadcast.write("{\"event\":\"mark\"}\n\n{\"event\":".getBytes(StandardCharsets.UTF_8), 0, 20);
+        assertEquals(1, first.size());
+        broadcast.write("{\"event\":\"run\"}\n".getBytes(StandardCharsets.UTF_8), 2, 14);
+
+        assertEquals("{\"event\":\"mark\"}", first.poll());
+        assertEquals("{\"event\":\"run\"}", first.poll());
+        assertEquals(2, second.size());
+    }
+
+    /**
+     * CORRECT: Cardinality
+     * a subscriber that falls behind loses its oldest lines, not the newest, and an
+     * unsubscribed queue gets nothing more
+     */
+    @Test
+    void testSlowSubscriberDropsOldest() {
+        SseBroadcast broadcast = new SseBroadcast();
+        BlockingQueue<String> lines = broadcast.subscribe();
+        int written = lines.remainingCapacity() + 10;
+        for (int i = 0; i < written; i++) {
+            byte[] line = ("line " + i + "\n").getBytes(StandardCharsets.UTF_8);
+            broadcast.write(line, 0, line.length);
+        }
+        assertEquals("line 10", lines.peek());
+
+        broadcast.unsubscribe(lines);
+        lines.clear();
+        broadcast.write('x');
+        broadcast.write('\n');
+        assertTrue(lines.isEmpty());
+    }
+
+    /**
+     * BICEP: Right
+     * an event is named after the line's event field and carries the line as its data
+     */
+    @Test
+    void testToEvent() {
+        assertEquals("event: mark\ndata: {\"event\":\"mark\",\"mark\":1}\n\n",
+                SseBroadcast.toEvent("{\"event\":\"mark\",\"mark\":1}"));
+        assertEquals("data: plain\n\n", SseBroadcast.toEvent("plain"));
+    }
+}
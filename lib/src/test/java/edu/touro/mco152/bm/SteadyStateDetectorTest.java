@@ -0,0 +1,101 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.HeadlessWorker;
+import edu.touro.mco152.bm.cli.JsonLinesUI;
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.commands.WriteBenchMarkCommandReceiver;
+import edu.touro.mco152.bm.engine.SteadyStateDetector;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SteadyStateDetectorTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * BICEP: Right
+     * a run that climbs while caches warm and then holds near 500 MB/s should settle only once
+     * the whole window is past the climb
+     */
+    @Test
+    void testSettlesAfterRampUp() {
+        SteadyStateDetector detector = new SteadyStateDetector(3, 2);
+        assertFalse(detector.add(100));
+        assertFalse(detector.add(300));
+        assertFalse(detector.add(495));
+        assertFalse(detector.add(500));
+        assertTrue(detector.add(505));
+        assertEquals(1.0, detector.getCvPercent(), 0.01);
+    }
+
+    /**
+     * BICEP: Boundary
+     * identical marks can never count as steady before the window has filled
+     */
+    @Test
+    void testNotSteadyBeforeWindowFills() {
+        SteadyStateDetector detector = new SteadyStateDetector(4, 5);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(detector.add(250));
+        }
+        assertTrue(Double.isNaN(detector.getCvPercent()));
+        assertTrue(detector.add(250));
+        assertEquals(0.0, detector.getCvPercent());
+    }
+
+    /**
+     * CORRECT: Range
+     * marks swinging between 100 and 200 MB/s stay well above a 5% threshold however long it runs
+     */
+    @Test
+    void testNoisyRunNeverSettles() {
+        SteadyStateDetector detector = new SteadyStateDetector(5, 5);
+        for (int i = 0; i < 50; i++) {
+            assertFalse(detector.add(i % 2 == 0 ? 100 : 200));
+        }
+    }
+
+    /**
+     * CORRECT: Cardinality
+     * a run stopped at steady state hands back the mark after its last one, so the next run's
+     * files follow on without a gap
+     */
+    @Test
+    void testSteadyRunReturnsNextMark() {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("numOfFiles", "10");
+        p.setProperty("numOfBlocks", "8");
+        p.setProperty("blockSizeKb", "4");
+        p.setProperty("syncPolicy", "NONE");
+        // two marks can never differ by a CV above 141%, so the run is steady after its second mark
+        p.setProperty("steadyStateCv", "150");
+        p.setProperty("steadyStateWindow", "2");
+        ProfileBenchmarkSettings settings = new ProfileBenchmarkSettings(p, message -> { });
+        settings.getDataDir().mkdirs();
+        settings.setNextMarkNumber(5);
+        JsonLinesUI ui = new JsonLinesUI(new PrintStream(new ByteArrayOutputStream()),
+                new PrintStream(new ByteArrayOutputStream()));
+
+        int next = new WriteBenchMarkCommandReceiver().doWrite(settings, ui,
+                new HeadlessWorker(settings, ui, new AtomicBoolean(false)));
+
+        assertEquals(7, next);
+        DiskRun run = ui.getRunList().get(0);
+        assertEquals(2, run.getSteadyAtMark());
+        assertEquals(2, run.getNumMarks());
+        assertTrue(new File(settings.getDataDir(), "testdata6.jdm").exists());
+        assertFalse(new File(settings.getDataDir(), "testdata7.jdm").exists());
+    }
+}
@@ -0,0 +1,114 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.SweepScenario;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+public class SweepScenarioTest {
+
+    private static Properties matrix() {
+        Properties p = new Properties();
+        p.setProperty("numOfFiles", "5");
+        p.setProperty("sweepId", "ssd-a");
+        p.setProperty("sweep.blockSizeKb", "4, 64,1024");
+        p.setProperty("sweep.queueDepth", "1,32");
+        return p;
+    }
+
+    /**
+     * BICEP: Right
+     * every combination of the axis values is one cell, sharing the other keys and the sweep id
+     */
+    @Test
+    void testCells() {
+        SweepScenario scenario = new SweepScenario(matrix());
+        assertEquals(6, scenario.size());
+
+        Set<String> cells = new HashSet<>();
+        for (int i = 0; i < scenario.size(); i++) {
+            Properties cell = scenario.getCell(i);
+            assertEquals("5", cell.getProperty("numOfFiles"));
+            assertEquals("ssd-a", cell.getProperty("sweepId"));
+            assertEquals("true", cell.getProperty("persistRuns"));
+            assertNull(cell.getProperty("sweep.queueDepth"));
+            cells.add(cell.getProperty("blockSizeKb") + "/" + cell.getProperty("queueDepth"));
+        }
+        assertEquals(6, cells.size());
+    }
+
+    /**
+     * CORRECT: Ordering
+     * axes are alphabetical and the last one changes fastest
+     */
+    @Test
+    void testOrder() {
+        SweepScenario scenario = new SweepScenario(matrix());
+        assertEquals("blockSizeKb=4 queueDepth=1", scenario.getCell(0).getProperty("sweepCell"));
+        assertEquals("blockSizeKb=4 queueDepth=32", scenario.getCell(1).getProperty("sweepCell"));
+        assertEquals("blockSizeKb=64 queueDepth=1", scenario.getCell(2).getProperty("sweepCell"));
+        assertEquals("blockSizeKb=1024 queueDepth=32", scenario.getCell(5).getProperty("sweepCell"));
+    }
+
+    /**
+     * BICEP: Boundary
+     * a profile without axes is a single cell that is not part of a sweep
+     */
+    @Test
+    void testNoAxes() {
+        Properties p = new Properties();
+        p.setProperty("blockSizeKb", "8");
+        SweepScenario scenario = new SweepScenario(p);
+        assertFalse(scenario.isSweep());
+        assertEquals(1, scenario.size());
+        assertEquals("8", scenario.getCell(0).getProperty("blockSizeKb"));
+        assertNull(scenario.getCell(0).getProperty("sweepId"));
+        assertNull(scenario.getCell(0).getProperty("persistRuns"));
+    }
+
+    /**
+     * BICEP: Error
+     * an axis without values is rejected
+     */
+    @Test
+    void testEmptyAxis() {
+        Properties p = new Properties();
+        p.setProperty("sweep.queueDepth", " , ");
+        assertThrows(IllegalArgumentException.class, () -> new SweepScenario(p));
+    }
+
+    /**
+     * BICEP: Right
+     * locationDirs runs each cell on every device, as one run set even without axes
+     */
+    @Test
+    void testDevices() {
+        Properties p = new Properties();
+        p.setProperty("locationDirs", "/mnt/a, /mnt/b");
+        p.setProperty("deviceOrder", "SERIAL");
+        SweepScenario scenario = new SweepScenario(p);
+
+        assertTrue(scenario.isSweep());
+        assertEquals(1, scenario.size());
+        assertEquals(SweepScenario.DeviceOrder.SERIAL, scenario.getDeviceOrder());
+        assertEquals(2, scenario.getDevices().size());
+        Properties cell = scenario.getCell(0, "/mnt/b");
+        assertEquals("/mnt/b", cell.getProperty("locationDir"));
+        assertEquals("locationDir=/mnt/b", cell.getProperty("sweepCell"));
+    }
+
+    /**
+     * BICEP: Error
+     * an unknown device order is rejected
+     */
+    @Test
+    void testBadDeviceOrder() {
+        Properties p = new Properties();
+        p.setProperty("deviceOrder", "RANDOM");
+        assertThrows(IllegalArgumentException.class, () -> new SweepScenario(p));
+    }
+}
@@ -0,0 +1,82 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.TransferStats;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class SyncPolicyTest {
+
+    private static final int BLOCK = 4096;
+    private static final int BLOCKS = 16;
+
+    @TempDir
+    Path dir;
+
+    private TransferStats runMark(DiskRun.IOMode mode, String policy, int numJobs, int everyN) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("numOfBlocks", String.valueOf(BLOCKS));
+        p.setProperty("blockSizeKb", String.valueOf(BLOCK / 1024));
+        p.setProperty("syncPolicy", policy);
+        p.setProperty("syncEveryBlocks", String.valueOf(everyN));
+        p.setProperty("numJobs", String.valueOf(numJobs));
+        MarkExecutor executor = new MarkExecutor(new ProfileBenchmarkSettings(p, message -> { }), mode);
+        try {
+            return executor.runMark(dir.resolve("testdata.jdm").toFile(), 1, () -> false, () -> { });
+        } finally {
+            executor.close();
+        }
+    }
+
+    /**
+     * CORRECT: Cardinality - FORCE_EVERY_N forces after every N blocks a job writes plus once
+     * for a job's remainder, the AT_MARK_END policies force once per job, and NONE and DSYNC,
+     * which waits on each write instead, never force
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "NONE, 1, 4, 0",
+            "DSYNC, 2, 4, 0",
+            "FORCE_EVERY_N, 1, 4, 4",
+            "FORCE_EVERY_N, 1, 5, 4",
+            "FORCE_EVERY_N, 1, 16, 1",
+            "FORCE_EVERY_N, 1, 100, 1",
+            "FORCE_EVERY_N, 2, 3, 6",
+            "FORCE_DATA_AT_MARK_END, 1, 4, 1",
+            "FORCE_DATA_AT_MARK_END, 4, 4, 4",
+            "FORCE_ALL_AT_MARK_END, 2, 4, 2"})
+    void testForcesPerPolicy(String policy, int numJobs, int everyN, int forces) throws IOException {
+        TransferStats stats = runMark(DiskRun.IOMode.WRITE, policy, numJobs, everyN);
+        assertEquals(BLOCKS, stats.getWriteOps());
+        assertEquals(forces, stats.getSyncOps());
+        assertEquals((long) BLOCK * BLOCKS, dir.resolve("testdata.jdm").toFile().length());
+    }
+
+    /**
+     * BICEP: Right
+     * a read mark has nothing to make durable, so it never forces whatever the policy
+     */
+    @Test
+    void testReadsNeverForce() throws IOException {
+        File file = dir.resolve("testdata.jdm").toFile();
+        Files.write(file.toPath(), new byte[BLOCK * BLOCKS]);
+        for (DiskRun.SyncPolicy policy : DiskRun.SyncPolicy.values()) {
+            TransferStats stats = runMark(DiskRun.IOMode.READ, policy.name(), 2, 1);
+            assertEquals(BLOCKS, stats.getReadOps());
+            assertEquals(0, stats.getSyncOps(), policy.name());
+        }
+    }
+}
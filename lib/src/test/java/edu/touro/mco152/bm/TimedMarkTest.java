@@ -0,0 +1,105 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.cli.ProfileBenchmarkSettings;
+import edu.touro.mco152.bm.engine.MarkExecutor;
+import edu.touro.mco152.bm.engine.TransferStats;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TimedMarkTest {
+
+    private static final int BLOCKS = 8;
+
+    @TempDir
+    Path dir;
+
+    private Properties profile(int markDurationMs, int numJobs) {
+        Properties p = new Properties();
+        p.setProperty("locationDir", dir.toString());
+        p.setProperty("numOfBlocks", String.valueOf(BLOCKS));
+        p.setProperty("blockSizeKb", "4");
+        p.setProperty("syncPolicy", "NONE");
+        p.setProperty("markDurationMs", String.valueOf(markDurationMs));
+        p.setProperty("numJobs", String.valueOf(numJobs));
+        return p;
+    }
+
+    /**
+     * CORRECT: Time
+     * a timed mark keeps cycling through its blocks until its time is up rather than stopping
+     * after numBlocks, and still reports numBlocks progress steps
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void testMarkRunsUntilDeadline(int numJobs) throws IOException {
+        MarkExecutor executor = new MarkExecutor(new ProfileBenchmarkSettings(profile(200, numJobs),
+                message -> { }), DiskRun.IOMode.WRITE);
+        File file = dir.resolve("testdata.jdm").toFile();
+        AtomicInteger steps = new AtomicInteger();
+        long start = System.nanoTime();
+        TransferStats stats;
+        try {
+            stats = executor.runMark(file, 1, () -> false, steps::incrementAndGet);
+        } finally {
+            executor.close();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs >= 200, "mark ended after " + elapsedMs + " ms");
+        assertTrue(elapsedMs < 5_000, "mark ran " + elapsedMs + " ms");
+        assertTrue(stats.getWriteOps() > BLOCKS, "only " + stats.getWriteOps() + " blocks in 200 ms");
+        assertEquals(BLOCKS, steps.get());
+    }
+
+    /**
+     * CORRECT: Time
+     * a cancel ends a timed mark at the next block instead of at its deadline
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void testCancelEndsMarkEarly(int numJobs) throws IOException {
+        MarkExecutor executor = new MarkExecutor(new ProfileBenchmarkSettings(profile(60_000, numJobs),
+                message -> { }), DiskRun.IOMode.WRITE);
+        File file = dir.resolve("testdata.jdm").toFile();
+        long start = System.nanoTime();
+        long cancelAt = start + 100_000_000L;
+        try {
+            executor.runMark(file, 1, () -> System.nanoTime() - cancelAt >= 0, () -> { });
+        } finally {
+            executor.close();
+        }
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    /**
+     * BICEP: Right
+     * a run duration is turned into as many timed marks as fit, at least one, and is ignored
+     * when marks are not timed
+     */
+    @Test
+    void testRunDurationSetsMarks() {
+        Properties p = profile(250, 1);
+        p.setProperty("runDurationSec", "1");
+        assertEquals(4, new ProfileBenchmarkSettings(p, message -> { }).getNumOfMarks());
+
+        p = profile(5_000, 1);
+        p.setProperty("runDurationSec", "1");
+        assertEquals(1, new ProfileBenchmarkSettings(p, message -> { }).getNumOfMarks());
+
+        p = profile(0, 1);
+        p.setProperty("runDurationSec", "1");
+        p.setProperty("numOfFiles", "7");
+        assertEquals(7, new ProfileBenchmarkSettings(p, message -> { }).getNumOfMarks());
+    }
+}
@@ -0,0 +1,94 @@
+package edu.touro.mco152.bm;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import edu.touro.mco152.bm.engine.IOEngine;
+import edu.touro.mco152.bm.engine.VirtualThreadEngine;
+import edu.touro.mco152.bm.persist.DiskRun;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VirtualThreadEngineTest {
+
+    private static final int BLOCK = 4096;
+
+    @TempDir
+    Path dir;
+
+    private File file() {
+        return dir.resolve("testdata.jdm").toFile();
+    }
+
+    /**
+     * CORRECT: Time
+     * drain waits for the transfers in flight but not for the think time that follows them, so a
+     * mark's time holds no idle client time
+     */
+    @Test
+    void testDrainSkipsThinkTime() throws IOException {
+        VirtualThreadEngine engine = new VirtualThreadEngine(4, 2000);
+        AtomicInteger completed = new AtomicInteger();
+        engine.setCompletionListener((write, position, size, latencyNs) -> completed.incrementAndGet());
+        ByteBuffer payload = engine.allocate(BLOCK);
+        engine.open(file(), BLOCK * 4L, DiskRun.IOMode.WRITE, false);
+        long start = System.nanoTime();
+        try (engine) {
+            for (int b = 0; b < 4; b++) {
+                engine.write(payload, (long) b * BLOCK);
+            }
+            engine.drain();
+            assertEquals(4, completed.get());
+            assertTrue(System.nanoTime() - start < 1_000_000_000L, "drain waited out the think time");
+        }
+    }
+
+    /**
+     * CORRECT: Time
+     * a client thinking is not free to take the next block, so think time still paces each client
+     */
+    @Test
+    void testThinkTimePacesClients() throws IOException {
+        VirtualThreadEngine engine = new VirtualThreadEngine(1, 100);
+        ByteBuffer payload = engine.allocate(BLOCK);
+        engine.open(file(), BLOCK * 3L, DiskRun.IOMode.WRITE, false);
+        long start = System.nanoTime();
+        try (engine) {
+            for (int b = 0; b < 3; b++) {
+                engine.write(payload, (long) b * BLOCK);
+            }
+            engine.drain();
+        }
+        assertTrue(System.nanoTime() - start >= 200_000_000L);
+    }
+
+    /**
+     * BICEP: Error
+     * an unchecked exception from the completion listener fails the engine instead of being lost
+     * with its virtual thread
+     */
+    @Test
+    void testListenerFailureIsReported() throws IOException {
+        VirtualThreadEngine engine = new VirtualThreadEngine(8, 0);
+        IOEngine.CompletionListener broken = (write, position, size, latencyNs) -> {
+            throw new IllegalStateException("listener broke");
+        };
+        engine.setCompletionListener(broken);
+        ByteBuffer payload = engine.allocate(BLOCK);
+        engine.open(file(), BLOCK * 2L, DiskRun.IOMode.WRITE, false);
+        try (engine) {
+            // the failure surfaces at the next call, which may already be the second write
+            IOException e = assertThrows(IOException.class, () -> {
+                engine.write(payload, 0);
+                engine.write(payload, BLOCK);
+                engine.drain();
+            });
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+}